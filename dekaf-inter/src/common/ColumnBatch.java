@@ -0,0 +1,91 @@
+package org.jetbrains.dekaf.inter.common;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.BitSet;
+
+
+
+/**
+ * A portion of a result set, stored column by column.
+ *
+ * Each column is an array: {@code int[]}, {@code long[]} or {@code double[]} for numeric columns,
+ * {@code String[]} for character columns, and {@code Object[]} for all other ones.
+ * NULLs of primitive columns are stored as zeros and marked in the null bitmap of the column.
+ *
+ * Columns are numbered from 0.
+ */
+public final class ColumnBatch {
+
+    /**
+     * Number of rows in this batch.
+     */
+    public final int rowCount;
+
+    @NotNull
+    private final Object @NotNull [] columns;
+
+    @Nullable
+    private final BitSet @NotNull [] nulls;
+
+
+    public ColumnBatch(final int rowCount,
+                       final @NotNull Object @NotNull [] columns,
+                       final @Nullable BitSet @NotNull [] nulls) {
+        assert columns.length == nulls.length;
+        this.rowCount = rowCount;
+        this.columns = columns;
+        this.nulls = nulls;
+    }
+
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @NotNull
+    public Object getColumn(final int index) {
+        return columns[index];
+    }
+
+    public int @NotNull [] getInts(final int index) {
+        return (int[]) columns[index];
+    }
+
+    public long @NotNull [] getLongs(final int index) {
+        return (long[]) columns[index];
+    }
+
+    public double @NotNull [] getDoubles(final int index) {
+        return (double[]) columns[index];
+    }
+
+    public String @NotNull [] getStrings(final int index) {
+        return (String[]) columns[index];
+    }
+
+    public Object @NotNull [] getObjects(final int index) {
+        return (Object[]) columns[index];
+    }
+
+    /**
+     * Null bitmap of the given column.
+     * @return bit set where the i-th bit is set when the value of the i-th row is NULL,
+     *         or null when the column has no NULLs in this batch.
+     */
+    @Nullable
+    public BitSet getNulls(final int index) {
+        return nulls[index];
+    }
+
+    public boolean isNull(final int column, final int row) {
+        BitSet bits = nulls[column];
+        return bits != null && bits.get(row);
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnBatch{" + columns.length + " columns x " + rowCount + " rows}";
+    }
+}
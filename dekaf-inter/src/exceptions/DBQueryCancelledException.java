@@ -0,0 +1,25 @@
+package org.jetbrains.dekaf.inter.exceptions;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.SQLException;
+
+
+
+/**
+ * Thrown when a statement is cancelled or its time is out.
+ **/
+public class DBQueryCancelledException extends DBException {
+
+  public DBQueryCancelledException(@NotNull final String message,
+                                   @NotNull final SQLException sqlException,
+                                   @Nullable String statementText) {
+    super(message, sqlException, statementText);
+  }
+
+
+  public DBQueryCancelledException(@NotNull final String message, @Nullable String statementText) {
+    super(message, statementText);
+  }
+}
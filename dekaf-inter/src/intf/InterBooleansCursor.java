@@ -0,0 +1,38 @@
+package org.jetbrains.dekaf.inter.intf;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.BitSet;
+
+
+
+/**
+ * A column cursor of booleans, packed into bit sets.
+ */
+public interface InterBooleansCursor extends InterPrimitiveCursor {
+
+    void setDefaultValue(boolean defaultValue);
+
+    /**
+     * Fetches the next portion.
+     * @return bit set where the i-th bit is the i-th fetched value,
+     *         or null when no more rows.
+     * @see #getFetchedCount()
+     */
+    @Nullable
+    BitSet fetchPortion();
+
+    /**
+     * Fetches the next row.
+     * @return bit set with the only bit (0) for the fetched value,
+     *         or null when no more rows.
+     */
+    @Nullable
+    BitSet fetchRow();
+
+    /**
+     * Number of values in the last fetched portion (or row).
+     */
+    int getFetchedCount();
+
+}
@@ -1,5 +1,6 @@
 package org.jetbrains.dekaf.inter.intf;
 
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 
@@ -11,6 +12,13 @@ public interface InterColumnCursor<C> extends InterCursor {
     @Nullable
     C[] fetchPortion();
 
+    /**
+     * Fetches the next portion into the given buffer, so the buffer can be reused across portions.
+     * @param buffer the buffer to fill, its length limits the portion size.
+     * @return number of fetched values, or 0 when no more rows.
+     */
+    int fetchPortionInto(C @NotNull [] buffer);
+
     @Nullable
     C[] fetchRow();
 
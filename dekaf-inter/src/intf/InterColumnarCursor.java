@@ -0,0 +1,25 @@
+package org.jetbrains.dekaf.inter.intf;
+
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.dekaf.inter.common.ColumnBatch;
+
+
+
+/**
+ * A cursor that fetches portions column by column.
+ */
+public interface InterColumnarCursor extends InterCursor {
+
+    /**
+     * Determines the column types of the result set.
+     */
+    void prepare();
+
+    /**
+     * Fetches the next portion.
+     * @return the portion, or null when no more rows.
+     */
+    @Nullable
+    ColumnBatch fetchPortion();
+
+}
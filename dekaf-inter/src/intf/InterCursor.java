@@ -13,4 +13,15 @@ public interface InterCursor extends AutoCloseable {
      */
     boolean isClosed();
 
+    /**
+     * Whether the cells are streams that read the values lazily from the current row;
+     * such values become invalid when the cursor fetches the next row,
+     * so the rows of such cursor must not be fetched ahead.
+     * Known after the cursor is prepared.
+     * @return whether the cursor is streaming.
+     */
+    default boolean isStreaming() {
+        return false;
+    }
+
 }
@@ -1,16 +1,24 @@
 package org.jetbrains.dekaf.inter.intf;
 
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 
 
-public interface InterIntsCursor extends InterCursor {
+public interface InterIntsCursor extends InterPrimitiveCursor {
 
     void setDefaultValue(int defaultValue);
 
     @Nullable
     int[] fetchPortion();
 
+    /**
+     * Fetches the next portion into the given buffer, so the buffer can be reused across portions.
+     * @param buffer the buffer to fill, its length limits the portion size.
+     * @return number of fetched values, or 0 when no more rows.
+     */
+    int fetchPortionInto(int @NotNull [] buffer);
+
     @Nullable
     int[] fetchRow();
 
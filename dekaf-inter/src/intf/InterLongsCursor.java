@@ -1,16 +1,24 @@
 package org.jetbrains.dekaf.inter.intf;
 
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 
 
-public interface InterLongsCursor extends InterCursor {
+public interface InterLongsCursor extends InterPrimitiveCursor {
 
     void setDefaultValue(long defaultValue);
 
     @Nullable
     long[] fetchPortion();
 
+    /**
+     * Fetches the next portion into the given buffer, so the buffer can be reused across portions.
+     * @param buffer the buffer to fill, its length limits the portion size.
+     * @return number of fetched values, or 0 when no more rows.
+     */
+    int fetchPortionInto(long @NotNull [] buffer);
+
     @Nullable
     long[] fetchRow();
 
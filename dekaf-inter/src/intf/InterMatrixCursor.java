@@ -14,6 +14,14 @@ public interface InterMatrixCursor<B> extends InterCursor {
 
     B[][] fetchPortion();
 
+    /**
+     * Fetches the next portion into the given buffer, so the buffer can be reused across portions.
+     * Row arrays that are already in the buffer are reused too, when they are long enough.
+     * @param buffer the buffer to fill, its length limits the portion size.
+     * @return number of fetched rows, or 0 when no more rows.
+     */
+    int fetchPortionInto(B @NotNull [] @NotNull [] buffer);
+
     B[] fetchRow();
 
 }
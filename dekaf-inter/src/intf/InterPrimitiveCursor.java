@@ -0,0 +1,25 @@
+package org.jetbrains.dekaf.inter.intf;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.BitSet;
+
+
+
+/**
+ * A column cursor that fetches values of a primitive type.
+ *
+ * NULL values are replaced with the default value in the fetched arrays,
+ * and marked in the null bitmap of the fetched portion.
+ */
+public interface InterPrimitiveCursor extends InterCursor {
+
+    /**
+     * Nulls of the last fetched portion (or row).
+     * @return bit set where the i-th bit is set when the i-th fetched value was NULL,
+     *         or null when the last fetched portion contained no NULLs.
+     */
+    @Nullable
+    BitSet getNulls();
+
+}
@@ -0,0 +1,24 @@
+package org.jetbrains.dekaf.inter.intf;
+
+import org.jetbrains.annotations.Nullable;
+
+
+
+/**
+ * A cursor that makes rows by calling a constructor of the row class,
+ * passing column values as the constructor arguments.
+ */
+public interface InterRowCursor<R> extends InterCursor {
+
+    /**
+     * Binds columns to the constructor parameters.
+     */
+    void prepare();
+
+    @Nullable
+    R[] fetchPortion();
+
+    @Nullable
+    R fetchRow();
+
+}
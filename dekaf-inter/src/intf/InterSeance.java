@@ -5,6 +5,8 @@ import org.jetbrains.annotations.Nullable;
 import org.jetbrains.dekaf.inter.common.ParamDef;
 import org.jetbrains.dekaf.inter.common.StatementCategory;
 
+import java.lang.reflect.Constructor;
+
 
 
 /**
@@ -14,14 +16,68 @@ public interface InterSeance extends AutoCloseable {
 
     void setPortionSize(int portionSize);
 
+    /**
+     * Limits the time of each following execution: when it's out, the statement is cancelled
+     * and the execution fails with {@link org.jetbrains.dekaf.inter.exceptions.DBQueryCancelledException}.
+     * The timeout covers the execution only: fetching the rows of the result is not limited by it.
+     * @param timeout the timeout in milliseconds, or 0 for no limit.
+     */
+    void setTimeout(long timeout);
+
+    /**
+     * Cancels the statement being executed.
+     * Can be called from another thread; when nothing is being executed, the next execution is cancelled
+     * (the cancellation is cleared when an execution completes).
+     */
+    void cancel();
+
     void prepare(@NotNull String statementText,
                  @NotNull StatementCategory category,
                  /*@NotNull*/ ParamDef @Nullable [] paramDefs);
 
     void execute(@Nullable Iterable<?> paramValues);
 
+    /**
+     * Executes the prepared statement with one parameter of primitive int, without boxing it.
+     * @param paramValue the value of the first input parameter.
+     * @throws IllegalStateException when the parameters are defined, but not exactly one of them is an input one.
+     */
+    void execute(int paramValue);
+
+    /**
+     * Executes the prepared statement with one parameter of primitive long, without boxing it.
+     * @param paramValue the value of the first input parameter.
+     * @throws IllegalStateException when the parameters are defined, but not exactly one of them is an input one.
+     */
+    void execute(long paramValue);
+
+    /**
+     * Executes the prepared statement once per the given row of parameters,
+     * sending the rows to the server in batches.
+     * @param rows       parameter values, one iterable per execution.
+     * @param flushEvery how many rows to accumulate before sending them to the server.
+     * @return numbers of affected rows, one per the given row.
+     */
+    int @NotNull [] executeBatch(@NotNull Iterable<? extends Iterable<?>> rows, int flushEvery);
+
     boolean isPrepared();
 
+    /**
+     * Attaches a companion of the current execution, for example, a background reader of its cursors.
+     * The companion is closed before the cursors are: when the seance is executed again or closed.
+     * Closing the companion must stop its using of the cursors.
+     * @param companion the companion to close.
+     */
+    void attach(@NotNull AutoCloseable companion);
+
+    /**
+     * Moves to the next result set returned by the executed statement, skipping update counts.
+     * Cursors made for parameter 0 after this call read the new result set;
+     * the previous primary result set is closed.
+     * @return whether there is the next result set.
+     */
+    boolean nextResult();
+
     /**
      * Makes and returns a matrix cursor.
      * @param parameter parameter number, or 0 for the primary cursor.
@@ -39,6 +95,27 @@ public interface InterSeance extends AutoCloseable {
     @NotNull
     <C> InterColumnCursor<C> makeColumnCursor(int parameter, Class<C> cellClass);
 
+    /**
+     * Makes and returns a columnar cursor.
+     * @param parameter parameter number, or 0 for the primary cursor.
+     * @return the created non-initiated cursor.
+     */
+    @NotNull
+    InterColumnarCursor makeColumnarCursor(int parameter);
+
+    /**
+     * Makes and returns a cursor that makes rows by calling the given constructor.
+     * @param parameter   parameter number, or 0 for the primary cursor.
+     * @param constructor the constructor of the row class.
+     * @param columnNames names of columns for the constructor parameters,
+     *                    or null to bind the parameters to columns by position.
+     * @return the created non-initiated cursor.
+     */
+    @NotNull
+    <R> InterRowCursor<R> makeRowCursor(int parameter,
+                                        @NotNull Constructor<R> constructor,
+                                        /*@NotNull*/ String @Nullable [] columnNames);
+
     /**
      * Makes and returns a column cursor of primitive int.
      * @param parameter parameter number, or 0 for the primary cursor.
@@ -55,6 +132,38 @@ public interface InterSeance extends AutoCloseable {
     @NotNull
     InterLongsCursor makeLongsCursor(int parameter);
 
+    /**
+     * Makes and returns a column cursor of primitive short int.
+     * @param parameter parameter number, or 0 for the primary cursor.
+     * @return the created cursor.
+     */
+    @NotNull
+    InterShortsCursor makeShortsCursor(int parameter);
+
+    /**
+     * Makes and returns a column cursor of primitive float.
+     * @param parameter parameter number, or 0 for the primary cursor.
+     * @return the created cursor.
+     */
+    @NotNull
+    InterFloatsCursor makeFloatsCursor(int parameter);
+
+    /**
+     * Makes and returns a column cursor of primitive double.
+     * @param parameter parameter number, or 0 for the primary cursor.
+     * @return the created cursor.
+     */
+    @NotNull
+    InterDoublesCursor makeDoublesCursor(int parameter);
+
+    /**
+     * Makes and returns a column cursor of primitive boolean.
+     * @param parameter parameter number, or 0 for the primary cursor.
+     * @return the created cursor.
+     */
+    @NotNull
+    InterBooleansCursor makeBooleansCursor(int parameter);
+
     /**
      * Closes the seance.
      */
@@ -0,0 +1,25 @@
+package org.jetbrains.dekaf.inter.intf;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+
+
+public interface InterShortsCursor extends InterPrimitiveCursor {
+
+    void setDefaultValue(short defaultValue);
+
+    @Nullable
+    short[] fetchPortion();
+
+    /**
+     * Fetches the next portion into the given buffer, so the buffer can be reused across portions.
+     * @param buffer the buffer to fill, its length limits the portion size.
+     * @return number of fetched values, or 0 when no more rows.
+     */
+    int fetchPortionInto(short @NotNull [] buffer);
+
+    @Nullable
+    short[] fetchRow();
+
+}
@@ -0,0 +1,80 @@
+@file:Suppress("platform_class_mapped_to_kotlin", "RemoveRedundantQualifierName")
+
+package org.jetbrains.dekaf.jdbcTest.impl
+
+import lb.yaka.expectations.*
+import lb.yaka.gears.*
+import org.jetbrains.dekaf.inter.common.StatementCategory.stmtQuery
+import org.junit.jupiter.api.MethodOrderer
+import org.junit.jupiter.api.Order
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestMethodOrder
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation::class)
+class JdbcBooleansCursorTest : H2ConnectedTest() {
+
+    @Test @Order(10)
+    fun fetchSingleValue() {
+        session.openSeance().use { seance ->
+            seance.prepare("select true", stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeBooleansCursor(0)
+            val r = cursor.fetchRow()
+
+            expect that r iz notNull; r!!
+            expect that cursor.fetchedCount equalsTo 1
+            expect that r[0] equalsTo true
+        }
+    }
+
+    @Test @Order(20)
+    fun fetchPortion_withNulls() {
+        val text = "select * from values (true), (false), (null), (true)"
+        session.openSeance().use { seance ->
+            seance.prepare(text, stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeBooleansCursor(0)
+            cursor.setDefaultValue(true)
+            val bits = cursor.fetchPortion()
+
+            expect that bits iz notNull; bits!!
+            expect that cursor.fetchedCount equalsTo 4
+            expect that bits[0] equalsTo true
+            expect that bits[1] equalsTo false
+            expect that bits[2] equalsTo true
+            expect that bits[3] equalsTo true
+
+            val nulls = cursor.nulls
+            expect that nulls iz notNull; nulls!!
+            expect that nulls.cardinality() equalsTo 1
+            expect that nulls[2] equalsTo true
+
+            expect that cursor.fetchPortion() iz Null
+            expect that cursor.fetchedCount iz zero
+        }
+    }
+
+    @Test @Order(30)
+    fun portions() {
+        val text = "select mod(value, 2) = 0 from table(value int = (1,2,3,4,5,6,7))"
+        session.openSeance().use { seance ->
+            seance.setPortionSize(4)
+            seance.prepare(text, stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeBooleansCursor(0)
+
+            val m1 = cursor.fetchPortion()
+            expect that m1 iz notNull; m1!!
+            expect that cursor.fetchedCount equalsTo 4
+            expect that m1.cardinality() equalsTo 2
+
+            val m2 = cursor.fetchPortion()
+            expect that m2 iz notNull; m2!!
+            expect that cursor.fetchedCount equalsTo 3
+            expect that m2[1] equalsTo true
+
+            expect that cursor.fetchPortion() iz Null
+        }
+    }
+
+}
@@ -123,6 +123,27 @@ class JdbcColumnCursorTest : H2ConnectedTest() {
     }
 
 
+    @Test @Order(40)
+    fun portionsIntoBuffer() {
+        val text = "select cast(value as varchar) from table(value int = (1,2,3,4,5,6,7))"
+        session.openSeance().use { seance ->
+            seance.prepare(text, stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeColumnCursor(0, String::class.java)
+            cursor.prepare()
+            val buffer = arrayOfNulls<String>(4)
+
+            expect that cursor.fetchPortionInto(buffer) equalsTo 4
+            expect that buffer[3] equalsTo "4"
+
+            expect that cursor.fetchPortionInto(buffer) equalsTo 3
+            expect that buffer[0] equalsTo "5"
+            expect that buffer[2] equalsTo "7"
+
+            expect that cursor.fetchPortionInto(buffer) iz zero
+        }
+    }
+
     @Test @Order(90)
     fun closeAtTheEnd() {
         val text = "select value from table(value int = (1,2,3,4,5,6,7))"
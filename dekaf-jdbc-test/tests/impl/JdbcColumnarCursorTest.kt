@@ -0,0 +1,84 @@
+@file:Suppress("platform_class_mapped_to_kotlin", "RemoveRedundantQualifierName")
+
+package org.jetbrains.dekaf.jdbcTest.impl
+
+import lb.yaka.expectations.*
+import lb.yaka.gears.*
+import org.jetbrains.dekaf.inter.common.StatementCategory.stmtQuery
+import org.junit.jupiter.api.MethodOrderer
+import org.junit.jupiter.api.Order
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestMethodOrder
+import java.math.BigDecimal
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation::class)
+class JdbcColumnarCursorTest : H2ConnectedTest() {
+
+    @Test @Order(10)
+    fun fetchPortion_basicTypes() {
+        val text = """|select * from values (1, cast(10 as bigint), cast(1.5 as double), 'one', cast(1.1 as decimal(5,2))),
+                      |                     (2, null, cast(2.5 as double), null, null),
+                      |                     (null, cast(30 as bigint), null, 'three', cast(3.3 as decimal(5,2)))
+                   """.trimMargin()
+        session.openSeance().use { seance ->
+            seance.prepare(text, stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeColumnarCursor(0)
+            cursor.prepare()
+            val batch = cursor.fetchPortion()
+
+            expect that batch iz notNull; batch!!
+            expect that batch.rowCount equalsTo 3
+            expect that batch.columnCount equalsTo 5
+
+            val ints = batch.getInts(0)
+            expect that ints hasSize 3
+            expect that ints[1] equalsTo 2
+            expect that batch.isNull(0, 2) equalsTo true
+
+            val longs = batch.getLongs(1)
+            expect that longs[2] equalsTo 30L
+            expect that batch.isNull(1, 1) equalsTo true
+
+            val doubles = batch.getDoubles(2)
+            expect that doubles[0] equalsTo 1.5
+            expect that batch.getNulls(2)!!.cardinality() equalsTo 1
+
+            val strings = batch.getStrings(3)
+            expect that strings[2] equalsTo "three"
+            expect that strings[1] iz Null
+
+            val objects = batch.getObjects(4)
+            expect that objects[2] equalsTo BigDecimal("3.30")
+            expect that batch.isNull(4, 0) equalsTo false
+
+            expect that cursor.fetchPortion() iz Null
+        }
+    }
+
+    @Test @Order(20)
+    fun portions() {
+        val text = "select value, value * 2 from table(value int = (1,2,3,4,5,6,7))"
+        session.openSeance().use { seance ->
+            seance.setPortionSize(5)
+            seance.prepare(text, stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeColumnarCursor(0)
+            cursor.prepare()
+
+            val b1 = cursor.fetchPortion()
+            expect that b1 iz notNull; b1!!
+            expect that b1.rowCount equalsTo 5
+            expect that b1.getNulls(0) iz Null
+
+            val b2 = cursor.fetchPortion()
+            expect that b2 iz notNull; b2!!
+            expect that b2.rowCount equalsTo 2
+            expect that b2.getInts(1) hasSize 2
+            expect that b2.getInts(1)[1] equalsTo 14
+
+            expect that cursor.fetchPortion() iz Null
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+@file:Suppress("platform_class_mapped_to_kotlin", "RemoveRedundantQualifierName")
+
+package org.jetbrains.dekaf.jdbcTest.impl
+
+import lb.yaka.expectations.*
+import lb.yaka.gears.*
+import org.jetbrains.dekaf.inter.common.StatementCategory.stmtQuery
+import org.junit.jupiter.api.MethodOrderer
+import org.junit.jupiter.api.Order
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestMethodOrder
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation::class)
+class JdbcDoublesCursorTest : H2ConnectedTest() {
+
+    @Test @Order(10)
+    fun fetchSingleValue() {
+        val text = "select * from values (cast(3.25 as double), 'labuda')"
+        val r: DoubleArray? = session.openSeance().use { seance ->
+            seance.prepare(text, stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeDoublesCursor(0)
+            cursor.fetchRow()
+        }
+
+        expect that r iz notNull; r!!
+        expect that r hasSize 1
+        expect that r[0] equalsTo 3.25
+    }
+
+    @Test @Order(11)
+    fun fetchSingleNull() {
+        session.openSeance().use { seance ->
+            seance.prepare("select cast(null as double) as V", stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeDoublesCursor(0)
+            cursor.setDefaultValue(-6.6)
+            val r = cursor.fetchRow()
+
+            expect that r iz notNull; r!!
+            expect that r[0] equalsTo -6.6
+
+            val nulls = cursor.nulls
+            expect that nulls iz notNull; nulls!!
+            expect that nulls[0] equalsTo true
+        }
+    }
+
+    @Test @Order(20)
+    fun fetchPortion_withNulls() {
+        val text = "select * from values (cast(1.5 as double)), (null), (cast(3.5 as double)), (null)"
+        session.openSeance().use { seance ->
+            seance.prepare(text, stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeDoublesCursor(0)
+            val column = cursor.fetchPortion()
+
+            expect that column iz notNull; column!!
+            expect that column hasSize 4
+            expect that column[0] equalsTo 1.5
+            expect that column[1] equalsTo 0.0
+            expect that column[2] equalsTo 3.5
+
+            val nulls = cursor.nulls
+            expect that nulls iz notNull; nulls!!
+            expect that nulls.cardinality() equalsTo 2
+            expect that nulls[1] equalsTo true
+            expect that nulls[3] equalsTo true
+        }
+    }
+
+    @Test @Order(30)
+    fun portions_noNulls() {
+        val text = "select cast(value as double) from table(value int = (1,2,3,4,5,6,7))"
+        session.openSeance().use { seance ->
+            seance.setPortionSize(5)
+            seance.prepare(text, stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeDoublesCursor(0)
+
+            val m1 = cursor.fetchPortion()
+            expect that m1 iz notNull; m1!!
+            expect that m1 hasSize 5
+            expect that cursor.nulls iz Null
+
+            val m2 = cursor.fetchPortion()
+            expect that m2 iz notNull; m2!!
+            expect that m2 hasSize 2
+            expect that m2[1] equalsTo 7.0
+
+            val m3 = cursor.fetchPortion()
+            expect that m3 iz Null
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+package org.jetbrains.dekaf.jdbcTest.impl
+
+import lb.yaka.expectations.equalsTo
+import lb.yaka.expectations.hasSize
+import lb.yaka.expectations.iz
+import lb.yaka.gears.Null
+import lb.yaka.gears.expect
+import org.jetbrains.dekaf.inter.common.StatementCategory.stmtQuery
+import org.jetbrains.dekaf.inter.settings.Settings
+import org.jetbrains.dekaf.jdbc.impl.JdbcFacade
+import org.jetbrains.dekaf.jdbc.impl.JdbcServiceFactory
+import org.jetbrains.dekaf.jdbc.impl.JdbcSession
+import org.jetbrains.dekaf.test.utils.UnitTest
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+
+class JdbcFetchTunerTest : UnitTest {
+
+    companion object {
+        fun tunedH2Settings(budget: Int) =
+                Settings.of(
+                        "driver", Settings.of("class", "org.h2.Driver"),
+                        "jdbc", Settings.of("connection-string", "jdbc:h2:mem:test",
+                                            "fetch-budget", budget.toString())
+                )
+        val factory = JdbcServiceFactory()
+    }
+
+
+    private fun tunedFacade(budget: Int): JdbcFacade {
+        val facade = factory.createFacade()
+        facade.init(tunedH2Settings(budget))
+        return facade
+    }
+
+    /**
+     * Queries the whole result.
+     * @return sizes of the fetched portions.
+     */
+    private fun JdbcSession.queryAll(text: String, portionSize: Int = 0): List<Int> {
+        val sizes = ArrayList<Int>()
+        openSeance().use { seance ->
+            seance.prepare(text, stmtQuery, null)
+            if (portionSize > 0) seance.setPortionSize(portionSize)
+            seance.execute(null)
+            val cursor = seance.makeMatrixCursor(0, Any::class.java)
+            cursor.prepare()
+            while (true) {
+                val portion = cursor.fetchPortion() ?: break
+                sizes.add(portion.size)
+            }
+        }
+        return sizes
+    }
+
+
+    @Test
+    fun disabled_byDefault() {
+        val facade = factory.createFacade()
+        facade.init(H2ConnectedTest.memH2Settings)
+        expect that facade.fetchTuner iz Null
+    }
+
+    @Test
+    fun budget_boundsPortion() {
+        val facade = tunedFacade(4096)
+        val text = "select X, 'abcdefghij' as S from system_range(1, 1000)"
+        facade.openSession().use { session ->
+            val sizes = session.queryAll(text)
+            expect that sizes.sum() equalsTo 1000
+            assertTrue(sizes.first() in 16..100, "The first portion has ${sizes.first()} rows")
+        }
+
+        val profile = facade.fetchTuner!!.getProfile(text)!!
+        expect that profile.usualRows equalsTo 1000L
+        expect that profile.executions equalsTo 1L
+        assertTrue(profile.rowWidth in 1..4096, "Row width is ${profile.rowWidth}")
+    }
+
+    @Test
+    fun smallResult_shrinksFetchSize() {
+        val facade = tunedFacade(1 shl 20)
+        val text = "select X from system_range(1, 10)"
+        facade.openSession().use { session ->
+            session.queryAll(text)
+            session.openSeance().use { seance ->
+                seance.prepare(text, stmtQuery, null)
+                expect that seance.statement!!.fetchSize equalsTo 16
+            }
+        }
+    }
+
+    @Test
+    fun explicitPortionSize_respected() {
+        val facade = tunedFacade(1 shl 20)
+        facade.openSession().use { session ->
+            val sizes = session.queryAll("select X from system_range(1, 12)", portionSize = 5)
+            expect that sizes hasSize 3
+            expect that sizes.first() equalsTo 5
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+@file:Suppress("platform_class_mapped_to_kotlin", "RemoveRedundantQualifierName")
+
+package org.jetbrains.dekaf.jdbcTest.impl
+
+import lb.yaka.expectations.*
+import lb.yaka.gears.*
+import org.jetbrains.dekaf.inter.common.StatementCategory.stmtQuery
+import org.junit.jupiter.api.MethodOrderer
+import org.junit.jupiter.api.Order
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestMethodOrder
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation::class)
+class JdbcFloatsCursorTest : H2ConnectedTest() {
+
+    @Test @Order(10)
+    fun fetchSingleValue() {
+        val text = "select * from values (cast(3.25 as real), 'labuda')"
+        val r: FloatArray? = session.openSeance().use { seance ->
+            seance.prepare(text, stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeFloatsCursor(0)
+            cursor.fetchRow()
+        }
+
+        expect that r iz notNull; r!!
+        expect that r hasSize 1
+        expect that r[0] equalsTo 3.25f
+    }
+
+    @Test @Order(11)
+    fun fetchSingleNull() {
+        session.openSeance().use { seance ->
+            seance.prepare("select cast(null as real) as V", stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeFloatsCursor(0)
+            cursor.setDefaultValue(-6.5f)
+            val r = cursor.fetchRow()
+
+            expect that r iz notNull; r!!
+            expect that r[0] equalsTo -6.5f
+
+            val nulls = cursor.nulls
+            expect that nulls iz notNull; nulls!!
+            expect that nulls[0] equalsTo true
+        }
+    }
+
+    @Test @Order(20)
+    fun fetchPortion_withNulls() {
+        val text = "select * from values (cast(1.5 as real)), (null), (cast(3.5 as real)), (null)"
+        session.openSeance().use { seance ->
+            seance.prepare(text, stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeFloatsCursor(0)
+            val column = cursor.fetchPortion()
+
+            expect that column iz notNull; column!!
+            expect that column hasSize 4
+            expect that column[0] equalsTo 1.5f
+            expect that column[1] equalsTo 0.0f
+            expect that column[2] equalsTo 3.5f
+
+            val nulls = cursor.nulls
+            expect that nulls iz notNull; nulls!!
+            expect that nulls.cardinality() equalsTo 2
+            expect that nulls[1] equalsTo true
+            expect that nulls[3] equalsTo true
+        }
+    }
+
+    @Test @Order(30)
+    fun portions_noNulls() {
+        val text = "select cast(value as real) from table(value int = (1,2,3,4,5,6,7))"
+        session.openSeance().use { seance ->
+            seance.setPortionSize(5)
+            seance.prepare(text, stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeFloatsCursor(0)
+
+            val m1 = cursor.fetchPortion()
+            expect that m1 iz notNull; m1!!
+            expect that m1 hasSize 5
+            expect that cursor.nulls iz Null
+
+            val m2 = cursor.fetchPortion()
+            expect that m2 iz notNull; m2!!
+            expect that m2 hasSize 2
+            expect that m2[1] equalsTo 7.0f
+
+            val m3 = cursor.fetchPortion()
+            expect that m3 iz Null
+        }
+    }
+
+    @Test @Order(40)
+    fun portionsIntoBuffer() {
+        val text = "select cast(value as real) from table(value int = (1,2,3,4,5,6,7,null))"
+        session.openSeance().use { seance ->
+            seance.prepare(text, stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeFloatsCursor(0)
+            cursor.setDefaultValue(-1.0f)
+            val buffer = FloatArray(5)
+
+            val n1 = cursor.fetchPortionInto(buffer)
+
+            expect that n1 equalsTo 5
+            expect that buffer[0] equalsTo 1.0f
+            expect that buffer[4] equalsTo 5.0f
+            expect that cursor.nulls iz Null
+
+            val n2 = cursor.fetchPortionInto(buffer)
+
+            expect that n2 equalsTo 3
+            expect that buffer[0] equalsTo 6.0f
+            expect that buffer[2] equalsTo -1.0f
+            val nulls = cursor.nulls
+            expect that nulls iz notNull; nulls!!
+            expect that nulls.cardinality() equalsTo 1
+            expect that nulls[2] equalsTo true
+            expect that cursor.isClosed equalsTo true
+
+            val n3 = cursor.fetchPortionInto(buffer)
+
+            expect that n3 iz zero
+        }
+    }
+
+}
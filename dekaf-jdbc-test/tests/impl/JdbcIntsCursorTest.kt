@@ -119,6 +119,37 @@ class JdbcIntsCursorTest : H2ConnectedTest() {
     }
 
 
+    @Test @Order(40)
+    fun portionsIntoBuffer() {
+        val text = "select value from table(value int = (1,2,3,4,5,6,7,null))"
+        session.openSeance().use { seance ->
+            seance.prepare(text, stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeIntsCursor(0)
+            cursor.setDefaultValue(-1)
+            val buffer = IntArray(5)
+
+            val n1 = cursor.fetchPortionInto(buffer)
+
+            expect that n1 equalsTo 5
+            expect that buffer[0] equalsTo 1
+            expect that buffer[4] equalsTo 5
+            expect that cursor.nulls iz Null
+
+            val n2 = cursor.fetchPortionInto(buffer)
+
+            expect that n2 equalsTo 3
+            expect that buffer[0] equalsTo 6
+            expect that buffer[2] equalsTo -1
+            expect that cursor.nulls iz notNull
+            expect that cursor.isClosed equalsTo true
+
+            val n3 = cursor.fetchPortionInto(buffer)
+
+            expect that n3 iz zero
+        }
+    }
+
     @Test @Order(90)
     fun closeAtTheEnd() {
         val text = "select value from table(value int = (1,2,3,4,5,6,7))"
@@ -0,0 +1,109 @@
+package org.jetbrains.dekaf.jdbcTest.impl
+
+import lb.yaka.expectations.equalsTo
+import lb.yaka.expectations.hasSize
+import lb.yaka.expectations.iz
+import lb.yaka.gears.expect
+import lb.yaka.gears.notNull
+import org.jetbrains.dekaf.inter.common.ParamDef
+import org.jetbrains.dekaf.inter.common.ParamDirection.paramIn
+import org.jetbrains.dekaf.inter.common.ParamType.paramBLOB
+import org.jetbrains.dekaf.inter.common.ParamType.paramCLOB
+import org.jetbrains.dekaf.inter.common.ParamType.paramInt
+import org.jetbrains.dekaf.inter.common.StatementCategory.stmtQuery
+import org.jetbrains.dekaf.inter.common.StatementCategory.stmtUpdate
+import org.jetbrains.dekaf.jdbc.impl.JdbcLobs
+import org.junit.jupiter.api.Order
+import org.junit.jupiter.api.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.InputStream
+import java.io.Reader
+import java.io.StringReader
+import java.io.StringWriter
+import java.nio.channels.Channels
+import java.nio.channels.FileChannel
+import java.nio.channels.ReadableByteChannel
+import java.nio.file.Files
+import java.nio.file.StandardOpenOption.READ
+import java.nio.file.StandardOpenOption.WRITE
+
+
+class JdbcLobsTest : H2ConnectedTest() {
+
+    private val content = ByteArray(200_000) { (it % 251).toByte() }
+
+    private val text = "Lorem ipsum dolor sit amet. ".repeat(1000)
+
+
+    @Test @Order(1)
+    fun insertFromStreams() {
+        perform("create table if not exists Lob_Table (Id int primary key, B blob, C clob)")
+        perform("delete from Lob_Table")
+        val defs = arrayOf(ParamDef(paramIn, paramInt, 0, null),
+                           ParamDef(paramIn, paramBLOB, 0, null),
+                           ParamDef(paramIn, paramCLOB, 0, null))
+        session.openSeance().use { seance ->
+            seance.prepare("insert into Lob_Table (Id, B, C) values (?,?,?)", stmtUpdate, defs)
+            seance.execute(listOf(1, ByteArrayInputStream(content), StringReader(text)))
+            seance.execute(listOf(2, Channels.newChannel(ByteArrayInputStream(content)), StringReader(text)))
+        }
+    }
+
+    @Test @Order(2)
+    fun readStreams_oneRowPerPortion() {
+        session.openSeance().use { seance ->
+            seance.prepare("select B from Lob_Table order by Id", stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeColumnCursor(0, InputStream::class.java)
+            cursor.prepare()
+            for (i in 1..2) {
+                val portion = cursor.fetchPortion()
+                expect that portion iz notNull; portion!!
+                expect that portion hasSize 1
+                val bytes = ByteArrayOutputStream()
+                JdbcLobs.copy(portion[0]!!, Channels.newChannel(bytes))
+                expect that bytes.toByteArray().contentEquals(content) equalsTo true
+            }
+            expect that (cursor.fetchPortion() == null) equalsTo true
+        }
+    }
+
+    @Test @Order(3)
+    fun copyChannelToFile() {
+        val file = Files.createTempFile("dekaf-lob", ".bin")
+        try {
+            session.openSeance().use { seance ->
+                seance.prepare("select B from Lob_Table where Id = 1", stmtQuery, null)
+                seance.execute(null)
+                val cursor = seance.makeColumnCursor(0, ReadableByteChannel::class.java)
+                cursor.prepare()
+                val channel = cursor.fetchRow()!![0]!!
+                FileChannel.open(file, READ, WRITE).use { fc ->
+                    val n = JdbcLobs.copy(channel, fc)
+                    expect that n equalsTo content.size.toLong()
+                    expect that fc.position() equalsTo content.size.toLong()
+                }
+            }
+            expect that Files.readAllBytes(file).contentEquals(content) equalsTo true
+        }
+        finally {
+            Files.deleteIfExists(file)
+        }
+    }
+
+    @Test @Order(4)
+    fun readCharacterStream() {
+        session.openSeance().use { seance ->
+            seance.prepare("select C from Lob_Table where Id = 2", stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeMatrixCursor(0, Reader::class.java)
+            cursor.prepare()
+            val row = cursor.fetchPortion()!![0]
+            val writer = StringWriter()
+            JdbcLobs.copy(row[0]!!, writer)
+            expect that writer.toString() equalsTo text
+        }
+    }
+
+}
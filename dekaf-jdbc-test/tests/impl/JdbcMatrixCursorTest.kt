@@ -123,6 +123,30 @@ class JdbcMatrixCursorTest : H2ConnectedTest() {
     }
 
 
+    @Test @Order(40)
+    fun portionsIntoBuffer() {
+        val text = "select value, value * 10 from table(value int = (1,2,3,4,5))"
+        session.openSeance().use { seance ->
+            seance.prepare(text, stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeMatrixCursor(0, Number::class.java)
+            cursor.prepare()
+            val buffer = arrayOfNulls<Array<Number?>>(3)
+
+            expect that cursor.fetchPortionInto(buffer) equalsTo 3
+            val row0 = buffer[0]
+            expect that row0 iz notNull; row0!!
+            expect that row0[1] equalsTo 10
+
+            expect that cursor.fetchPortionInto(buffer) equalsTo 2
+            expect that buffer[0] sameAs row0
+            expect that row0[0] equalsTo 4
+            expect that buffer[1]!![1] equalsTo 50
+
+            expect that cursor.fetchPortionInto(buffer) iz zero
+        }
+    }
+
     @Test @Order(90)
     fun closeAtTheEnd() {
         val text = "select value from table(value int = (1,2,3,4,5,6,7))"
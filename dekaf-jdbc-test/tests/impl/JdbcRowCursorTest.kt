@@ -0,0 +1,58 @@
+@file:Suppress("platform_class_mapped_to_kotlin", "RemoveRedundantQualifierName")
+
+package org.jetbrains.dekaf.jdbcTest.impl
+
+import lb.yaka.expectations.*
+import lb.yaka.gears.*
+import org.jetbrains.dekaf.inter.common.StatementCategory.stmtQuery
+import org.junit.jupiter.api.MethodOrderer
+import org.junit.jupiter.api.Order
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestMethodOrder
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation::class)
+class JdbcRowCursorTest : H2ConnectedTest() {
+
+    class Entry(val code: Int, val name: String?, val amount: Long)
+
+    private val entryConstructor = Entry::class.java.getConstructor(Int::class.java, String::class.java, Long::class.java)
+
+
+    @Test @Order(10)
+    fun fetchPortion_byPosition() {
+        val text = "select * from values (1, 'one', 1000), (2, null, null)"
+        val rows = session.openSeance().use { seance ->
+            seance.prepare(text, stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeRowCursor(0, entryConstructor, null)
+            cursor.prepare()
+            cursor.fetchPortion()
+        }
+
+        expect that rows iz notNull; rows!!
+        expect that rows hasSize 2
+        expect that rows[0].code equalsTo 1
+        expect that rows[0].name equalsTo "one"
+        expect that rows[0].amount equalsTo 1000L
+        expect that rows[1].name iz Null
+        expect that rows[1].amount equalsTo 0L
+    }
+
+    @Test @Order(20)
+    fun fetchRow_byName() {
+        val text = "select 'two' as NAME, 2000 as AMOUNT, 2 as CODE"
+        val row = session.openSeance().use { seance ->
+            seance.prepare(text, stmtQuery, null)
+            seance.execute(null)
+            val cursor = seance.makeRowCursor(0, entryConstructor, arrayOf("code", "name", "amount"))
+            cursor.prepare()
+            cursor.fetchRow()
+        }
+
+        expect that row iz notNull; row!!
+        expect that row.code equalsTo 2
+        expect that row.name equalsTo "two"
+        expect that row.amount equalsTo 2000L
+    }
+
+}
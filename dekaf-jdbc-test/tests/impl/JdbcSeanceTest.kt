@@ -1,12 +1,21 @@
 package org.jetbrains.dekaf.jdbcTest.impl
 
 import lb.yaka.expectations.equalsTo
+import lb.yaka.expectations.hasSize
 import lb.yaka.expectations.iz
 import lb.yaka.expectations.zero
 import lb.yaka.gears.expect
+import org.jetbrains.dekaf.inter.common.ParamDef
+import org.jetbrains.dekaf.inter.common.ParamDirection.paramIn
+import org.jetbrains.dekaf.inter.common.ParamDirection.paramOut
+import org.jetbrains.dekaf.inter.common.ParamType.*
+import org.jetbrains.dekaf.inter.common.StatementCategory.stmtQuery
 import org.jetbrains.dekaf.inter.common.StatementCategory.stmtUpdate
+import org.jetbrains.dekaf.inter.exceptions.DBParameterSettingException
+import org.jetbrains.dekaf.inter.exceptions.DBQueryCancelledException
 import org.jetbrains.dekaf.test.utils.*
 import org.junit.jupiter.api.*
+import java.math.BigInteger
 
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation::class)
@@ -44,6 +53,27 @@ class JdbcSeanceTest : H2ConnectedTest() {
         }
     }
 
+    @Test @Order(4)
+    fun batch_insert_5() {
+        val stmtText = "insert into Basic_Table (B,C,V) values (?,?,?)"
+        val rows = listOf(listOf(`2`, 'K', "Row K"),
+                          listOf(`3`, 'L', "Row L"),
+                          listOf(`4`, 'M', "Row M"),
+                          listOf(`5`, 'N', "Row N"),
+                          listOf(`6`, 'O', "Row O"))
+        var counts = IntArray(0)
+        var affectedRows = -1
+        session.openSeance().use { seance ->
+            seance.prepare(stmtText, stmtUpdate, null)
+            counts = seance.executeBatch(rows, 2)
+            affectedRows = seance.affectedRows
+        }
+        expect that counts hasSize 5
+        expect that counts[0] equalsTo 1
+        expect that counts[4] equalsTo 1
+        expect that affectedRows equalsTo 5
+    }
+
 
     @Test @Order(10)
     fun affectedRows_0() {
@@ -81,4 +111,156 @@ class JdbcSeanceTest : H2ConnectedTest() {
         expect that affectedRows equalsTo 3
     }
 
-}
\ No newline at end of file
+
+    @Test @Order(21)
+    fun typedParams_insertAndSelect() {
+        val defs = arrayOf(ParamDef(paramIn, paramTinyInt, 0, null),
+                           ParamDef(paramIn, paramChar, 1, null),
+                           ParamDef(paramIn, paramString, 15, null))
+        session.openSeance().use { seance ->
+            seance.prepare("insert into Basic_Table (B,C,V) values (?,?,?)", stmtUpdate, defs)
+            seance.execute(listOf(77, 'T', "Typed"))
+            seance.execute(listOf(78, 'U', null))
+        }
+
+        val r: IntArray? = session.openSeance().use { seance ->
+            seance.prepare("select count(*) from Basic_Table where B in (77,78) and (V = 'Typed' or V is null)",
+                           stmtQuery, null)
+            seance.execute(null)
+            seance.makeIntsCursor(0).fetchRow()
+        }
+        expect that r!![0] equalsTo 2
+    }
+
+    @Test @Order(22)
+    fun primitiveParam_int() {
+        val defs = arrayOf(ParamDef(paramIn, paramInt, 0, null))
+        val r: IntArray? = session.openSeance().use { seance ->
+            seance.prepare("select count(*) from Basic_Table where B = ?", stmtQuery, defs)
+            seance.execute(77)
+            seance.makeIntsCursor(0).fetchRow()
+        }
+        expect that r!![0] equalsTo 1
+    }
+
+    @Test @Order(23)
+    fun primitiveParam_long_untyped() {
+        val r: IntArray? = session.openSeance().use { seance ->
+            seance.prepare("select count(*) from Basic_Table where B = ?", stmtQuery, null)
+            seance.execute(78L)
+            seance.makeIntsCursor(0).fetchRow()
+        }
+        expect that r!![0] equalsTo 1
+    }
+
+
+    @Test @Order(24)
+    fun reexecute_closesPreviousCursor() {
+        session.openSeance().use { seance ->
+            seance.prepare("select X from system_range(1, 3)", stmtQuery, null)
+            seance.execute(null)
+            val cursor1 = seance.makeIntsCursor(0)
+            cursor1.fetchRow()
+            seance.execute(null)
+            expect that cursor1.isClosed equalsTo true
+            val cursor2 = seance.makeIntsCursor(0)
+            expect that cursor2.fetchPortion()!!.size equalsTo 3
+        }
+    }
+
+
+    @Test @Order(25)
+    fun primitiveParam_wrongParamCount() {
+        val twoParams = arrayOf(ParamDef(paramIn, paramInt, 0, null),
+                                ParamDef(paramIn, paramInt, 0, null))
+        val outParamOnly = arrayOf(ParamDef(paramOut, paramRefCursor, 0, null))
+        session.openSeance().use { seance ->
+            seance.prepare("select count(*) from Basic_Table where B between ? and ?", stmtQuery, twoParams)
+            assertThrows<IllegalStateException> { seance.execute(77) }
+        }
+        perform("create alias if not exists DEKAF_TEST_NUMBERS for \"${JdbcSeanceTest::class.java.name}.numbers\"")
+        session.openSeance().use { seance ->
+            seance.prepare("{? = call DEKAF_TEST_NUMBERS()}", stmtQuery, outParamOnly)
+            assertThrows<IllegalStateException> { seance.execute(77L) }
+        }
+    }
+
+    @Test @Order(26)
+    fun bigIntegerParam_outOfRange() {
+        for (type in arrayOf(paramInt, paramBigInt)) {
+            val defs = arrayOf(ParamDef(paramIn, type, 0, null))
+            val tooBig = BigInteger.ONE.shiftLeft(if (type == paramInt) 32 else 64).add(BigInteger.valueOf(77L))
+            session.openSeance().use { seance ->
+                seance.prepare("select count(*) from Basic_Table where B = ?", stmtQuery, defs)
+                assertThrows<DBParameterSettingException> { seance.execute(listOf(tooBig)) }
+            }
+        }
+    }
+
+
+    @Test @Order(27)
+    fun cancel_beforeExecution() {
+        session.openSeance().use { seance ->
+            seance.prepare("select 1", stmtQuery, null)
+            seance.cancel()
+            assertThrows<DBQueryCancelledException> { seance.execute(null) }
+            // the cancellation is cleared by the cancelled execution
+            seance.execute(null)
+            expect that seance.makeIntsCursor(0).fetchRow()!![0] equalsTo 1
+        }
+    }
+
+
+    @Test @Order(31)
+    fun nextResult_none() {
+        session.openSeance().use { seance ->
+            seance.prepare("select 1", stmtQuery, null)
+            seance.execute(null)
+            expect that seance.nextResult() equalsTo false
+        }
+    }
+
+    @Test @Order(32)
+    fun outCursor() {
+        perform("create alias if not exists DEKAF_TEST_NUMBERS for \"${JdbcSeanceTest::class.java.name}.numbers\"")
+        val defs = arrayOf(ParamDef(paramOut, paramRefCursor, 0, null))
+        val r: IntArray? = session.openSeance().use { seance ->
+            seance.prepare("{? = call DEKAF_TEST_NUMBERS()}", stmtQuery, defs)
+            seance.execute(null)
+            seance.makeIntsCursor(1).fetchRow()
+        }
+        expect that r!![0] equalsTo 1
+    }
+
+
+    @Test @Order(41)
+    fun timeout() {
+        session.openSeance().use { seance ->
+            seance.prepare("select sum(X) from system_range(1, 100000000000)", stmtQuery, null)
+            seance.setTimeout(100L)
+            assertThrows<DBQueryCancelledException> {
+                seance.execute(null)
+            }
+        }
+    }
+
+    @Test @Order(42)
+    fun timeout_notReached() {
+        session.openSeance().use { seance ->
+            seance.prepare("select 1", stmtQuery, null)
+            seance.setTimeout(10_000L)
+            seance.execute(null)
+            expect that seance.makeIntsCursor(0).fetchRow()!![0] equalsTo 1
+        }
+    }
+
+
+    companion object {
+
+        @JvmStatic
+        fun numbers(connection: java.sql.Connection): java.sql.ResultSet =
+                connection.createStatement().executeQuery("select 1 union all select 2")
+
+    }
+
+}
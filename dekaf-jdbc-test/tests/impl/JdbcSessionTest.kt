@@ -67,4 +67,50 @@ class JdbcSessionTest : H2ConnectedTest() {
     }
 
 
-}
\ No newline at end of file
+    @Test
+    fun dirty_emptyTransactionSkipsCommitAndRollback() {
+        val ses = facade.openSession()
+        try {
+            ses.beginTransaction()
+            expect that ses.isDirty equalsTo false
+            ses.commit()
+            ses.beginTransaction()
+            ses.rollback()
+            expect that ses.avoidedRoundTrips equalsTo 2L
+        }
+        finally {
+            ses.close()
+        }
+    }
+
+    @Test
+    fun dirty_afterStatementInTransaction() {
+        val ses = facade.openSession()
+        try {
+            ses.beginTransaction()
+            ses.perform("select 1")
+            expect that ses.isDirty equalsTo true
+            ses.commit()
+            expect that ses.isDirty equalsTo false
+            expect that ses.avoidedRoundTrips equalsTo 0L
+        }
+        finally {
+            ses.close()
+        }
+    }
+
+    @Test
+    fun dirty_notInAutocommitMode() {
+        val ses = facade.openSession()
+        try {
+            ses.perform("select 1")
+            expect that ses.isDirty equalsTo false
+            ses.rollback()
+            expect that ses.avoidedRoundTrips equalsTo 1L
+        }
+        finally {
+            ses.close()
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package org.jetbrains.dekaf.jdbcTest.impl
+
+import lb.yaka.expectations.equalsTo
+import lb.yaka.expectations.iz
+import lb.yaka.expectations.sameAs
+import lb.yaka.expectations.zero
+import lb.yaka.gears.Null
+import lb.yaka.gears.expect
+import lb.yaka.gears.notNull
+import org.jetbrains.dekaf.inter.common.StatementCategory.stmtQuery
+import org.jetbrains.dekaf.inter.settings.Settings
+import org.jetbrains.dekaf.jdbc.impl.JdbcServiceFactory
+import org.jetbrains.dekaf.jdbc.impl.JdbcSession
+import org.jetbrains.dekaf.test.utils.UnitTest
+import org.junit.jupiter.api.Test
+import java.sql.PreparedStatement
+
+
+class JdbcStatementCacheTest : UnitTest {
+
+    companion object {
+        val cachingH2Settings =
+                Settings.of(
+                        "driver", Settings.of("class", "org.h2.Driver"),
+                        "jdbc", Settings.of("connection-string", "jdbc:h2:mem:test",
+                                            "statement-cache-size", "2")
+                )
+        val factory = JdbcServiceFactory()
+    }
+
+
+    private fun JdbcSession.queryOnce(text: String): PreparedStatement {
+        openSeance().use { seance ->
+            seance.prepare(text, stmtQuery, null)
+            seance.execute(null)
+            val stmt = seance.statement!!
+            seance.makeIntsCursor(0).fetchPortion()
+            return stmt
+        }
+    }
+
+
+    @Test
+    fun disabled_byDefault() {
+        val facade = factory.createFacade()
+        facade.init(H2ConnectedTest.memH2Settings)
+        facade.openSession().use { session ->
+            expect that session.statementCache iz Null
+        }
+    }
+
+    @Test
+    fun reuse_sameText() {
+        val facade = factory.createFacade()
+        facade.init(cachingH2Settings)
+        facade.openSession().use { session ->
+            val stmt1 = session.queryOnce("select 1")
+            val stmt2 = session.queryOnce("select 1")
+
+            expect that stmt2 sameAs stmt1
+
+            val cache = session.statementCache
+            expect that cache iz notNull; cache!!
+            expect that cache.misses equalsTo 1L
+            expect that cache.hits equalsTo 1L
+            expect that cache.evictions iz zero
+        }
+    }
+
+    @Test
+    fun evict_leastRecentlyUsed() {
+        val facade = factory.createFacade()
+        facade.init(cachingH2Settings)
+        facade.openSession().use { session ->
+            val stmt1 = session.queryOnce("select 1")
+            session.queryOnce("select 2")
+            session.queryOnce("select 3")
+
+            val cache = session.statementCache!!
+            expect that cache.size equalsTo 2
+            expect that cache.evictions equalsTo 1L
+            expect that stmt1.isClosed equalsTo true
+        }
+    }
+
+    @Test
+    fun close_closesCachedStatements() {
+        val facade = factory.createFacade()
+        facade.init(cachingH2Settings)
+        val session = facade.openSession()
+        val stmt = session.queryOnce("select 1")
+
+        expect that stmt.isClosed equalsTo false
+
+        session.close()
+
+        expect that stmt.isClosed equalsTo true
+    }
+
+}
@@ -0,0 +1,142 @@
+package org.jetbrains.dekaf.jdbc.impl
+
+import lb.yaka.expectations.equalsTo
+import lb.yaka.expectations.iz
+import lb.yaka.gears.Null
+import lb.yaka.gears.expect
+import lb.yaka.gears.notNull
+import org.jetbrains.dekaf.jdbc.utils.NameAndClass
+import org.jetbrains.dekaf.jdbcTest.impl.H2ConnectedTest
+import org.junit.jupiter.api.Order
+import org.junit.jupiter.api.Test
+import java.math.BigDecimal
+import java.sql.ResultSet
+
+
+/**
+ * Placed in the package of the fetchers because their fetching functions are package-private.
+ */
+class JdbcStructFetcherTest : H2ConnectedTest() {
+
+    class Rec {
+        var id: Int = 0
+        var big: Long = 0L
+        var small: Short = 0
+        var tiny: Byte = 0
+        var dbl: Double = 0.0
+        var flt: Float = 0.0f
+        var flag: Boolean = false
+        var name: String? = null
+        var amount: BigDecimal? = null
+        var nullableInt: Int? = null
+        var anything: Any? = null
+    }
+
+    private val components =
+            arrayOf(NameAndClass("id", Int::class.javaPrimitiveType!!),
+                    NameAndClass("big", Long::class.javaPrimitiveType!!),
+                    NameAndClass("small", Short::class.javaPrimitiveType!!),
+                    NameAndClass("tiny", Byte::class.javaPrimitiveType!!),
+                    NameAndClass("dbl", Double::class.javaPrimitiveType!!),
+                    NameAndClass("flt", Float::class.javaPrimitiveType!!),
+                    NameAndClass("flag", Boolean::class.javaPrimitiveType!!),
+                    NameAndClass("name", String::class.java),
+                    NameAndClass("amount", BigDecimal::class.java),
+                    NameAndClass("nullableInt", Integer::class.java),
+                    NameAndClass("anything", Any::class.java))
+
+
+    private fun <R> query(block: (ResultSet) -> R): R {
+        val stmt = session.connection.createStatement()
+        try {
+            val rset = stmt.executeQuery("select * from Struct_Table order by Id")
+            return block(rset)
+        }
+        finally {
+            JdbcStuff.closeIt(stmt)
+        }
+    }
+
+    private fun fetchAll(byReflection: Boolean): List<Rec> = query { rset ->
+        val fetcher = JdbcRowFetchers.createStructFetcher(Rec::class.java, components)
+        val list = ArrayList<Rec>()
+        while (rset.next())
+            list.add(if (byReflection) fetcher.fetchRowByReflection(rset) else fetcher.fetchRow(rset))
+        list
+    }
+
+
+    @Test @Order(1)
+    fun prepareTable() {
+        perform("""create table if not exists Struct_Table (Id int, Big bigint, Small smallint, Tiny tinyint,
+                                                         Dbl double, Flt real, Flag boolean, Name varchar(20),
+                                                         Amount decimal(10,2), NullableInt int, Anything int)""")
+        perform("delete from Struct_Table")
+        perform("""insert into Struct_Table values (1, 5000000000, 300, 7, 2.5, 1.5, true, 'one', 12.34, 42, 11)""")
+        perform("""insert into Struct_Table values (2, null, null, null, null, null, null, null, null, null, null)""")
+    }
+
+    @Test @Order(2)
+    fun fetch_byHandles() {
+        val recs = fetchAll(byReflection = false)
+        checkFirst(recs[0])
+        checkNulls(recs[1])
+    }
+
+    @Test @Order(3)
+    fun fetch_byReflection() {
+        val recs = fetchAll(byReflection = true)
+        checkFirst(recs[0])
+        checkNulls(recs[1])
+    }
+
+    @Test @Order(4)
+    fun reader_cachedPerLayout() {
+        query { rset ->
+            rset.next()
+            val fetcher1 = JdbcRowFetchers.createStructFetcher(Rec::class.java, components)
+            val fetcher2 = JdbcRowFetchers.createStructFetcher(Rec::class.java, components)
+            fetcher1.fetchRow(rset)
+            fetcher2.fetchRow(rset)
+            val reader1 = readerOf(fetcher1)
+            expect that reader1 iz notNull
+            expect that (readerOf(fetcher2) === reader1) equalsTo true
+        }
+    }
+
+
+    private fun checkFirst(r: Rec) {
+        expect that r.id equalsTo 1
+        expect that r.big equalsTo 5_000_000_000L
+        expect that r.small equalsTo 300.toShort()
+        expect that r.tiny equalsTo 7.toByte()
+        expect that r.dbl equalsTo 2.5
+        expect that r.flt equalsTo 1.5f
+        expect that r.flag equalsTo true
+        expect that r.name equalsTo "one"
+        expect that r.amount equalsTo BigDecimal("12.34")
+        expect that r.nullableInt equalsTo 42
+        expect that r.anything equalsTo 11
+    }
+
+    private fun checkNulls(r: Rec) {
+        expect that r.id equalsTo 2
+        expect that r.big equalsTo 0L
+        expect that r.small equalsTo 0.toShort()
+        expect that r.tiny equalsTo 0.toByte()
+        expect that r.dbl equalsTo 0.0
+        expect that r.flt equalsTo 0.0f
+        expect that r.flag equalsTo false
+        expect that r.name iz Null
+        expect that r.amount iz Null
+        expect that r.nullableInt iz Null
+        expect that r.anything iz Null
+    }
+
+    private fun readerOf(fetcher: JdbcRowFetchers.StructFetcher<*>): Any? {
+        val field = JdbcRowFetchers.StructFetcher::class.java.getDeclaredField("reader")
+        field.isAccessible = true
+        return field.get(fetcher)
+    }
+
+}
@@ -0,0 +1,32 @@
+package org.jetbrains.dekaf.jdbc.impl
+
+import lb.yaka.expectations.equalsTo
+import lb.yaka.gears.expect
+import org.jetbrains.dekaf.inter.common.StatementCategory.stmtQuery
+import org.jetbrains.dekaf.jdbcTest.impl.H2ConnectedTest
+import org.junit.jupiter.api.Test
+
+
+/**
+ * Placed in the package of the seance because the watchdog callback is package-private.
+ */
+class JdbcWatchdogTest : H2ConnectedTest() {
+
+    @Test
+    fun lateWatchdog_doesNotCancelNextExecution() {
+        session.openSeance().use { seance ->
+            seance.prepare("select 1", stmtQuery, null)
+            seance.setTimeout(10_000L)
+            seance.execute(null)
+            seance.makeIntsCursor(0).fetchRow()
+
+            // the watchdog of the first (completed) execution fires late
+            seance.timeIsOut(1L)
+
+            seance.setTimeout(0L)
+            seance.execute(null)
+            expect that seance.makeIntsCursor(0).fetchRow()!![0] equalsTo 1
+        }
+    }
+
+}
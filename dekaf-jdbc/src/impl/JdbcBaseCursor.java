@@ -1,6 +1,7 @@
 package org.jetbrains.dekaf.jdbc.impl;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.dekaf.inter.intf.InterCursor;
 
 import java.sql.ResultSet;
@@ -16,17 +17,59 @@ public abstract class JdbcBaseCursor implements InterCursor {
     protected final ResultSet rset;
 
     protected boolean end = false;
+
+    /**
+     * Whether the cells are streams that read the values lazily;
+     * such cursors fetch one row at a time and keep it positioned until the next fetch.
+     */
+    protected boolean streaming = false;
     private boolean closed = false;
 
+    /**
+     * Fetching statistics for the fetch tuner.
+     */
+    private long fetchedRows = 0L;
+    private long fetchNanos = 0L;
+    private long sampledWidthSum = 0L;
+    private int  sampledRows = 0;
+
 
     protected JdbcBaseCursor(@NotNull final JdbcSeance seance, @NotNull final ResultSet rset) {
         this.seance = seance;
         this.rset = rset;
     }
 
+    /**
+     * Limits the portion size: one row for streaming cursors,
+     * because moving the result set to the next row invalidates the streams of the current one.
+     */
+    protected final int portionLimit(final int size) {
+        return streaming ? 1 : size;
+    }
+
+    /**
+     * Counts the just fetched portion.
+     * @param rows    how many rows were fetched.
+     * @param started when the fetching started, by {@link System#nanoTime()}.
+     * @param sample  one of the fetched rows or values to estimate the row width,
+     *                or null when the width is known by metadata.
+     */
+    protected final void portionFetched(final int rows, final long started, final @Nullable Object sample) {
+        fetchNanos += System.nanoTime() - started;
+        fetchedRows += rows;
+        if (sample != null) {
+            sampledWidthSum += JdbcFetchTuner.estimateValueSize(sample);
+            sampledRows++;
+        }
+    }
+
     @Override
     public void close() {
         JdbcUtil.close(rset);
+        if (!closed && fetchedRows > 0) {
+            int width = sampledRows > 0 ? (int) (sampledWidthSum / sampledRows) : 0;
+            seance.cursorFinished(fetchedRows, fetchNanos, width, end);
+        }
         closed = true;
     }
 
@@ -35,4 +78,9 @@ public abstract class JdbcBaseCursor implements InterCursor {
         return closed;
     }
 
+    @Override
+    public boolean isStreaming() {
+        return streaming;
+    }
+
 }
@@ -0,0 +1,112 @@
+package org.jetbrains.dekaf.jdbc.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.dekaf.inter.exceptions.DBFetchingException;
+import org.jetbrains.dekaf.inter.intf.InterBooleansCursor;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.BitSet;
+
+
+
+public class JdbcBooleansCursor extends JdbcPrimitiveCursor implements InterBooleansCursor {
+
+    private boolean defaultValue = false;
+
+    private int fetchedCount = 0;
+
+    protected JdbcBooleansCursor(final @NotNull JdbcSeance seance, final @NotNull ResultSet rset) {
+        super(seance, rset);
+    }
+
+    @Override
+    public void setDefaultValue(final boolean defaultValue) {
+        this.defaultValue = defaultValue;
+    }
+
+    @Override @Nullable
+    public BitSet fetchPortion() {
+        fetchedCount = 0;
+        if (end) return null;
+
+        int portionSize = seance.portionSize;
+        final long started = System.nanoTime();
+
+        BitSet bits = null;
+        int k = 0;
+        resetNulls();
+
+        try {
+            while (k < portionSize) {
+                boolean ok = rset.next();
+                if (!ok) break;
+                boolean value = rset.getBoolean(1);
+                if (rset.wasNull()) {
+                    value = defaultValue;
+                    markNull(k);
+                }
+                if (bits == null) bits = new BitSet(portionSize);
+                if (value) bits.set(k);
+                k++;
+            }
+        }
+        catch (SQLException e) {
+            throw new DBFetchingException("Failed to fetch portion from cursor: "+e.getMessage(), e, seance.statementText);
+        }
+
+        fetchedCount = k;
+
+        portionFetched(k, started, null);
+
+        if (k == 0) {
+            end = true;
+            close();
+            return null;
+        }
+        else if (k < portionSize) {
+            end = true;
+            close();
+            return bits;
+        }
+        else {
+            return bits;
+        }
+    }
+
+    @Nullable
+    @Override
+    public BitSet fetchRow() {
+        fetchedCount = 0;
+        if (end) return null;
+        resetNulls();
+
+        try {
+            boolean ok = rset.next();
+            if (ok) {
+                boolean value = rset.getBoolean(1);
+                if (rset.wasNull()) {
+                    value = defaultValue;
+                    markNull(0);
+                }
+                BitSet bits = new BitSet(1);
+                if (value) bits.set(0);
+                fetchedCount = 1;
+                return bits;
+            }
+            else {
+                return null;
+            }
+        }
+        catch (SQLException e) {
+            throw new DBFetchingException("Failed to fetch a row from cursor: "+e.getMessage(), e, seance.statementText);
+        }
+    }
+
+    @Override
+    public int getFetchedCount() {
+        return fetchedCount;
+    }
+
+}
@@ -38,6 +38,7 @@ public class JdbcColumnCursor<C> extends JdbcBaseCursor implements InterColumnCu
             final ResultSetMetaData md = rset.getMetaData();
             int jdbcType = md.getColumnType(1);
             getter = JdbcValueGetters.of(jdbcType, cellClass);
+            streaming = JdbcValueGetters.isStreamingClass(cellClass);
         }
         catch (SQLException e) {
             throw new DBFetchingException("Failed to prepare cursor: "+e.getMessage(), e, seance.statementText);
@@ -50,7 +51,8 @@ public class JdbcColumnCursor<C> extends JdbcBaseCursor implements InterColumnCu
         if (end) return null;
         checkPrepared();
 
-        int portionSize = seance.portionSize;
+        int portionSize = portionLimit(seance.portionSize);
+        final long started = System.nanoTime();
 
         C[] array = null;
         int k = 0;
@@ -68,6 +70,8 @@ public class JdbcColumnCursor<C> extends JdbcBaseCursor implements InterColumnCu
             throw new DBFetchingException("Failed to fetch portion from cursor: "+e.getMessage(), e, seance.statementText);
         }
 
+        portionFetched(k, started, k > 0 ? array[0] : null);
+
         if (k == 0) {
             end = true;
             close();
@@ -85,6 +89,33 @@ public class JdbcColumnCursor<C> extends JdbcBaseCursor implements InterColumnCu
         }
     }
 
+    @Override
+    public int fetchPortionInto(final C @NotNull [] buffer) {
+        if (buffer.length == 0) throw new IllegalArgumentException("Empty buffer");
+        if (end) return 0;
+        checkPrepared();
+
+        final int capacity = portionLimit(buffer.length);
+        int k = 0;
+
+        try {
+            while (k < capacity) {
+                boolean ok = rset.next();
+                if (!ok) break;
+                buffer[k++] = getter.getValue(rset, 1);
+            }
+        }
+        catch (SQLException e) {
+            throw new DBFetchingException("Failed to fetch portion from cursor: "+e.getMessage(), e, seance.statementText);
+        }
+
+        if (k < capacity) {
+            end = true;
+            close();
+        }
+        return k;
+    }
+
     @Nullable
     @Override
     public C[] fetchRow() {
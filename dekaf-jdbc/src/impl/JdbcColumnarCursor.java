@@ -0,0 +1,216 @@
+package org.jetbrains.dekaf.jdbc.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.dekaf.inter.common.ColumnBatch;
+import org.jetbrains.dekaf.inter.exceptions.DBFetchingException;
+import org.jetbrains.dekaf.inter.intf.InterColumnarCursor;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.jetbrains.dekaf.inter.utils.ArrayHacks.createArray;
+
+
+
+public class JdbcColumnarCursor extends JdbcBaseCursor implements InterColumnarCursor {
+
+    //// COLUMN KINDS \\\\
+
+    private static final byte KIND_INT    = 1;
+    private static final byte KIND_LONG   = 2;
+    private static final byte KIND_DOUBLE = 3;
+    private static final byte KIND_STRING = 4;
+    private static final byte KIND_OBJECT = 5;
+
+
+    //// STATE \\\\
+
+    private int columnCount = 0;
+
+    private byte @Nullable [] kinds = null;
+
+    @Nullable
+    private JdbcValueGetter<?>[] getters = null;
+
+
+    protected JdbcColumnarCursor(final @NotNull JdbcSeance seance, final @NotNull ResultSet rset) {
+        super(seance, rset);
+    }
+
+    @Override
+    public void prepare() {
+        if (kinds != null) throw new DBFetchingException("Cursor has been already prepared", seance.statementText);
+        else if (isClosed()) throw new DBFetchingException("Cursor is closed", seance.statementText);
+
+        try {
+            ResultSetMetaData md = rset.getMetaData();
+            int n = md.getColumnCount();
+
+            byte[] kinds = new byte[n];
+            //noinspection unchecked
+            JdbcValueGetter<?>[] getters = createArray(JdbcValueGetter.class, n);
+            for (int i = 0; i < n; i++) {
+                int jdbcType = md.getColumnType(i+1);
+                byte kind = kindOf(jdbcType);
+                kinds[i] = kind;
+                if (kind == KIND_OBJECT) getters[i] = JdbcValueGetters.of(jdbcType, Object.class);
+            }
+
+            this.kinds = kinds;
+            this.getters = getters;
+            columnCount = n;
+        }
+        catch (SQLException e) {
+            throw new DBFetchingException("Failed to prepare cursor: "+e.getMessage(), e, seance.statementText);
+        }
+    }
+
+    private static byte kindOf(final int jdbcType) {
+        switch (jdbcType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return KIND_INT;
+            case Types.BIGINT:
+                return KIND_LONG;
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return KIND_DOUBLE;
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+                return KIND_STRING;
+            default:
+                return KIND_OBJECT;
+        }
+    }
+
+
+    @Override @Nullable
+    public ColumnBatch fetchPortion() {
+        if (end) return null;
+        checkPrepared();
+
+        final int portionSize = seance.portionSize;
+        final long started = System.nanoTime();
+        final int n = columnCount;
+        final byte[] kinds = this.kinds;
+        final JdbcValueGetter<?>[] getters = this.getters;
+
+        Object[] columns = null;
+        BitSet[] nulls = null;
+        int k = 0;
+
+        try {
+            while (k < portionSize) {
+                boolean ok = rset.next();
+                if (!ok) break;
+                if (columns == null) {
+                    columns = allocateColumns(portionSize);
+                    nulls = new BitSet[n];
+                }
+                for (int i = 0; i < n; i++) {
+                    boolean wasNull;
+                    //noinspection ConstantConditions
+                    switch (kinds[i]) {
+                        case KIND_INT:
+                            ((int[]) columns[i])[k] = rset.getInt(i+1);
+                            wasNull = rset.wasNull();
+                            break;
+                        case KIND_LONG:
+                            ((long[]) columns[i])[k] = rset.getLong(i+1);
+                            wasNull = rset.wasNull();
+                            break;
+                        case KIND_DOUBLE:
+                            ((double[]) columns[i])[k] = rset.getDouble(i+1);
+                            wasNull = rset.wasNull();
+                            break;
+                        case KIND_STRING:
+                            String str = rset.getString(i+1);
+                            ((String[]) columns[i])[k] = str;
+                            wasNull = str == null;
+                            break;
+                        default:
+                            //noinspection ConstantConditions
+                            Object obj = getters[i].getValue(rset, i+1);
+                            ((Object[]) columns[i])[k] = obj;
+                            wasNull = obj == null;
+                    }
+                    if (wasNull) {
+                        if (nulls[i] == null) nulls[i] = new BitSet(portionSize);
+                        nulls[i].set(k);
+                    }
+                }
+                k++;
+            }
+        }
+        catch (SQLException e) {
+            throw new DBFetchingException("Failed to fetch portion from cursor: "+e.getMessage(), e, seance.statementText);
+        }
+
+        portionFetched(k, started, null);
+
+        if (k == 0) {
+            end = true;
+            close();
+            return null;
+        }
+        else if (k < portionSize) {
+            end = true;
+            close();
+            for (int i = 0; i < n; i++) columns[i] = truncateColumn(columns[i], k);
+            return new ColumnBatch(k, columns, nulls);
+        }
+        else {
+            return new ColumnBatch(k, columns, nulls);
+        }
+    }
+
+    @NotNull
+    private Object[] allocateColumns(final int size) {
+        final int n = columnCount;
+        Object[] columns = new Object[n];
+        for (int i = 0; i < n; i++) {
+            //noinspection ConstantConditions
+            switch (kinds[i]) {
+                case KIND_INT:    columns[i] = new int[size]; break;
+                case KIND_LONG:   columns[i] = new long[size]; break;
+                case KIND_DOUBLE: columns[i] = new double[size]; break;
+                case KIND_STRING: columns[i] = new String[size]; break;
+                default:          columns[i] = new Object[size];
+            }
+        }
+        return columns;
+    }
+
+    @NotNull
+    private static Object truncateColumn(final @NotNull Object column, final int size) {
+        if (column instanceof int[]) return Arrays.copyOf((int[]) column, size);
+        if (column instanceof long[]) return Arrays.copyOf((long[]) column, size);
+        if (column instanceof double[]) return Arrays.copyOf((double[]) column, size);
+        return Arrays.copyOf((Object[]) column, size);
+    }
+
+    private void checkPrepared() {
+        if (kinds == null) {
+            String msg = isClosed() ? "Cursor is closed" : "Cursor is not prepared";
+            throw new DBFetchingException(msg, seance.statementText);
+        }
+    }
+
+    @Override
+    public void close() {
+        kinds = null;
+        getters = null;
+        super.close();
+    }
+}
@@ -0,0 +1,131 @@
+package org.jetbrains.dekaf.jdbc.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.dekaf.inter.exceptions.DBFetchingException;
+import org.jetbrains.dekaf.inter.intf.InterDoublesCursor;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+
+
+public class JdbcDoublesCursor extends JdbcPrimitiveCursor implements InterDoublesCursor {
+
+    private double defaultValue = 0.0;
+
+    protected JdbcDoublesCursor(final @NotNull JdbcSeance seance, final @NotNull ResultSet rset) {
+        super(seance, rset);
+    }
+
+    @Override
+    public void setDefaultValue(final double defaultValue) {
+        this.defaultValue = defaultValue;
+    }
+
+    @Override @Nullable
+    public double[] fetchPortion() {
+        if (end) return null;
+
+        int portionSize = seance.portionSize;
+        final long started = System.nanoTime();
+
+        double[] array = null;
+        int k = 0;
+        resetNulls();
+
+        try {
+            while (k < portionSize) {
+                boolean ok = rset.next();
+                if (!ok) break;
+                double value = rset.getDouble(1);
+                if (rset.wasNull()) {
+                    value = defaultValue;
+                    markNull(k);
+                }
+                if (array == null) array = new double[portionSize];
+                array[k++] = value;
+            }
+        }
+        catch (SQLException e) {
+            throw new DBFetchingException("Failed to fetch portion from cursor: "+e.getMessage(), e, seance.statementText);
+        }
+
+        portionFetched(k, started, null);
+
+        if (k == 0) {
+            end = true;
+            close();
+            return null;
+        }
+        else if (k < portionSize) {
+            end = true;
+            close();
+            //noinspection UnnecessaryLocalVariable
+            double[] array1 = Arrays.copyOf(array, k);
+            return array1;
+        }
+        else {
+            return array;
+        }
+    }
+
+    @Override
+    public int fetchPortionInto(final double @NotNull [] buffer) {
+        if (buffer.length == 0) throw new IllegalArgumentException("Empty buffer");
+        if (end) return 0;
+
+        final int capacity = buffer.length;
+        int k = 0;
+        clearNulls();
+
+        try {
+            while (k < capacity) {
+                boolean ok = rset.next();
+                if (!ok) break;
+                double value = rset.getDouble(1);
+                if (rset.wasNull()) {
+                    value = defaultValue;
+                    markNull(k);
+                }
+                buffer[k++] = value;
+            }
+        }
+        catch (SQLException e) {
+            throw new DBFetchingException("Failed to fetch portion from cursor: "+e.getMessage(), e, seance.statementText);
+        }
+
+        if (k < capacity) {
+            end = true;
+            close();
+        }
+        return k;
+    }
+
+    @Nullable
+    @Override
+    public double[] fetchRow() {
+        if (end) return null;
+        resetNulls();
+
+        try {
+            boolean ok = rset.next();
+            if (ok) {
+                double value = rset.getDouble(1);
+                if (rset.wasNull()) {
+                    value = defaultValue;
+                    markNull(0);
+                }
+                return new double[] { value };
+            }
+            else {
+                return null;
+            }
+        }
+        catch (SQLException e) {
+            throw new DBFetchingException("Failed to fetch a row from cursor: "+e.getMessage(), e, seance.statementText);
+        }
+    }
+
+}
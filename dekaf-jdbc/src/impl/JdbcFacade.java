@@ -13,6 +13,9 @@ import java.sql.Driver;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.jetbrains.dekaf.jdbc.utils.Numbers.parseIntSafe;
 
 
 
@@ -38,6 +41,11 @@ public class JdbcFacade implements InterFacade {
     @Nullable
     private Settings jdbcParameters = null;
 
+    private int statementCacheSize = 0;
+
+    @Nullable
+    private JdbcFetchTuner fetchTuner = null;
+
 
     /// CONFIGURATION \\\
 
@@ -51,6 +59,8 @@ public class JdbcFacade implements InterFacade {
 
     private final ArrayList<JdbcSession> sessions = new ArrayList<>();
 
+    private final LongAdder avoidedRoundTrips = new LongAdder();
+
 
 
     /// INITIALIZATION \\\
@@ -80,10 +90,15 @@ public class JdbcFacade implements InterFacade {
         if (js != null) {
             jdbcConnectionString = js.getString("connection-string");
             jdbcParameters = js.getNest("parameters");
+            statementCacheSize = Math.max(parseIntSafe(js.getString("statement-cache-size")), 0);
+            int fetchBudget = parseIntSafe(js.getString("fetch-budget"));
+            fetchTuner = fetchBudget > 0 ? new JdbcFetchTuner(fetchBudget) : null;
         }
         else {
             jdbcConnectionString = null;
             jdbcParameters = null;
+            statementCacheSize = 0;
+            fetchTuner = null;
         }
 
         obtainDriver();
@@ -170,6 +185,23 @@ public class JdbcFacade implements InterFacade {
         return connection;
     }
 
+    /**
+     * Size of the prepared statement cache of each session.
+     * @return the size, or 0 when statements are not cached.
+     */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * The tuner of fetch and portion sizes, shared by all sessions.
+     * @return the tuner, or null when the fetch budget is not specified.
+     */
+    @Nullable
+    public JdbcFetchTuner getFetchTuner() {
+        return fetchTuner;
+    }
+
     @ApiStatus.Internal
     public void releaseConnection(final @NotNull Connection connection) {
         JdbcUtil.close(connection);
@@ -194,6 +226,18 @@ public class JdbcFacade implements InterFacade {
         }
     }
 
+    /**
+     * How many commits and rollbacks were skipped by all sessions
+     * because there was nothing to commit or roll back.
+     */
+    public long getAvoidedRoundTrips() {
+        return avoidedRoundTrips.sum();
+    }
+
+    void roundTripAvoided() {
+        avoidedRoundTrips.increment();
+    }
+
     void sessionJustClosed(final JdbcSession session) {
         sessions.remove(session);
     }
@@ -0,0 +1,275 @@
+package org.jetbrains.dekaf.jdbc.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+
+/**
+ * Chooses fetch and portion sizes of queries so that one portion takes about the given memory budget.
+ *
+ * For every statement text, the tuner learns the average row width
+ * (estimated from the result set metadata, then refined by the sizes of the fetched values),
+ * how many rows the query usually returns, and how long the fetching takes.
+ * The chosen size is the largest one that fits the budget — so the count of round trips is minimal —
+ * but not larger than the usual count of rows, so small results don't allocate huge portions.
+ *
+ * One tuner is shared by all sessions of a facade.
+ */
+public final class JdbcFetchTuner {
+
+    //// CONSTANTS \\\\
+
+    static final int SMALLEST_FETCH_SIZE = 16;
+    static final int LARGEST_FETCH_SIZE = 1000000;
+
+    /**
+     * When the count of remembered statements exceeds this limit, the tuner starts learning from scratch.
+     */
+    static final int PROFILES_LIMIT = 4096;
+
+    private static final int DEFAULT_TEXT_LENGTH = 256;
+
+    /**
+     * Weight of a new observation of the row width.
+     */
+    private static final double WIDTH_ALPHA = 0.25;
+
+
+    //// INTERNAL STRUCTURES \\\\
+
+    /**
+     * What the tuner knows about one statement.
+     */
+    public static final class Profile {
+
+        /**
+         * Average row width in bytes, or 0 when not known yet.
+         */
+        private volatile double rowWidth = 0;
+
+        /**
+         * Whether the row width is observed (otherwise it's estimated by metadata).
+         */
+        private volatile boolean widthObserved = false;
+
+        /**
+         * The usual count of rows of one execution, or 0 when not known yet.
+         */
+        private volatile long usualRows = 0;
+
+        /**
+         * Average fetching time of one row, in nanoseconds.
+         */
+        private volatile double rowLatency = 0;
+
+        private volatile long executions = 0;
+
+        public int getRowWidth() {
+            return (int) Math.ceil(rowWidth);
+        }
+
+        public long getUsualRows() {
+            return usualRows;
+        }
+
+        public long getRowLatencyNanos() {
+            return Math.round(rowLatency);
+        }
+
+        public long getExecutions() {
+            return executions;
+        }
+    }
+
+
+    //// STATE \\\\
+
+    /**
+     * Memory budget of one portion, in bytes.
+     */
+    private final int budget;
+
+    private final ConcurrentHashMap<String, Profile> profiles = new ConcurrentHashMap<>();
+
+
+    //// INITIALIZATION \\\\
+
+    public JdbcFetchTuner(final int budget) {
+        if (budget < 1) throw new IllegalArgumentException("Wrong fetch budget: " + budget);
+        this.budget = budget;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+
+    //// TUNING \\\\
+
+    /**
+     * Suggests the fetch size for the statement, by what was learned before.
+     * @param statementText the statement.
+     * @return the suggested size, or 0 when nothing is known about the statement yet.
+     */
+    public int suggestFetchSize(final @NotNull String statementText) {
+        final Profile profile = profiles.get(statementText);
+        return profile != null && profile.rowWidth > 0 ? chooseSize(profile) : 0;
+    }
+
+    /**
+     * Chooses the fetch size for the just opened result set.
+     * When the row width is not known yet, estimates it by the result set metadata.
+     * @param statementText the statement.
+     * @param md            metadata of the result set.
+     * @return the size.
+     */
+    public int chooseFetchSize(final @NotNull String statementText, final @NotNull ResultSetMetaData md)
+            throws SQLException
+    {
+        final Profile profile = profileOf(statementText);
+        if (profile.rowWidth <= 0) profile.rowWidth = estimateRowWidth(md);
+        return chooseSize(profile);
+    }
+
+    private int chooseSize(final @NotNull Profile profile) {
+        final double width = Math.max(profile.rowWidth, 1.0);
+        long size = (long) (budget / width);
+        final long usual = profile.usualRows;
+        if (usual > 0) size = Math.min(size, usual + (usual >> 2) + 1);
+        return (int) Math.max(Math.min(size, LARGEST_FETCH_SIZE), SMALLEST_FETCH_SIZE);
+    }
+
+    /**
+     * Remembers how a cursor of the statement fetched its rows.
+     * @param statementText the statement.
+     * @param rows          how many rows were fetched.
+     * @param nanos         how long the fetching took.
+     * @param sampledWidth  average size of the sampled rows in bytes, or 0 when rows were not sampled.
+     * @param complete      whether all rows of the result were fetched.
+     */
+    public void observe(final @NotNull String statementText,
+                        final long rows,
+                        final long nanos,
+                        final int sampledWidth,
+                        final boolean complete) {
+        final Profile profile = profileOf(statementText);
+        synchronized (profile) {
+            if (sampledWidth > 0) {
+                profile.rowWidth = profile.widthObserved
+                                   ? profile.rowWidth + WIDTH_ALPHA * (sampledWidth - profile.rowWidth)
+                                   : sampledWidth;
+                profile.widthObserved = true;
+            }
+            final long usual = profile.usualRows;
+            profile.usualRows = rows >= usual ? rows : complete ? Math.max(rows, usual >> 1) : usual;
+            if (rows > 0) {
+                final double latency = (double) nanos / rows;
+                profile.rowLatency = profile.executions == 0
+                                     ? latency
+                                     : profile.rowLatency + WIDTH_ALPHA * (latency - profile.rowLatency);
+            }
+            profile.executions++;
+        }
+    }
+
+    @NotNull
+    private Profile profileOf(final @NotNull String statementText) {
+        Profile profile = profiles.get(statementText);
+        if (profile != null) return profile;
+        if (profiles.size() >= PROFILES_LIMIT) profiles.clear();
+        return profiles.computeIfAbsent(statementText, t -> new Profile());
+    }
+
+    /**
+     * What the tuner knows about the statement.
+     * @return the profile, or null when the statement was not met yet.
+     */
+    @Nullable
+    public Profile getProfile(final @NotNull String statementText) {
+        return profiles.get(statementText);
+    }
+
+
+    //// ESTIMATIONS \\\\
+
+    static int estimateRowWidth(final @NotNull ResultSetMetaData md)
+            throws SQLException
+    {
+        final int n = md.getColumnCount();
+        int width = 16 + 4 * n;
+        for (int i = 1; i <= n; i++) width += estimateColumnWidth(md.getColumnType(i), md.getPrecision(i));
+        return width;
+    }
+
+    private static int estimateColumnWidth(final int jdbcType, final int precision) {
+        final int length = precision > 0 ? Math.min(precision, DEFAULT_TEXT_LENGTH) : DEFAULT_TEXT_LENGTH;
+        switch (jdbcType) {
+            case Types.BOOLEAN:
+            case Types.BIT:
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return 16;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return 40;
+            case Types.DATE:
+            case Types.TIME:
+            case Types.TIMESTAMP:
+            case Types.TIME_WITH_TIMEZONE:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return 32;
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+                return 40 + 2 * length;
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+                return 16 + length;
+            case Types.CLOB:
+            case Types.NCLOB:
+            case Types.BLOB:
+                return 1024;
+            default:
+                return 32;
+        }
+    }
+
+    /**
+     * Estimates how much memory the fetched value takes.
+     * @param value the value, or an array of values of one row.
+     * @return the size in bytes.
+     */
+    static int estimateValueSize(final @Nullable Object value) {
+        if (value == null) return 0;
+        if (value instanceof String) return 40 + 2 * ((String) value).length();
+        if (value instanceof byte[]) return 16 + ((byte[]) value).length;
+        if (value instanceof char[]) return 16 + 2 * ((char[]) value).length;
+        if (value instanceof BigDecimal || value instanceof BigInteger) return 40;
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) return 16;
+        if (value instanceof Object[]) {
+            final Object[] array = (Object[]) value;
+            int size = 16 + 4 * array.length;
+            for (Object element : array) size += estimateValueSize(element);
+            return size;
+        }
+        return 32;
+    }
+
+}
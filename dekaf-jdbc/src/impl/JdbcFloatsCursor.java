@@ -0,0 +1,131 @@
+package org.jetbrains.dekaf.jdbc.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.dekaf.inter.exceptions.DBFetchingException;
+import org.jetbrains.dekaf.inter.intf.InterFloatsCursor;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+
+
+public class JdbcFloatsCursor extends JdbcPrimitiveCursor implements InterFloatsCursor {
+
+    private float defaultValue = 0.0f;
+
+    protected JdbcFloatsCursor(final @NotNull JdbcSeance seance, final @NotNull ResultSet rset) {
+        super(seance, rset);
+    }
+
+    @Override
+    public void setDefaultValue(final float defaultValue) {
+        this.defaultValue = defaultValue;
+    }
+
+    @Override @Nullable
+    public float[] fetchPortion() {
+        if (end) return null;
+
+        int portionSize = seance.portionSize;
+        final long started = System.nanoTime();
+
+        float[] array = null;
+        int k = 0;
+        resetNulls();
+
+        try {
+            while (k < portionSize) {
+                boolean ok = rset.next();
+                if (!ok) break;
+                float value = rset.getFloat(1);
+                if (rset.wasNull()) {
+                    value = defaultValue;
+                    markNull(k);
+                }
+                if (array == null) array = new float[portionSize];
+                array[k++] = value;
+            }
+        }
+        catch (SQLException e) {
+            throw new DBFetchingException("Failed to fetch portion from cursor: "+e.getMessage(), e, seance.statementText);
+        }
+
+        portionFetched(k, started, null);
+
+        if (k == 0) {
+            end = true;
+            close();
+            return null;
+        }
+        else if (k < portionSize) {
+            end = true;
+            close();
+            //noinspection UnnecessaryLocalVariable
+            float[] array1 = Arrays.copyOf(array, k);
+            return array1;
+        }
+        else {
+            return array;
+        }
+    }
+
+    @Override
+    public int fetchPortionInto(final float @NotNull [] buffer) {
+        if (buffer.length == 0) throw new IllegalArgumentException("Empty buffer");
+        if (end) return 0;
+
+        final int capacity = buffer.length;
+        int k = 0;
+        clearNulls();
+
+        try {
+            while (k < capacity) {
+                boolean ok = rset.next();
+                if (!ok) break;
+                float value = rset.getFloat(1);
+                if (rset.wasNull()) {
+                    value = defaultValue;
+                    markNull(k);
+                }
+                buffer[k++] = value;
+            }
+        }
+        catch (SQLException e) {
+            throw new DBFetchingException("Failed to fetch portion from cursor: "+e.getMessage(), e, seance.statementText);
+        }
+
+        if (k < capacity) {
+            end = true;
+            close();
+        }
+        return k;
+    }
+
+    @Nullable
+    @Override
+    public float[] fetchRow() {
+        if (end) return null;
+        resetNulls();
+
+        try {
+            boolean ok = rset.next();
+            if (ok) {
+                float value = rset.getFloat(1);
+                if (rset.wasNull()) {
+                    value = defaultValue;
+                    markNull(0);
+                }
+                return new float[] { value };
+            }
+            else {
+                return null;
+            }
+        }
+        catch (SQLException e) {
+            throw new DBFetchingException("Failed to fetch a row from cursor: "+e.getMessage(), e, seance.statementText);
+        }
+    }
+
+}
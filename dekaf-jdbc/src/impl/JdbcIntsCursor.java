@@ -11,7 +11,7 @@ import java.util.Arrays;
 
 
 
-public class JdbcIntsCursor extends JdbcBaseCursor implements InterIntsCursor {
+public class JdbcIntsCursor extends JdbcPrimitiveCursor implements InterIntsCursor {
 
     private int defaultValue = 0;
 
@@ -29,16 +29,21 @@ public class JdbcIntsCursor extends JdbcBaseCursor implements InterIntsCursor {
         if (end) return null;
 
         int portionSize = seance.portionSize;
+        final long started = System.nanoTime();
 
         int[] array = null;
         int k = 0;
+        resetNulls();
 
         try {
             while (k < portionSize) {
                 boolean ok = rset.next();
                 if (!ok) break;
                 int value = rset.getInt(1);
-                if (rset.wasNull()) value = defaultValue;
+                if (rset.wasNull()) {
+                    value = defaultValue;
+                    markNull(k);
+                }
                 if (array == null) array = new int[portionSize];
                 array[k++] = value;
             }
@@ -47,6 +52,8 @@ public class JdbcIntsCursor extends JdbcBaseCursor implements InterIntsCursor {
             throw new DBFetchingException("Failed to fetch portion from cursor: "+e.getMessage(), e, seance.statementText);
         }
 
+        portionFetched(k, started, null);
+
         if (k == 0) {
             end = true;
             close();
@@ -64,16 +71,52 @@ public class JdbcIntsCursor extends JdbcBaseCursor implements InterIntsCursor {
         }
     }
 
+    @Override
+    public int fetchPortionInto(final int @NotNull [] buffer) {
+        if (buffer.length == 0) throw new IllegalArgumentException("Empty buffer");
+        if (end) return 0;
+
+        final int capacity = buffer.length;
+        int k = 0;
+        clearNulls();
+
+        try {
+            while (k < capacity) {
+                boolean ok = rset.next();
+                if (!ok) break;
+                int value = rset.getInt(1);
+                if (rset.wasNull()) {
+                    value = defaultValue;
+                    markNull(k);
+                }
+                buffer[k++] = value;
+            }
+        }
+        catch (SQLException e) {
+            throw new DBFetchingException("Failed to fetch portion from cursor: "+e.getMessage(), e, seance.statementText);
+        }
+
+        if (k < capacity) {
+            end = true;
+            close();
+        }
+        return k;
+    }
+
     @Nullable
     @Override
     public int[] fetchRow() {
         if (end) return null;
+        resetNulls();
 
         try {
             boolean ok = rset.next();
             if (ok) {
                 int value = rset.getInt(1);
-                if (rset.wasNull()) value = defaultValue;
+                if (rset.wasNull()) {
+                    value = defaultValue;
+                    markNull(0);
+                }
                 return new int[] { value };
             }
             else {
@@ -0,0 +1,157 @@
+package org.jetbrains.dekaf.jdbc.impl;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+
+
+
+/**
+ * Copies streamed LOB values without materializing them in memory.
+ *
+ * The copying uses a buffer of a bounded size; direct buffers are pooled,
+ * so copying many values doesn't allocate off-heap memory every time.
+ * The streams got from a cursor are valid only until the cursor fetches the next row,
+ * so the value should be copied before that.
+ * <p/>
+ * Stateless service.
+ */
+public final class JdbcLobs {
+
+    //// CONSTANTS \\\\
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int CHAR_BUFFER_SIZE = 8 * 1024;
+
+    private static final int POOLED_BUFFERS = 8;
+
+
+    //// STATE \\\\
+
+    private static final ArrayBlockingQueue<ByteBuffer> BUFFERS = new ArrayBlockingQueue<>(POOLED_BUFFERS);
+
+
+    //// COPYING \\\\
+
+    /**
+     * Copies the stream to the file, starting from the current position of the file.
+     * The position of the file is moved to the end of the copied content.
+     * @return how many bytes were copied.
+     */
+    public static long copy(final @NotNull InputStream in, final @NotNull FileChannel file)
+            throws IOException
+    {
+        return copy(Channels.newChannel(in), file);
+    }
+
+    /**
+     * Copies the channel content to the file, starting from the current position of the file.
+     * The position of the file is moved to the end of the copied content.
+     * @return how many bytes were copied.
+     */
+    public static long copy(final @NotNull ReadableByteChannel in, final @NotNull FileChannel file)
+            throws IOException
+    {
+        final long start = file.position();
+        long position = start;
+        while (true) {
+            long n = file.transferFrom(in, position, BUFFER_SIZE);
+            if (n <= 0) break;
+            position += n;
+        }
+        file.position(position);
+        return position - start;
+    }
+
+    /**
+     * Copies the stream to the channel through a pooled direct buffer.
+     * @return how many bytes were copied.
+     */
+    public static long copy(final @NotNull InputStream in, final @NotNull WritableByteChannel out)
+            throws IOException
+    {
+        return copy(Channels.newChannel(in), out);
+    }
+
+    /**
+     * Copies the channel content to the other channel through a pooled direct buffer.
+     * @return how many bytes were copied.
+     */
+    public static long copy(final @NotNull ReadableByteChannel in, final @NotNull WritableByteChannel out)
+            throws IOException
+    {
+        final ByteBuffer buffer = borrowBuffer();
+        try {
+            return copy(in, out, buffer);
+        }
+        finally {
+            returnBuffer(buffer);
+        }
+    }
+
+    /**
+     * Copies the channel content to the other channel through the given buffer;
+     * the buffer capacity bounds the memory used for copying.
+     * @return how many bytes were copied.
+     */
+    public static long copy(final @NotNull ReadableByteChannel in,
+                            final @NotNull WritableByteChannel out,
+                            final @NotNull ByteBuffer buffer)
+            throws IOException
+    {
+        long total = 0L;
+        buffer.clear();
+        while (in.read(buffer) >= 0 || buffer.position() > 0) {
+            buffer.flip();
+            total += out.write(buffer);
+            buffer.compact();
+        }
+        buffer.clear();
+        return total;
+    }
+
+    /**
+     * Copies the characters.
+     * @return how many characters were copied.
+     */
+    public static long copy(final @NotNull Reader in, final @NotNull Writer out)
+            throws IOException
+    {
+        final char[] buffer = new char[CHAR_BUFFER_SIZE];
+        long total = 0L;
+        int n;
+        while ((n = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, n);
+            total += n;
+        }
+        return total;
+    }
+
+
+    //// BUFFERS \\\\
+
+    @NotNull
+    static ByteBuffer borrowBuffer() {
+        final ByteBuffer buffer = BUFFERS.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    static void returnBuffer(final @NotNull ByteBuffer buffer) {
+        buffer.clear();
+        BUFFERS.offer(buffer);
+    }
+
+
+    private JdbcLobs() {}
+
+}
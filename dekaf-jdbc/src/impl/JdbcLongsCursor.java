@@ -11,7 +11,7 @@ import java.util.Arrays;
 
 
 
-public class JdbcLongsCursor extends JdbcBaseCursor implements InterLongsCursor {
+public class JdbcLongsCursor extends JdbcPrimitiveCursor implements InterLongsCursor {
 
     private long defaultValue = 0L;
 
@@ -29,16 +29,21 @@ public class JdbcLongsCursor extends JdbcBaseCursor implements InterLongsCursor
         if (end) return null;
 
         int portionSize = seance.portionSize;
+        final long started = System.nanoTime();
 
         long[] array = null;
         int k = 0;
+        resetNulls();
 
         try {
             while (k < portionSize) {
                 boolean ok = rset.next();
                 if (!ok) break;
                 long value = rset.getLong(1);
-                if (rset.wasNull()) value = defaultValue;
+                if (rset.wasNull()) {
+                    value = defaultValue;
+                    markNull(k);
+                }
                 if (array == null) array = new long[portionSize];
                 array[k++] = value;
             }
@@ -47,6 +52,8 @@ public class JdbcLongsCursor extends JdbcBaseCursor implements InterLongsCursor
             throw new DBFetchingException("Failed to fetch portion from cursor: "+e.getMessage(), e, seance.statementText);
         }
 
+        portionFetched(k, started, null);
+
         if (k == 0) {
             end = true;
             close();
@@ -64,16 +71,52 @@ public class JdbcLongsCursor extends JdbcBaseCursor implements InterLongsCursor
         }
     }
 
+    @Override
+    public int fetchPortionInto(final long @NotNull [] buffer) {
+        if (buffer.length == 0) throw new IllegalArgumentException("Empty buffer");
+        if (end) return 0;
+
+        final int capacity = buffer.length;
+        int k = 0;
+        clearNulls();
+
+        try {
+            while (k < capacity) {
+                boolean ok = rset.next();
+                if (!ok) break;
+                long value = rset.getLong(1);
+                if (rset.wasNull()) {
+                    value = defaultValue;
+                    markNull(k);
+                }
+                buffer[k++] = value;
+            }
+        }
+        catch (SQLException e) {
+            throw new DBFetchingException("Failed to fetch portion from cursor: "+e.getMessage(), e, seance.statementText);
+        }
+
+        if (k < capacity) {
+            end = true;
+            close();
+        }
+        return k;
+    }
+
     @Nullable
     @Override
     public long[] fetchRow() {
         if (end) return null;
+        resetNulls();
 
         try {
             boolean ok = rset.next();
             if (ok) {
                 long value = rset.getLong(1);
-                if (rset.wasNull()) value = defaultValue;
+                if (rset.wasNull()) {
+                    value = defaultValue;
+                    markNull(0);
+                }
                 return new long[] { value };
             }
             else {
@@ -52,6 +52,7 @@ public class JdbcMatrixCursor<B> extends JdbcBaseCursor implements InterMatrixCu
             }
 
             columnCount = n;
+            streaming = JdbcValueGetters.isStreamingClass(baseClass);
         }
         catch (SQLException e) {
             throw new DBFetchingException("Failed to prepare cursor: "+e.getMessage(), e, seance.statementText);
@@ -79,6 +80,7 @@ public class JdbcMatrixCursor<B> extends JdbcBaseCursor implements InterMatrixCu
                 Class<? extends B> cellClass = (Class<? extends B>) cellClasses[i];
                 JdbcValueGetter<? extends B> getter = JdbcValueGetters.of(jdbcType, cellClass);
                 getters[i] = getter;
+                streaming |= JdbcValueGetters.isStreamingClass(cellClass);
             }
         }
         catch (SQLException e) {
@@ -100,7 +102,8 @@ public class JdbcMatrixCursor<B> extends JdbcBaseCursor implements InterMatrixCu
         if (end) return null;
         checkPrepared();
 
-        int portionSize = seance.portionSize;
+        int portionSize = portionLimit(seance.portionSize);
+        final long started = System.nanoTime();
 
         B[][] array = null;
         int k = 0;
@@ -118,6 +121,8 @@ public class JdbcMatrixCursor<B> extends JdbcBaseCursor implements InterMatrixCu
             throw new DBFetchingException("Failed to fetch portion from cursor: "+e.getMessage(), e, seance.statementText);
         }
 
+        portionFetched(k, started, k > 0 ? array[0] : null);
+
         if (k == 0) {
             end = true;
             close();
@@ -135,6 +140,37 @@ public class JdbcMatrixCursor<B> extends JdbcBaseCursor implements InterMatrixCu
         }
     }
 
+    @Override
+    public int fetchPortionInto(final B @NotNull [] @NotNull [] buffer) {
+        if (buffer.length == 0) throw new IllegalArgumentException("Empty buffer");
+        if (end) return 0;
+        checkPrepared();
+
+        final int capacity = portionLimit(buffer.length);
+        int k = 0;
+
+        try {
+            while (k < capacity) {
+                boolean ok = rset.next();
+                if (!ok) break;
+                B[] row = buffer[k];
+                //noinspection ConstantConditions
+                if (row == null || row.length < columnCount) buffer[k] = row = createArray(baseClass, columnCount);
+                handleRowInto(row);
+                k++;
+            }
+        }
+        catch (SQLException e) {
+            throw new DBFetchingException("Failed to fetch portion from cursor: "+e.getMessage(), e, seance.statementText);
+        }
+
+        if (k < capacity) {
+            end = true;
+            close();
+        }
+        return k;
+    }
+
     @Override
     public B[] fetchRow() {
         if (end) return null;
@@ -161,15 +197,19 @@ public class JdbcMatrixCursor<B> extends JdbcBaseCursor implements InterMatrixCu
     }
 
     protected B[] handleRow() throws SQLException {
+        B[] row = createArray(baseClass, getters.length);
+        handleRowInto(row);
+        return row;
+    }
+
+    protected void handleRowInto(final B @NotNull [] row) throws SQLException {
         final int n = getters.length;
-        B[] row = createArray(baseClass, n);
         for (int i = 0; i < n; i++) {
             JdbcValueGetter<? extends B> getter = getters[i];
             //noinspection ConstantConditions
             B value = getter.getValue(rset, i+1);
             row[i] = value != null ? value : defaultValue;
         }
-        return row;
     }
 
     private void checkPrepared() {
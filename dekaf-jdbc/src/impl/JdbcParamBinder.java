@@ -0,0 +1,65 @@
+package org.jetbrains.dekaf.jdbc.impl;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+
+
+/**
+ * Assigns values of one parameter type to statement parameters,
+ * calling the specific setter of the statement.
+ *
+ * @see JdbcParamBinders
+ */
+public abstract class JdbcParamBinder {
+
+  /**
+   * The JDBC type (see {@link java.sql.Types}) used for assigning nulls.
+   */
+  final int sqlType;
+
+  /**
+   * The name of the used statement setter, for error messages.
+   */
+  @NotNull
+  final String setterName;
+
+
+  JdbcParamBinder(final int sqlType, final @NotNull String setterName) {
+    this.sqlType = sqlType;
+    this.setterName = setterName;
+  }
+
+
+  /**
+   * Assigns the value to the parameter.
+   * @param stmt  the statement.
+   * @param index parameter index, starting from 1 (as in JDBC).
+   * @param value the value to assign, not null.
+   * @throws SQLException       when the driver fails.
+   * @throws ClassCastException when the value is not compatible with the parameter type.
+   */
+  abstract void bind(@NotNull PreparedStatement stmt, int index, @NotNull Object value)
+          throws SQLException;
+
+  void bindInt(@NotNull PreparedStatement stmt, int index, int value)
+          throws SQLException
+  {
+    bind(stmt, index, value);
+  }
+
+  void bindLong(@NotNull PreparedStatement stmt, int index, long value)
+          throws SQLException
+  {
+    bind(stmt, index, value);
+  }
+
+  void bindNull(@NotNull PreparedStatement stmt, int index)
+          throws SQLException
+  {
+    stmt.setNull(index, sqlType);
+  }
+
+}
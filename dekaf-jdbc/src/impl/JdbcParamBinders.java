@@ -0,0 +1,353 @@
+package org.jetbrains.dekaf.jdbc.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.dekaf.inter.common.ParamType;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumMap;
+
+
+
+/**
+ * Parameter binders factory.
+ * <p/>
+ * Stateless service.
+ */
+public final class JdbcParamBinders {
+
+  //// INSTANCE PLENTY \\\\
+
+  @NotNull
+  private static final EnumMap<ParamType, JdbcParamBinder> BINDERS = new EnumMap<>(ParamType.class);
+
+  static {
+    BINDERS.put(ParamType.paramBoolean, new BoolBinder(Types.BOOLEAN));
+    BINDERS.put(ParamType.paramBit, new BoolBinder(Types.BIT));
+    BINDERS.put(ParamType.paramTinyInt, ByteBinder.INSTANCE);
+    BINDERS.put(ParamType.paramSmallInt, ShortBinder.INSTANCE);
+    BINDERS.put(ParamType.paramInt, IntBinder.INSTANCE);
+    BINDERS.put(ParamType.paramBigInt, LongBinder.INSTANCE);
+    BINDERS.put(ParamType.paramFloat, FloatBinder.INSTANCE);
+    BINDERS.put(ParamType.paramDouble, DoubleBinder.INSTANCE);
+    BINDERS.put(ParamType.paramBigInteger, new BigDecimalBinder(Types.NUMERIC));
+    BINDERS.put(ParamType.paramBigDecimal, new BigDecimalBinder(Types.DECIMAL));
+    BINDERS.put(ParamType.paramChar, new StringBinder(Types.CHAR));
+    BINDERS.put(ParamType.paramString, new StringBinder(Types.VARCHAR));
+    BINDERS.put(ParamType.paramDate, DateBinder.INSTANCE);
+    BINDERS.put(ParamType.paramDateTime, TimestampBinder.INSTANCE);
+    BINDERS.put(ParamType.paramTime, TimeBinder.INSTANCE);
+    BINDERS.put(ParamType.paramTimestamp, TimestampBinder.INSTANCE);
+    BINDERS.put(ParamType.paramCLOB, ClobBinder.INSTANCE);
+    BINDERS.put(ParamType.paramBLOB, BlobBinder.INSTANCE);
+    BINDERS.put(ParamType.paramRefCursor, new ObjectBinder(Types.REF_CURSOR));
+  }
+
+
+  /**
+   * Provides the binder for the given parameter type.
+   * @param type the parameter type, or null when it's unknown.
+   * @return the binder; for unknown type — the one that checks the value class every time.
+   */
+  @NotNull
+  public static JdbcParamBinder of(final ParamType type) {
+    if (type == null) return ByItsTypeBinder.INSTANCE;
+    JdbcParamBinder binder = BINDERS.get(type);
+    return binder != null ? binder : ByItsTypeBinder.INSTANCE;
+  }
+
+
+
+  //// BINDERS \\\\
+
+  static final class ByItsTypeBinder extends JdbcParamBinder {
+    private ByItsTypeBinder() { super(Types.BIT, "set"); }
+
+    @Override
+    void bind(@NotNull final PreparedStatement stmt, final int index, @NotNull final Object value) {
+      JdbcParametersHandler.assignValueByItsType(stmt, index, value);
+    }
+
+    @Override
+    void bindInt(@NotNull final PreparedStatement stmt, final int index, final int value) throws SQLException {
+      stmt.setInt(index, value);
+    }
+
+    @Override
+    void bindLong(@NotNull final PreparedStatement stmt, final int index, final long value) throws SQLException {
+      stmt.setLong(index, value);
+    }
+
+    static final ByItsTypeBinder INSTANCE = new ByItsTypeBinder();
+  }
+
+
+  static final class BoolBinder extends JdbcParamBinder {
+    BoolBinder(final int sqlType) { super(sqlType, "setBoolean"); }
+
+    @Override
+    void bind(@NotNull final PreparedStatement stmt, final int index, @NotNull final Object value) throws SQLException {
+      boolean b = value instanceof Number ? ((Number) value).intValue() != 0 : (Boolean) value;
+      stmt.setBoolean(index, b);
+    }
+
+    @Override
+    void bindInt(@NotNull final PreparedStatement stmt, final int index, final int value) throws SQLException {
+      stmt.setBoolean(index, value != 0);
+    }
+
+    @Override
+    void bindLong(@NotNull final PreparedStatement stmt, final int index, final long value) throws SQLException {
+      stmt.setBoolean(index, value != 0L);
+    }
+  }
+
+
+  static final class ByteBinder extends JdbcParamBinder {
+    private ByteBinder() { super(Types.TINYINT, "setByte"); }
+
+    @Override
+    void bind(@NotNull final PreparedStatement stmt, final int index, @NotNull final Object value) throws SQLException {
+      stmt.setByte(index, ((Number) value).byteValue());
+    }
+
+    static final ByteBinder INSTANCE = new ByteBinder();
+  }
+
+
+  static final class ShortBinder extends JdbcParamBinder {
+    private ShortBinder() { super(Types.SMALLINT, "setShort"); }
+
+    @Override
+    void bind(@NotNull final PreparedStatement stmt, final int index, @NotNull final Object value) throws SQLException {
+      stmt.setShort(index, ((Number) value).shortValue());
+    }
+
+    static final ShortBinder INSTANCE = new ShortBinder();
+  }
+
+
+  static final class IntBinder extends JdbcParamBinder {
+    private IntBinder() { super(Types.INTEGER, "setInt"); }
+
+    @Override
+    void bind(@NotNull final PreparedStatement stmt, final int index, @NotNull final Object value) throws SQLException {
+      stmt.setInt(index, Math.toIntExact(longValueOf((Number) value)));
+    }
+
+    @Override
+    void bindInt(@NotNull final PreparedStatement stmt, final int index, final int value) throws SQLException {
+      stmt.setInt(index, value);
+    }
+
+    @Override
+    void bindLong(@NotNull final PreparedStatement stmt, final int index, final long value) throws SQLException {
+      stmt.setInt(index, Math.toIntExact(value));
+    }
+
+    static final IntBinder INSTANCE = new IntBinder();
+  }
+
+
+  static final class LongBinder extends JdbcParamBinder {
+    private LongBinder() { super(Types.BIGINT, "setLong"); }
+
+    @Override
+    void bind(@NotNull final PreparedStatement stmt, final int index, @NotNull final Object value) throws SQLException {
+      stmt.setLong(index, longValueOf((Number) value));
+    }
+
+    @Override
+    void bindInt(@NotNull final PreparedStatement stmt, final int index, final int value) throws SQLException {
+      stmt.setLong(index, value);
+    }
+
+    @Override
+    void bindLong(@NotNull final PreparedStatement stmt, final int index, final long value) throws SQLException {
+      stmt.setLong(index, value);
+    }
+
+    static final LongBinder INSTANCE = new LongBinder();
+  }
+
+
+  static final class FloatBinder extends JdbcParamBinder {
+    private FloatBinder() { super(Types.REAL, "setFloat"); }
+
+    @Override
+    void bind(@NotNull final PreparedStatement stmt, final int index, @NotNull final Object value) throws SQLException {
+      stmt.setFloat(index, ((Number) value).floatValue());
+    }
+
+    static final FloatBinder INSTANCE = new FloatBinder();
+  }
+
+
+  static final class DoubleBinder extends JdbcParamBinder {
+    private DoubleBinder() { super(Types.DOUBLE, "setDouble"); }
+
+    @Override
+    void bind(@NotNull final PreparedStatement stmt, final int index, @NotNull final Object value) throws SQLException {
+      stmt.setDouble(index, ((Number) value).doubleValue());
+    }
+
+    static final DoubleBinder INSTANCE = new DoubleBinder();
+  }
+
+
+  static final class BigDecimalBinder extends JdbcParamBinder {
+    BigDecimalBinder(final int sqlType) { super(sqlType, "setBigDecimal"); }
+
+    @Override
+    void bind(@NotNull final PreparedStatement stmt, final int index, @NotNull final Object value) throws SQLException {
+      final BigDecimal d;
+      if (value instanceof BigDecimal) d = (BigDecimal) value;
+      else if (value instanceof BigInteger) d = new BigDecimal((BigInteger) value);
+      else if (value instanceof Double || value instanceof Float) d = BigDecimal.valueOf(((Number) value).doubleValue());
+      else d = BigDecimal.valueOf(((Number) value).longValue());
+      stmt.setBigDecimal(index, d);
+    }
+
+    @Override
+    void bindInt(@NotNull final PreparedStatement stmt, final int index, final int value) throws SQLException {
+      stmt.setBigDecimal(index, BigDecimal.valueOf(value));
+    }
+
+    @Override
+    void bindLong(@NotNull final PreparedStatement stmt, final int index, final long value) throws SQLException {
+      stmt.setBigDecimal(index, BigDecimal.valueOf(value));
+    }
+  }
+
+
+  static final class StringBinder extends JdbcParamBinder {
+    StringBinder(final int sqlType) { super(sqlType, "setString"); }
+
+    @Override
+    void bind(@NotNull final PreparedStatement stmt, final int index, @NotNull final Object value) throws SQLException {
+      stmt.setString(index, value.toString());
+    }
+  }
+
+
+  static final class DateBinder extends JdbcParamBinder {
+    private DateBinder() { super(Types.DATE, "setDate"); }
+
+    @Override
+    void bind(@NotNull final PreparedStatement stmt, final int index, @NotNull final Object value) throws SQLException {
+      final java.sql.Date d;
+      if (value instanceof java.sql.Date) d = (java.sql.Date) value;
+      else if (value instanceof LocalDate) d = java.sql.Date.valueOf((LocalDate) value);
+      else d = new java.sql.Date(((java.util.Date) value).getTime());
+      stmt.setDate(index, d);
+    }
+
+    static final DateBinder INSTANCE = new DateBinder();
+  }
+
+
+  static final class TimestampBinder extends JdbcParamBinder {
+    private TimestampBinder() { super(Types.TIMESTAMP, "setTimestamp"); }
+
+    @Override
+    void bind(@NotNull final PreparedStatement stmt, final int index, @NotNull final Object value) throws SQLException {
+      final Timestamp t;
+      if (value instanceof Timestamp) t = (Timestamp) value;
+      else if (value instanceof LocalDateTime) t = Timestamp.valueOf((LocalDateTime) value);
+      else t = new Timestamp(((java.util.Date) value).getTime());
+      stmt.setTimestamp(index, t);
+    }
+
+    static final TimestampBinder INSTANCE = new TimestampBinder();
+  }
+
+
+  static final class TimeBinder extends JdbcParamBinder {
+    private TimeBinder() { super(Types.TIME, "setTime"); }
+
+    @Override
+    void bind(@NotNull final PreparedStatement stmt, final int index, @NotNull final Object value) throws SQLException {
+      final java.sql.Time t;
+      if (value instanceof java.sql.Time) t = (java.sql.Time) value;
+      else if (value instanceof LocalTime) t = java.sql.Time.valueOf((LocalTime) value);
+      else t = new java.sql.Time(((java.util.Date) value).getTime());
+      stmt.setTime(index, t);
+    }
+
+    static final TimeBinder INSTANCE = new TimeBinder();
+  }
+
+
+  /**
+   * Binds byte arrays, or streams the content of input streams and channels,
+   * so big values are not materialized in memory.
+   */
+  static final class BlobBinder extends JdbcParamBinder {
+    private BlobBinder() { super(Types.BLOB, "setBinaryStream"); }
+
+    @Override
+    void bind(@NotNull final PreparedStatement stmt, final int index, @NotNull final Object value) throws SQLException {
+      if (value instanceof byte[]) stmt.setBytes(index, (byte[]) value);
+      else if (value instanceof InputStream) stmt.setBinaryStream(index, (InputStream) value);
+      else if (value instanceof ReadableByteChannel) stmt.setBinaryStream(index, Channels.newInputStream((ReadableByteChannel) value));
+      else stmt.setBlob(index, (Blob) value);
+    }
+
+    static final BlobBinder INSTANCE = new BlobBinder();
+  }
+
+
+  /**
+   * Binds strings, or streams the content of readers.
+   */
+  static final class ClobBinder extends JdbcParamBinder {
+    private ClobBinder() { super(Types.CLOB, "setCharacterStream"); }
+
+    @Override
+    void bind(@NotNull final PreparedStatement stmt, final int index, @NotNull final Object value) throws SQLException {
+      if (value instanceof Reader) stmt.setCharacterStream(index, (Reader) value);
+      else if (value instanceof Clob) stmt.setClob(index, (Clob) value);
+      else stmt.setString(index, value.toString());
+    }
+
+    static final ClobBinder INSTANCE = new ClobBinder();
+  }
+
+
+  static final class ObjectBinder extends JdbcParamBinder {
+    ObjectBinder(final int sqlType) { super(sqlType, "setObject"); }
+
+    @Override
+    void bind(@NotNull final PreparedStatement stmt, final int index, @NotNull final Object value) throws SQLException {
+      stmt.setObject(index, value);
+    }
+  }
+
+
+  //// UTILITIES \\\\
+
+  /**
+   * Converts the number to long; a big integer that doesn't fit is not truncated.
+   * @throws ArithmeticException when the big integer is out of the long range.
+   */
+  private static long longValueOf(@NotNull final Number value) {
+    return value instanceof BigInteger ? ((BigInteger) value).longValueExact() : value.longValue();
+  }
+
+
+  private JdbcParamBinders() {}
+
+}
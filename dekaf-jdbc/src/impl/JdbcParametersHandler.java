@@ -1,10 +1,15 @@
 package org.jetbrains.dekaf.jdbc.impl;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.dekaf.inter.exceptions.DBParameterSettingException;
 
+import java.io.InputStream;
+import java.io.Reader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Timestamp;
@@ -56,7 +61,7 @@ class JdbcParametersHandler {
       }
       else if (object instanceof BigInteger) {
         setter = "setBigDecimal";
-        BigDecimal bigDecimal = new BigDecimal(object.toString());
+        BigDecimal bigDecimal = new BigDecimal((BigInteger) object);
         stmt.setBigDecimal(index, bigDecimal);
       }
       else if (object instanceof BigDecimal) {
@@ -95,6 +100,18 @@ class JdbcParametersHandler {
         setter = "setBytes";
         stmt.setBytes(index, (byte[]) object);
       }
+      else if (object instanceof InputStream) {
+        setter = "setBinaryStream";
+        stmt.setBinaryStream(index, (InputStream) object);
+      }
+      else if (object instanceof ReadableByteChannel) {
+        setter = "setBinaryStream";
+        stmt.setBinaryStream(index, Channels.newInputStream((ReadableByteChannel) object));
+      }
+      else if (object instanceof Reader) {
+        setter = "setCharacterStream";
+        stmt.setCharacterStream(index, (Reader) object);
+      }
       else {
         setter = "setObject";
         stmt.setObject(index, object);
@@ -117,6 +134,78 @@ class JdbcParametersHandler {
     }
   }
 
+  static void assignValue(@NotNull final PreparedStatement stmt,
+                          final int index,
+                          @NotNull final JdbcParamBinder binder,
+                          @Nullable final Object object)
+          throws DBParameterSettingException
+  {
+    try {
+      if (object != null) binder.bind(stmt, index, object);
+      else binder.bindNull(stmt, index);
+    }
+    catch (DBParameterSettingException e) {
+      throw e;
+    }
+    catch (SQLException sqle) {
+      String message =
+          format("Error %d occurred during setting parameter %d using %s(). The original value class is %s. Exception: %s",
+                 sqle.getErrorCode(), index, binder.setterName, classNameOf(object), sqle.getMessage());
+      throw new DBParameterSettingException(message, sqle, null);
+    }
+    catch (Exception e) {
+      String message =
+          format("A problem occurred during setting parameter %d using %s(). The original value class is %s. Exception %s: %s",
+                 index, binder.setterName, classNameOf(object), e.getClass().getSimpleName(), e.getMessage());
+      throw new DBParameterSettingException(message, e, null);
+    }
+  }
+
+  static void assignInt(@NotNull final PreparedStatement stmt,
+                        final int index,
+                        @NotNull final JdbcParamBinder binder,
+                        final int value)
+          throws DBParameterSettingException
+  {
+    try {
+      binder.bindInt(stmt, index, value);
+    }
+    catch (Exception e) {
+      throw primitiveSettingException(e, index, binder, "int");
+    }
+  }
+
+  static void assignLong(@NotNull final PreparedStatement stmt,
+                         final int index,
+                         @NotNull final JdbcParamBinder binder,
+                         final long value)
+          throws DBParameterSettingException
+  {
+    try {
+      binder.bindLong(stmt, index, value);
+    }
+    catch (Exception e) {
+      throw primitiveSettingException(e, index, binder, "long");
+    }
+  }
+
+  @NotNull
+  private static DBParameterSettingException primitiveSettingException(@NotNull final Exception e,
+                                                                       final int index,
+                                                                       @NotNull final JdbcParamBinder binder,
+                                                                       @NotNull final String valueType) {
+    if (e instanceof DBParameterSettingException) return (DBParameterSettingException) e;
+    String message =
+        format("A problem occurred during setting parameter %d using %s(). The original value type is %s. Exception %s: %s",
+               index, binder.setterName, valueType, e.getClass().getSimpleName(), e.getMessage());
+    return new DBParameterSettingException(message, e, null);
+  }
+
+  @NotNull
+  private static String classNameOf(@Nullable final Object object) {
+    return object != null ? object.getClass().getCanonicalName() : "null";
+  }
+
   static void assignNull(final @NotNull PreparedStatement stmt, final int index)
           throws DBParameterSettingException
   {
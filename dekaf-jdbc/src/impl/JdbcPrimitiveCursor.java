@@ -0,0 +1,50 @@
+package org.jetbrains.dekaf.jdbc.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.dekaf.inter.intf.InterPrimitiveCursor;
+
+import java.sql.ResultSet;
+import java.util.BitSet;
+
+
+
+public abstract class JdbcPrimitiveCursor extends JdbcBaseCursor implements InterPrimitiveCursor {
+
+    /**
+     * Nulls of the last fetched portion; allocated only when a NULL is met.
+     */
+    @Nullable
+    private BitSet nulls = null;
+
+
+    protected JdbcPrimitiveCursor(final @NotNull JdbcSeance seance, final @NotNull ResultSet rset) {
+        super(seance, rset);
+    }
+
+    @Override @Nullable
+    public BitSet getNulls() {
+        final BitSet nulls = this.nulls;
+        return nulls != null && !nulls.isEmpty() ? nulls : null;
+    }
+
+    /**
+     * Forgets the nulls, leaving the previously returned bit set to the caller.
+     */
+    protected void resetNulls() {
+        nulls = null;
+    }
+
+    /**
+     * Clears the nulls in place, reusing the bit set.
+     */
+    protected void clearNulls() {
+        if (nulls != null) nulls.clear();
+    }
+
+    protected void markNull(final int index) {
+        if (nulls == null) nulls = new BitSet(seance.portionSize);
+        nulls.set(index);
+    }
+
+}
@@ -0,0 +1,339 @@
+package org.jetbrains.dekaf.jdbc.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.dekaf.inter.exceptions.DBFetchingException;
+import org.jetbrains.dekaf.inter.exceptions.UnexpectedReflectionException;
+import org.jetbrains.dekaf.inter.intf.InterRowCursor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InaccessibleObjectException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.invoke.MethodType.methodType;
+import static org.jetbrains.dekaf.inter.utils.ArrayHacks.createArray;
+
+
+
+/**
+ * Makes rows by calling a constructor of the row class.
+ *
+ * For the given constructor and columns, a method handle is composed
+ * that reads all the column values and passes them to the constructor;
+ * primitive parameters are read with the primitive getters of the result set, without boxing.
+ * Such method handles are cached per constructor and column layout.
+ * NULLs of primitive parameters are passed as zeros (false).
+ */
+public class JdbcRowCursor<R> extends JdbcBaseCursor implements InterRowCursor<R> {
+
+    //// STATE \\\\
+
+    @NotNull
+    private final Constructor<R> constructor;
+
+    @NotNull
+    private final Class<R> rowClass;
+
+    @Nullable
+    private final String[] columnNames;
+
+    /**
+     * The composed reader of type (ResultSet)Object.
+     */
+    @Nullable
+    private MethodHandle reader = null;
+
+
+    protected JdbcRowCursor(final @NotNull JdbcSeance seance,
+                            final @NotNull ResultSet rset,
+                            final @NotNull Constructor<R> constructor,
+                            final /*@NotNull*/ String @Nullable [] columnNames) {
+        super(seance, rset);
+        this.constructor = constructor;
+        this.rowClass = constructor.getDeclaringClass();
+        this.columnNames = columnNames;
+        if (columnNames != null && columnNames.length != constructor.getParameterCount())
+            throw new IllegalArgumentException("Column names count doesn't match the constructor parameters count");
+    }
+
+
+    @Override
+    public void prepare() {
+        if (reader != null) throw new DBFetchingException("Cursor has been already prepared", seance.statementText);
+        else if (isClosed()) throw new DBFetchingException("Cursor is closed", seance.statementText);
+
+        final int n = constructor.getParameterCount();
+        final int[] columns = new int[n];
+        final int[] jdbcTypes = new int[n];
+
+        try {
+            final ResultSetMetaData md = rset.getMetaData();
+            final int cc = md.getColumnCount();
+            if (columnNames == null) {
+                if (cc < n) {
+                    String msg = "Too few columns in the result set: expected " + n + " but actual " + cc;
+                    throw new DBFetchingException(msg, seance.statementText);
+                }
+                for (int i = 0; i < n; i++) columns[i] = i + 1;
+            }
+            else {
+                Map<String, Integer> indices = new HashMap<>(cc * 2);
+                for (int j = cc; j >= 1; j--) indices.put(normalizeName(md.getColumnLabel(j)), j);
+                for (int i = 0; i < n; i++) {
+                    Integer index = indices.get(normalizeName(columnNames[i]));
+                    if (index == null) {
+                        String msg = "No column for the parameter " + columnNames[i] + " of " + rowClass.getSimpleName();
+                        throw new DBFetchingException(msg, seance.statementText);
+                    }
+                    columns[i] = index;
+                }
+            }
+            for (int i = 0; i < n; i++) jdbcTypes[i] = md.getColumnType(columns[i]);
+        }
+        catch (SQLException e) {
+            throw new DBFetchingException("Failed to prepare cursor: "+e.getMessage(), e, seance.statementText);
+        }
+
+        reader = readerFor(constructor, columns, jdbcTypes);
+        for (Class<?> parameterType : constructor.getParameterTypes())
+            streaming |= JdbcValueGetters.isStreamingClass(parameterType);
+    }
+
+    /**
+     * Makes a column or parameter name comparable: lower case, without underscores.
+     */
+    @NotNull
+    private static String normalizeName(final @NotNull String name) {
+        StringBuilder b = new StringBuilder(name.length());
+        for (int i = 0, n = name.length(); i < n; i++) {
+            char c = name.charAt(i);
+            if (c != '_') b.append(Character.toLowerCase(c));
+        }
+        return b.toString();
+    }
+
+
+    @Override @Nullable
+    public R[] fetchPortion() {
+        if (end) return null;
+        checkPrepared();
+
+        int portionSize = portionLimit(seance.portionSize);
+        final long started = System.nanoTime();
+
+        R[] array = null;
+        int k = 0;
+
+        try {
+            while (k < portionSize) {
+                boolean ok = rset.next();
+                if (!ok) break;
+                R row = readRow();
+                if (array == null) array = createArray(rowClass, portionSize);
+                array[k++] = row;
+            }
+        }
+        catch (SQLException e) {
+            throw new DBFetchingException("Failed to fetch portion from cursor: "+e.getMessage(), e, seance.statementText);
+        }
+
+        portionFetched(k, started, null);
+
+        if (k == 0) {
+            end = true;
+            close();
+            return null;
+        }
+        else if (k < portionSize) {
+            end = true;
+            close();
+            //noinspection UnnecessaryLocalVariable
+            R[] array1 = Arrays.copyOf(array, k);
+            return array1;
+        }
+        else {
+            return array;
+        }
+    }
+
+    @Override @Nullable
+    public R fetchRow() {
+        if (end) return null;
+        checkPrepared();
+
+        try {
+            boolean ok = rset.next();
+            if (ok) {
+                return readRow();
+            }
+            else {
+                end = true;
+                close();
+                return null;
+            }
+        }
+        catch (SQLException e) {
+            throw new DBFetchingException("Failed to fetch a row from cursor: "+e.getMessage(), e, seance.statementText);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private R readRow() throws SQLException {
+        try {
+            //noinspection ConstantConditions
+            return (R) (Object) reader.invokeExact(rset);
+        }
+        catch (SQLException | RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            throw new UnexpectedReflectionException("Failed to create class " + rowClass.getName(),
+                                                    e instanceof Exception ? (Exception) e : new RuntimeException(e));
+        }
+    }
+
+    private void checkPrepared() {
+        if (reader == null) {
+            String msg = isClosed() ? "Cursor is closed" : "Cursor is not prepared";
+            throw new DBFetchingException(msg, seance.statementText);
+        }
+    }
+
+    @Override
+    public void close() {
+        reader = null;
+        super.close();
+    }
+
+
+    //// READERS \\\\
+
+    private static final class Layout {
+        @NotNull private final Constructor<?> constructor;
+        private final int @NotNull [] columns;
+        private final int @NotNull [] jdbcTypes;
+
+        Layout(final @NotNull Constructor<?> constructor, final int @NotNull [] columns, final int @NotNull [] jdbcTypes) {
+            this.constructor = constructor;
+            this.columns = columns;
+            this.jdbcTypes = jdbcTypes;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Layout that = (Layout) o;
+            return this.constructor.equals(that.constructor) &&
+                   Arrays.equals(this.columns, that.columns) &&
+                   Arrays.equals(this.jdbcTypes, that.jdbcTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(columns) * 31 + Arrays.hashCode(jdbcTypes);
+        }
+    }
+
+    private static final ClassValue<ConcurrentHashMap<Layout, MethodHandle>> READERS =
+            new ClassValue<ConcurrentHashMap<Layout, MethodHandle>>() {
+                @Override
+                protected ConcurrentHashMap<Layout, MethodHandle> computeValue(final Class<?> type) {
+                    return new ConcurrentHashMap<>(4);
+                }
+            };
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * {@link JdbcValueGetter#getValue(ResultSet, int)} of type (JdbcValueGetter,ResultSet,int)Object.
+     */
+    private static final MethodHandle GET_VALUE;
+
+    /**
+     * Primitive getters of {@link ResultSet}, of type (ResultSet,int)primitive.
+     */
+    private static final Map<Class<?>, MethodHandle> PRIMITIVE_GETTERS = new HashMap<>(12);
+
+    static {
+        try {
+            GET_VALUE = LOOKUP.findVirtual(JdbcValueGetter.class, "getValue",
+                                           methodType(Object.class, ResultSet.class, int.class));
+            PRIMITIVE_GETTERS.put(boolean.class, primitiveGetter("getBoolean", boolean.class));
+            PRIMITIVE_GETTERS.put(byte.class, primitiveGetter("getByte", byte.class));
+            PRIMITIVE_GETTERS.put(short.class, primitiveGetter("getShort", short.class));
+            PRIMITIVE_GETTERS.put(int.class, primitiveGetter("getInt", int.class));
+            PRIMITIVE_GETTERS.put(long.class, primitiveGetter("getLong", long.class));
+            PRIMITIVE_GETTERS.put(float.class, primitiveGetter("getFloat", float.class));
+            PRIMITIVE_GETTERS.put(double.class, primitiveGetter("getDouble", double.class));
+        }
+        catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @NotNull
+    private static MethodHandle primitiveGetter(final @NotNull String name, final @NotNull Class<?> type)
+            throws NoSuchMethodException, IllegalAccessException
+    {
+        return LOOKUP.findVirtual(ResultSet.class, name, methodType(type, int.class));
+    }
+
+    @NotNull
+    private static MethodHandle readerFor(final @NotNull Constructor<?> constructor,
+                                          final int @NotNull [] columns,
+                                          final int @NotNull [] jdbcTypes) {
+        ConcurrentHashMap<Layout, MethodHandle> readers = READERS.get(constructor.getDeclaringClass());
+        Layout layout = new Layout(constructor, columns, jdbcTypes);
+        MethodHandle reader = readers.get(layout);
+        if (reader == null) {
+            reader = makeReader(constructor, columns, jdbcTypes);
+            MethodHandle existent = readers.putIfAbsent(layout, reader);
+            if (existent != null) reader = existent;
+        }
+        return reader;
+    }
+
+    @NotNull
+    private static MethodHandle makeReader(final @NotNull Constructor<?> constructor,
+                                           final int @NotNull [] columns,
+                                           final int @NotNull [] jdbcTypes) {
+        final Class<?>[] types = constructor.getParameterTypes();
+        final int n = types.length;
+        try {
+            constructor.setAccessible(true);
+            MethodHandle h = LOOKUP.unreflectConstructor(constructor);
+
+            MethodHandle[] filters = new MethodHandle[n];
+            for (int i = 0; i < n; i++) {
+                Class<?> type = types[i];
+                MethodHandle getter = PRIMITIVE_GETTERS.get(type);
+                if (getter != null) {
+                    filters[i] = MethodHandles.insertArguments(getter, 1, columns[i]);
+                }
+                else {
+                    JdbcValueGetter<?> valueGetter = JdbcValueGetters.of(jdbcTypes[i], type);
+                    filters[i] = MethodHandles.insertArguments(GET_VALUE.bindTo(valueGetter), 1, columns[i])
+                                              .asType(methodType(type, ResultSet.class));
+                }
+            }
+
+            // (ResultSet, ResultSet, ...)R -> (ResultSet)Object
+            h = MethodHandles.filterArguments(h, 0, filters);
+            h = MethodHandles.permuteArguments(h, methodType(h.type().returnType(), ResultSet.class), new int[n]);
+            return h.asType(methodType(Object.class, ResultSet.class));
+        }
+        catch (IllegalAccessException | InaccessibleObjectException e) {
+            throw new UnexpectedReflectionException("Failed to analyze class " + constructor.getDeclaringClass().getName(), e);
+        }
+    }
+
+}
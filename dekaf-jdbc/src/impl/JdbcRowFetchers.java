@@ -1,6 +1,7 @@
 package org.jetbrains.dekaf.jdbc.impl;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.dekaf.inter.exceptions.UnexpectedDBException;
 import org.jetbrains.dekaf.inter.exceptions.UnexpectedReflectionException;
 import org.jetbrains.dekaf.jdbc.utils.NameAndClass;
@@ -258,7 +259,11 @@ public class JdbcRowFetchers {
     private final Constructor<S> structConstructor;
     private final Field[] fields;
 
-    private boolean myRequiresInit = true;
+    /**
+     * Reader made of method handles, or null when only reflection can be used.
+     */
+    @Nullable
+    private JdbcStructReaders.StructReader<S> reader = null;
 
 
     public StructFetcher(@NotNull final Class<S> structClass,
@@ -291,6 +296,20 @@ public class JdbcRowFetchers {
 
     @Override
     S fetchRow(@NotNull final ResultSet rset) throws SQLException {
+      if (myRequiresInit) {
+        initGetters(rset.getMetaData());
+        reader = JdbcStructReaders.readerFor(structClass, structConstructor, fields, columnIndices, getters);
+      }
+
+      final JdbcStructReaders.StructReader<S> reader = this.reader;
+      if (reader != null) return reader.read(rset);
+      return fetchRowByReflection(rset);
+    }
+
+    /**
+     * Fetches the row through reflection, when method handles cannot be used for the struct.
+     */
+    S fetchRowByReflection(@NotNull final ResultSet rset) throws SQLException {
       if (myRequiresInit) initGetters(rset.getMetaData());
 
       try {
@@ -1,42 +1,65 @@
 package org.jetbrains.dekaf.jdbc.impl;
 
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.dekaf.inter.common.ParamDef;
 import org.jetbrains.dekaf.inter.common.ParamType;
 import org.jetbrains.dekaf.inter.common.StatementCategory;
+import org.jetbrains.dekaf.inter.exceptions.DBFetchingException;
 import org.jetbrains.dekaf.inter.exceptions.DBPreparingException;
+import org.jetbrains.dekaf.inter.exceptions.DBQueryCancelledException;
 import org.jetbrains.dekaf.inter.exceptions.UnexpectedDBException;
 import org.jetbrains.dekaf.inter.intf.InterSeance;
 
+import java.lang.reflect.Constructor;
+import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.jetbrains.dekaf.inter.common.StatementCategory.stmtQuery;
 import static org.jetbrains.dekaf.inter.common.StatementCategory.stmtSimple;
-import static org.jetbrains.dekaf.jdbc.impl.JdbcParametersHandler.assignNull;
-import static org.jetbrains.dekaf.jdbc.impl.JdbcParametersHandler.assignValueByItsType;
+import static org.jetbrains.dekaf.jdbc.impl.JdbcParametersHandler.*;
 
 
 
 public class JdbcSeance implements InterSeance {
 
+    static final int DEFAULT_PORTION_SIZE = 1000;
+
     @NotNull
     protected final JdbcSession session;
 
     protected PreparedStatement stmt = null;
 
+    @Nullable
+    private JdbcStatementCache.Key stmtKey = null;
+
     @NotNull
     protected StatementCategory category = stmtSimple;
 
     @Nullable
     protected String statementText = null;
 
-    protected int portionSize = 1000;
+    protected int portionSize = DEFAULT_PORTION_SIZE;
+
+    /**
+     * Whether the portion size is set explicitly, so the fetch tuner should not change it.
+     */
+    private boolean portionSizeFixed = false;
 
     @Nullable
     protected ParamDef[] paramsDefs = null;
@@ -45,6 +68,18 @@ public class JdbcSeance implements InterSeance {
     protected boolean hasOutParams = false;
     protected int     paramCount   = 0;
 
+    /**
+     * Binders of the input parameters, compiled from {@link #paramsDefs};
+     * null when the parameters are not defined.
+     */
+    @Nullable
+    private JdbcParamBinder[] binders = null;
+
+    /**
+     * JDBC indices of the input parameters, parallel to {@link #binders}.
+     */
+    private int @Nullable [] binderIndices = null;
+
     protected int affectedRows = 0;
 
     @Nullable
@@ -52,8 +87,44 @@ public class JdbcSeance implements InterSeance {
 
     private boolean closed = false;
 
+    /**
+     * Execution timeout in milliseconds, or 0 when executions are not limited.
+     */
+    private volatile long timeout = 0L;
+
+    /**
+     * The statement that {@link #cancel()} cancels; it's accessed from other threads.
+     */
+    @Nullable
+    private volatile Statement cancellable = null;
+
+    private volatile boolean cancelled = false;
+    private volatile boolean timedOut = false;
+
+    /**
+     * Token of the execution the watchdog watches, or 0 when nothing is watched.
+     * Either the watchdog (see {@link #timeIsOut(long)}) or the completed execution
+     * (see {@link #stopWatching(ScheduledFuture)}) takes it, so a late watchdog doesn't touch the next execution.
+     */
+    private final AtomicLong watchedExecution = new AtomicLong(0L);
+
+    /**
+     * Counter of the watched executions, for making their tokens.
+     */
+    private long watchCounter = 0L;
+
+    /**
+     * Whether the query timeout of the statement was set, so it should be reset before reusing the statement.
+     */
+    private boolean queryTimeoutApplied = false;
+
     private final Collection<JdbcBaseCursor> cursors = new ArrayList<>();
 
+    /**
+     * Companions of the current execution, see {@link #attach(AutoCloseable)}.
+     */
+    private final Collection<AutoCloseable> companions = new ArrayList<>();
+
 
     protected JdbcSeance(final @NotNull JdbcSession session) {
         this.session = session;
@@ -63,6 +134,7 @@ public class JdbcSeance implements InterSeance {
     public void setPortionSize(final int portionSize) {
         if (portionSize < 1) throw new IllegalArgumentException("Wrong portion size: " + portionSize);
         this.portionSize = portionSize;
+        this.portionSizeFixed = true;
     }
 
     @Override
@@ -70,11 +142,13 @@ public class JdbcSeance implements InterSeance {
                         final @NotNull StatementCategory category,
                         final /*@NotNull*/ ParamDef @Nullable [] paramDefs) {
         checkNotClosed();
+        if (stmt != null) releaseStatement();
 
         this.category = category;
         this.statementText = statementText;
         
         this.paramsDefs = paramDefs;
+        hasInParams = hasOutParams = false;
         if (paramDefs != null) {
             paramCount = paramDefs.length;
             for (int i = 0; i < paramCount; i++) {
@@ -86,18 +160,67 @@ public class JdbcSeance implements InterSeance {
             }
         }
         else {
-            hasInParams = hasOutParams = false;
             paramCount = 0;
         }
+        compileBinders(paramDefs);
 
+        stmtKey = new JdbcStatementCache.Key(statementText, category, hasOutParams);
         stmt = makeStatement(statementText);
+        cancellable = stmt;
+        if (hasOutParams) registerOutParams();
+    }
+
+    private void registerOutParams() {
+        final CallableStatement call = (CallableStatement) stmt;
+        //noinspection ConstantConditions
+        for (int i = 0; i < paramCount; i++) {
+            ParamDef p = paramsDefs[i];
+            if (!p.direction.isOut) continue;
+            try {
+                call.registerOutParameter(i + 1, outParamSqlType(p));
+            }
+            catch (SQLException sqle) {
+                throw new DBPreparingException("Failed to register the output parameter " + (i + 1) + ": " + sqle.getMessage(), sqle, statementText);
+            }
+        }
+    }
+
+    /**
+     * The JDBC type to register the output parameter with.
+     * Dialect-specific seances can override it (for example, for vendor-specific cursor types).
+     * @param paramDef the output parameter.
+     * @return the JDBC type, see {@link Types}.
+     */
+    protected int outParamSqlType(final @NotNull ParamDef paramDef) {
+        return paramDef.type != null ? JdbcParamBinders.of(paramDef.type).sqlType : Types.OTHER;
+    }
+
+    private void compileBinders(final /*@NotNull*/ ParamDef @Nullable [] paramDefs) {
+        if (paramDefs == null || !hasInParams) {
+            binders = null;
+            binderIndices = null;
+            return;
+        }
+        int n = 0;
+        for (ParamDef p : paramDefs) if (p.direction.isIn) n++;
+        JdbcParamBinder[] b = new JdbcParamBinder[n];
+        int[] indices = new int[n];
+        for (int i = 0, k = 0; i < paramDefs.length; i++) {
+            ParamDef p = paramDefs[i];
+            if (!p.direction.isIn) continue;
+            b[k] = JdbcParamBinders.of(p.type);
+            indices[k] = i + 1;
+            k++;
+        }
+        binders = b;
+        binderIndices = indices;
     }
 
     @NotNull
     protected PreparedStatement makeStatement(final @NotNull String statementText) {
-        Connection conn = session.getConnection();
         try {
-            PreparedStatement stmt = prepareStatement(conn, statementText);
+            PreparedStatement stmt = stmtKey != null ? session.borrowStatement(stmtKey) : null;
+            if (stmt == null) stmt = prepareStatement(session.getConnection(), statementText);
             setFetchSize(stmt);
             return stmt;
         }
@@ -116,9 +239,44 @@ public class JdbcSeance implements InterSeance {
 
     protected void setFetchSize(final @NotNull PreparedStatement stmt)
             throws SQLException {
-        if (category == stmtQuery) stmt.setFetchSize(1000);
+        if (category != stmtQuery) return;
+        final JdbcFetchTuner tuner = session.facade.getFetchTuner();
+        int size = tuner != null && statementText != null ? tuner.suggestFetchSize(statementText) : 0;
+        if (size <= 0) size = portionSizeFixed ? portionSize : DEFAULT_PORTION_SIZE;
+        stmt.setFetchSize(size);
     }
 
+    /**
+     * Lets the fetch tuner choose the fetch size (and the portion size, if it's not set explicitly)
+     * for the just opened result set.
+     */
+    protected void tuneResultSet(final @NotNull ResultSet rset) {
+        final JdbcFetchTuner tuner = session.facade.getFetchTuner();
+        if (tuner == null || statementText == null) return;
+        try {
+            int size = tuner.chooseFetchSize(statementText, rset.getMetaData());
+            if (!portionSizeFixed) portionSize = size;
+            rset.setFetchSize(size);
+        }
+        catch (SQLException | RuntimeException e) {
+            // the fetch size is just a hint, the driver may not support it
+        }
+    }
+
+    /**
+     * Called by a cursor when it's closed.
+     */
+    void cursorFinished(final long rows, final long nanos, final int sampledWidth, final boolean complete) {
+        final JdbcFetchTuner tuner = session.facade.getFetchTuner();
+        if (tuner == null || statementText == null) return;
+        tuner.observe(statementText, rows, nanos, sampledWidth, complete);
+    }
+
+
+    @Nullable @ApiStatus.Internal
+    public PreparedStatement getStatement() {
+        return stmt;
+    }
 
     @Override
     public boolean isPrepared() {
@@ -130,11 +288,61 @@ public class JdbcSeance implements InterSeance {
         checkPrepared();
 
         affectedRows = 0;
-        rset = null;
+        closeCursors();
 
         if (paramValues != null) assignParams(paramValues);
 
+        performExecution();
+    }
+
+    /**
+     * Executes the prepared statement with one parameter of primitive int, without boxing it.
+     * @param paramValue the value of the first input parameter.
+     */
+    @Override
+    public void execute(final int paramValue) {
+        checkPrepared();
+        affectedRows = 0;
+        closeCursors();
+        checkOneInParam();
+        final JdbcParamBinder[] binders = this.binders;
+        if (binders != null) assignInt(stmt, binderIndices[0], binders[0], paramValue);
+        else assignInt(stmt, 1, JdbcParamBinders.of(null), paramValue);
+        performExecution();
+    }
+
+    /**
+     * Executes the prepared statement with one parameter of primitive long, without boxing it.
+     * @param paramValue the value of the first input parameter.
+     */
+    @Override
+    public void execute(final long paramValue) {
+        checkPrepared();
+        affectedRows = 0;
+        closeCursors();
+        checkOneInParam();
+        final JdbcParamBinder[] binders = this.binders;
+        if (binders != null) assignLong(stmt, binderIndices[0], binders[0], paramValue);
+        else assignLong(stmt, 1, JdbcParamBinders.of(null), paramValue);
+        performExecution();
+    }
+
+    /**
+     * Checks that one value is enough for the input parameters:
+     * either there is exactly one input parameter, or parameters are not defined at all.
+     */
+    private void checkOneInParam() {
+        final int n = binders != null ? binders.length : 0;
+        if (n == 1 || n == 0 && paramsDefs == null) return;
+        throw new IllegalStateException("One parameter value is given, but the statement has " + n + " input parameters");
+    }
+
+    private void performExecution() {
+        session.statementPerformed();
+        ScheduledFuture<?> watch = null;
         try {
+            checkNotCancelled();
+            watch = startWatching();
             switch (category) {
                 case stmtSimple:
                     executeSimple();
@@ -148,41 +356,214 @@ public class JdbcSeance implements InterSeance {
             }
         }
         catch (SQLException sqle) {
-            throw new UnexpectedDBException(sqle, statementText);
+            throw executionException(sqle);
+        }
+        catch (DBQueryCancelledException e) {
+            throw e;
         }
         catch (Exception e) {
             throw new UnexpectedDBException("Failed to execute the statement", e, statementText);
         }
+        finally {
+            stopWatching(watch);
+        }
+    }
+
+    @Override
+    public void setTimeout(final long timeout) {
+        if (timeout < 0) throw new IllegalArgumentException("Wrong timeout: " + timeout);
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        final Statement s = cancellable;
+        if (s != null) {
+            try {
+                s.cancel();
+            }
+            catch (SQLException | RuntimeException e) {
+                // the statement could be already completed or closed
+            }
+        }
+    }
+
+    /**
+     * Called by the watchdog when the execution is longer than the timeout.
+     * @param token token of the watched execution; when that execution is already completed, does nothing.
+     */
+    void timeIsOut(final long token) {
+        if (!watchedExecution.compareAndSet(token, 0L)) return;
+        timedOut = true;
+        cancel();
+    }
+
+    /**
+     * Fails when the seance was cancelled before the execution started;
+     * the cancellation is cleared when the execution completes.
+     */
+    private void checkNotCancelled() {
+        if (cancelled) throw new DBQueryCancelledException("The statement is cancelled before its execution", statementText);
+    }
+
+    /**
+     * Applies the timeout to the statement and schedules the watchdog.
+     * @return the scheduled watchdog task, or null when there's no timeout.
+     */
+    @Nullable
+    private ScheduledFuture<?> startWatching() throws SQLException {
+        timedOut = false;
+        final long t = timeout;
+        if (t > 0) {
+            stmt.setQueryTimeout((int) Math.min((t + 999) / 1000, Integer.MAX_VALUE));
+            queryTimeoutApplied = true;
+            final long token = ++watchCounter;
+            watchedExecution.set(token);
+            return JdbcWatchdog.watch(this, token, t);
+        }
+        else {
+            if (queryTimeoutApplied) {
+                stmt.setQueryTimeout(0);
+                queryTimeoutApplied = false;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Stops watching the completed execution and clears the cancellation.
+     * When the watchdog is already cancelling the execution, waits for it,
+     * so the cancellation doesn't come to the next execution.
+     */
+    private void stopWatching(final @Nullable ScheduledFuture<?> watch) {
+        if (watch != null) {
+            if (watchedExecution.compareAndSet(watchCounter, 0L)) {
+                watch.cancel(false);
+            }
+            else {
+                try {
+                    watch.get();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                catch (ExecutionException | CancellationException e) {
+                    // the watchdog has done what it could
+                }
+            }
+        }
+        cancelled = false;
+    }
+
+    @NotNull
+    private RuntimeException executionException(final @NotNull SQLException sqle) {
+        if (timedOut || sqle instanceof SQLTimeoutException)
+            return new DBQueryCancelledException("The statement is cancelled: its time (" + timeout + " ms) is out", sqle, statementText);
+        if (cancelled)
+            return new DBQueryCancelledException("The statement is cancelled", sqle, statementText);
+        return new UnexpectedDBException(sqle, statementText);
+    }
+
+    @Override
+    public int @NotNull [] executeBatch(final @NotNull Iterable<? extends Iterable<?>> rows,
+                                        final int flushEvery) {
+        checkPrepared();
+        if (flushEvery < 1) throw new IllegalArgumentException("Wrong flush size: " + flushEvery);
+        if (category == stmtQuery) throw new IllegalStateException("Cannot execute a query in batch mode");
+
+        affectedRows = 0;
+        closeCursors();
+
+        int[] counts = new int[Math.min(flushEvery, 1024)];
+        int total = 0;
+        int pending = 0;
+
+        session.statementPerformed();
+
+        ScheduledFuture<?> watch = null;
+        try {
+            checkNotCancelled();
+            watch = startWatching();
+            for (Iterable<?> paramValues : rows) {
+                assignParams(paramValues);
+                stmt.addBatch();
+                pending++;
+                if (pending >= flushEvery) {
+                    int[] batchCounts = stmt.executeBatch();
+                    counts = appendBatchCounts(counts, total, batchCounts);
+                    total += batchCounts.length;
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                int[] batchCounts = stmt.executeBatch();
+                counts = appendBatchCounts(counts, total, batchCounts);
+                total += batchCounts.length;
+            }
+        }
+        catch (SQLException sqle) {
+            clearBatch();
+            throw executionException(sqle);
+        }
+        catch (RuntimeException e) {
+            clearBatch();
+            throw e;
+        }
+        finally {
+            stopWatching(watch);
+        }
+
+        for (int i = 0; i < total; i++) if (counts[i] > 0) affectedRows += counts[i];
+        return counts.length == total ? counts : Arrays.copyOf(counts, total);
+    }
+
+    private static int[] appendBatchCounts(int[] counts, final int offset, final int[] batchCounts) {
+        int n = batchCounts.length;
+        int need = offset + n;
+        if (need > counts.length) {
+            int len = counts.length;
+            int newSize = Math.max(need, len <= 4096 ? len << 1 : len + (len >> 1));
+            counts = Arrays.copyOf(counts, newSize);
+        }
+        System.arraycopy(batchCounts, 0, counts, offset, n);
+        return counts;
+    }
+
+    private void clearBatch() {
+        try {
+            stmt.clearBatch();
+        }
+        catch (SQLException e) {
+            // the original exception is more important
+        }
     }
 
     protected void assignParams(final @NotNull Iterable<?> paramValues)
     {
-        if (paramsDefs != null) assignTypedParams(paramValues);
-        else assignSimpleParams(paramValues);
+        if (binders != null) assignBoundParams(paramValues);
+        else if (paramsDefs == null) assignSimpleParams(paramValues);
     }
 
-    private void assignSimpleParams(final @NotNull Iterable<?> paramValues) {
-        int index = 0;
+    private void assignBoundParams(final @NotNull Iterable<?> paramValues) {
+        final JdbcParamBinder[] binders = this.binders;
+        final int[] indices = this.binderIndices;
+        //noinspection ConstantConditions
+        final int n = binders.length;
+        int k = 0;
         for (Object value : paramValues) {
-            index++;
-            assignParam(index, null, value);
+            if (k >= n) break;
+            //noinspection ConstantConditions
+            assignValue(stmt, indices[k], binders[k], value);
+            k++;
         }
     }
 
-    private void assignTypedParams(final @NotNull Iterable<?> paramValues) {
-        //noinspection ConstantConditions
-        int n = paramsDefs.length;
-        int k = 0;
+    private void assignSimpleParams(final @NotNull Iterable<?> paramValues) {
+        int index = 0;
         for (Object value : paramValues) {
-            ParamDef p = null;
-            while (k < n) {
-                p = paramsDefs[k++];
-                assert p != null;
-                if (p.direction.isIn) break;
-            }
-            if (p == null || k >= n) break;
-            int index = k /* already incremented */;
-            assignParam(index, p.type, value);
+            index++;
+            assignParam(index, null, value);
         }
     }
 
@@ -205,8 +586,7 @@ public class JdbcSeance implements InterSeance {
     protected void assignTypedParam(final int index,
                                     final @NotNull ParamType type,
                                     final @NotNull Object value) {
-        // TODO use type
-        assignValueByItsType(stmt, index, value);
+        assignValue(stmt, index, JdbcParamBinders.of(type), value);
     }
 
     protected void assignSimpleNull(final int index) {
@@ -214,8 +594,7 @@ public class JdbcSeance implements InterSeance {
     }
 
     protected void assignTypedNull(final int index, final @NotNull ParamType type) {
-        // TODO use type
-        assignNull(stmt, index);
+        assignValue(stmt, index, JdbcParamBinders.of(type), null);
     }
 
     protected void executeSimple()
@@ -233,7 +612,32 @@ public class JdbcSeance implements InterSeance {
     protected void executeQuery()
             throws SQLException
     {
-        rset = stmt.executeQuery();
+        if (hasOutParams) {
+            // a call can return result sets through output parameters only
+            if (stmt.execute()) rset = stmt.getResultSet();
+            else affectedRows = Math.max(stmt.getUpdateCount(), 0);
+        }
+        else {
+            rset = stmt.executeQuery();
+        }
+    }
+
+    @Override
+    public boolean nextResult() {
+        checkPrepared();
+        rset = null;
+        try {
+            while (true) {
+                if (stmt.getMoreResults()) {
+                    rset = stmt.getResultSet();
+                    return rset != null;
+                }
+                if (stmt.getUpdateCount() == -1) return false;
+            }
+        }
+        catch (SQLException sqle) {
+            throw new DBFetchingException("Failed to get the next result set: " + sqle.getMessage(), sqle, statementText);
+        }
     }
 
     public int getAffectedRows() {
@@ -259,6 +663,26 @@ public class JdbcSeance implements InterSeance {
         return cursor;
     }
 
+    @Override @NotNull
+    public JdbcColumnarCursor makeColumnarCursor(final int parameter) {
+        ResultSet rset   = getResultSet(parameter);
+        JdbcColumnarCursor cursor =
+                session.facade.factory.createColumnarCursor(this, rset);
+        cursors.add(cursor);
+        return cursor;
+    }
+
+    @Override @NotNull
+    public <R> JdbcRowCursor<R> makeRowCursor(final int parameter,
+                                              final @NotNull Constructor<R> constructor,
+                                              final /*@NotNull*/ String @Nullable [] columnNames) {
+        ResultSet rset   = getResultSet(parameter);
+        JdbcRowCursor<R> cursor =
+                session.facade.factory.createRowCursor(this, rset, constructor, columnNames);
+        cursors.add(cursor);
+        return cursor;
+    }
+
     @Override @NotNull
     public JdbcIntsCursor makeIntsCursor(final int parameter) {
         ResultSet rset   = getResultSet(parameter);
@@ -277,21 +701,117 @@ public class JdbcSeance implements InterSeance {
         return cursor;
     }
 
+    @Override @NotNull
+    public JdbcShortsCursor makeShortsCursor(final int parameter) {
+        ResultSet rset   = getResultSet(parameter);
+        JdbcShortsCursor cursor =
+                session.facade.factory.createShortsCursor(this, rset);
+        cursors.add(cursor);
+        return cursor;
+    }
+
+    @Override @NotNull
+    public JdbcFloatsCursor makeFloatsCursor(final int parameter) {
+        ResultSet rset   = getResultSet(parameter);
+        JdbcFloatsCursor cursor =
+                session.facade.factory.createFloatsCursor(this, rset);
+        cursors.add(cursor);
+        return cursor;
+    }
+
+    @Override @NotNull
+    public JdbcDoublesCursor makeDoublesCursor(final int parameter) {
+        ResultSet rset   = getResultSet(parameter);
+        JdbcDoublesCursor cursor =
+                session.facade.factory.createDoublesCursor(this, rset);
+        cursors.add(cursor);
+        return cursor;
+    }
+
+    @Override @NotNull
+    public JdbcBooleansCursor makeBooleansCursor(final int parameter) {
+        ResultSet rset   = getResultSet(parameter);
+        JdbcBooleansCursor cursor =
+                session.facade.factory.createBooleansCursor(this, rset);
+        cursors.add(cursor);
+        return cursor;
+    }
+
     @NotNull
     protected ResultSet getResultSet(final int parameter) {
         checkPrepared();
+        final ResultSet rs;
         if (parameter == 0) {
-            if (rset != null) return rset;
+            if (rset != null) rs = rset;
             else throw new IllegalStateException("No primary result set");
         }
         else {
-            throw new RuntimeException("Not implemented yet: getting result set from a parameter");
+            rs = getOutResultSet(parameter);
         }
+        tuneResultSet(rs);
+        return rs;
+    }
+
+    @NotNull
+    private ResultSet getOutResultSet(final int parameter) {
+        final ParamDef[] defs = this.paramsDefs;
+        if (!hasOutParams || defs == null || parameter < 1 || parameter > defs.length || !defs[parameter-1].direction.isOut)
+            throw new IllegalArgumentException("Parameter " + parameter + " is not an output parameter");
+        final CallableStatement call = (CallableStatement) stmt;
+        Object result;
+        try {
+            try {
+                result = call.getObject(parameter, ResultSet.class);
+            }
+            catch (SQLFeatureNotSupportedException | AbstractMethodError e) {
+                result = call.getObject(parameter);
+            }
+        }
+        catch (SQLException sqle) {
+            throw new DBFetchingException("Failed to get the cursor of parameter " + parameter + ": " + sqle.getMessage(), sqle, statementText);
+        }
+        if (result instanceof ResultSet) return (ResultSet) result;
+        else if (result == null) throw new IllegalStateException("Parameter " + parameter + " returned no cursor");
+        else throw new IllegalStateException("Parameter " + parameter + " returned " + result.getClass().getName() + " instead of a cursor");
     }
 
 
     @Override
     public void close() {
+        closeCursors();
+        if (stmt != null) releaseStatement();
+        
+        closed = true;
+        session.seanceJustClosed(this);
+        paramsDefs = null;
+        binders = null;
+        binderIndices = null;
+    }
+
+    @Override
+    public void attach(final @NotNull AutoCloseable companion) {
+        companions.add(companion);
+    }
+
+    private void closeCompanions() {
+        if (companions.isEmpty()) return;
+        for (AutoCloseable companion : companions) {
+            try {
+                companion.close();
+            }
+            catch (Exception e) {
+                // the cursors are closed anyway
+            }
+        }
+        companions.clear();
+    }
+
+    /**
+     * Closes the cursors and the result set of the previous execution.
+     */
+    private void closeCursors() {
+        closeCompanions();
+
         for (JdbcBaseCursor cursor : cursors) {
             cursor.close();
             if (rset == cursor.rset) rset = null;
@@ -302,14 +822,27 @@ public class JdbcSeance implements InterSeance {
             JdbcUtil.close(rset);
             rset = null;
         }
-        if (stmt != null) {
-            JdbcUtil.close(stmt);
-            stmt = null;
+    }
+
+    private void releaseStatement() {
+        closeCursors();
+        final PreparedStatement stmt = this.stmt;
+        JdbcStatementCache.Key key = this.stmtKey;
+        this.stmt = null;
+        this.stmtKey = null;
+        this.cancellable = null;
+        if (queryTimeoutApplied) {
+            queryTimeoutApplied = false;
+            try {
+                stmt.setQueryTimeout(0);
+            }
+            catch (SQLException e) {
+                // the statement will be closed
+                key = null;
+            }
         }
-        
-        closed = true;
-        session.seanceJustClosed(this);
-        paramsDefs = null;
+        if (key != null) session.releaseStatement(key, stmt);
+        else JdbcUtil.close(stmt);
     }
 
     @Override
@@ -1,8 +1,10 @@
 package org.jetbrains.dekaf.jdbc.impl;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.dekaf.inter.intf.InterServiceFactory;
 
+import java.lang.reflect.Constructor;
 import java.sql.ResultSet;
 
 
@@ -39,6 +41,20 @@ public class JdbcServiceFactory implements InterServiceFactory {
         return new JdbcColumnCursor<>(seance, rset, cellClass);
     }
 
+    @NotNull
+    public JdbcColumnarCursor createColumnarCursor(final @NotNull JdbcSeance seance,
+                                                   final @NotNull ResultSet rset) {
+        return new JdbcColumnarCursor(seance, rset);
+    }
+
+    @NotNull
+    public <R> JdbcRowCursor<R> createRowCursor(final @NotNull JdbcSeance seance,
+                                                final @NotNull ResultSet rset,
+                                                final @NotNull Constructor<R> constructor,
+                                                final /*@NotNull*/ String @Nullable [] columnNames) {
+        return new JdbcRowCursor<>(seance, rset, constructor, columnNames);
+    }
+
     @NotNull
     public JdbcIntsCursor createIntsCursor(final @NotNull JdbcSeance seance,
                                            final @NotNull ResultSet rset) {
@@ -51,4 +67,28 @@ public class JdbcServiceFactory implements InterServiceFactory {
         return new JdbcLongsCursor(seance, rset);
     }
 
+    @NotNull
+    public JdbcShortsCursor createShortsCursor(final @NotNull JdbcSeance seance,
+                                               final @NotNull ResultSet rset) {
+        return new JdbcShortsCursor(seance, rset);
+    }
+
+    @NotNull
+    public JdbcFloatsCursor createFloatsCursor(final @NotNull JdbcSeance seance,
+                                               final @NotNull ResultSet rset) {
+        return new JdbcFloatsCursor(seance, rset);
+    }
+
+    @NotNull
+    public JdbcDoublesCursor createDoublesCursor(final @NotNull JdbcSeance seance,
+                                                 final @NotNull ResultSet rset) {
+        return new JdbcDoublesCursor(seance, rset);
+    }
+
+    @NotNull
+    public JdbcBooleansCursor createBooleansCursor(final @NotNull JdbcSeance seance,
+                                                   final @NotNull ResultSet rset) {
+        return new JdbcBooleansCursor(seance, rset);
+    }
+
 }
@@ -7,6 +7,7 @@ import org.jetbrains.dekaf.inter.exceptions.*;
 import org.jetbrains.dekaf.inter.intf.InterSession;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -25,10 +26,21 @@ public class JdbcSession implements InterSession {
     @Nullable
     private Connection connection;
 
+    @Nullable
+    private JdbcStatementCache statementCache;
+
     private boolean autoCommit = false;
     private boolean inTransaction = false;
     private boolean closed = false;
 
+    /**
+     * Whether a statement was performed since the last commit or rollback
+     * while the auto-commit mode was off.
+     */
+    private volatile boolean dirty = false;
+
+    private long avoidedRoundTrips = 0L;
+
 
     protected JdbcSession(@NotNull final JdbcFacade facade) {
         this.facade = facade;
@@ -38,6 +50,9 @@ public class JdbcSession implements InterSession {
         this.connection = connection;
         this.closed = false;
         this.inTransaction = false;
+        this.dirty = false;
+        int cacheSize = facade.getStatementCacheSize();
+        this.statementCache = cacheSize > 0 ? new JdbcStatementCache(cacheSize) : null;
         updateAutocommitFlag(connection);
     }
 
@@ -47,6 +62,27 @@ public class JdbcSession implements InterSession {
         else throw new IllegalStateException(closed ? "Session is closed" : "Session is not initialized");
     }
 
+    /**
+     * The prepared statement cache of this session.
+     * @return the cache, or null when statements are not cached.
+     */
+    @Nullable
+    public JdbcStatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    @Nullable
+    PreparedStatement borrowStatement(final @NotNull JdbcStatementCache.Key key) {
+        final JdbcStatementCache cache = this.statementCache;
+        return cache != null ? cache.borrow(key) : null;
+    }
+
+    void releaseStatement(final @NotNull JdbcStatementCache.Key key, final @NotNull PreparedStatement stmt) {
+        final JdbcStatementCache cache = this.statementCache;
+        if (cache != null && !closed) cache.release(key, stmt);
+        else JdbcUtil.close(stmt);
+    }
+
     private void updateAutocommitFlag(@NotNull Connection connection) {
         try {
             this.autoCommit = connection.getAutoCommit();
@@ -60,6 +96,7 @@ public class JdbcSession implements InterSession {
         try {
             getConnection().setAutoCommit(ac);
             autoCommit = ac;
+            if (ac) dirty = false; // turning auto-commit on commits the pending changes
         }
         catch (SQLException e) {
             String s1 = ac ? "ON" : "OFF";
@@ -84,6 +121,7 @@ public class JdbcSession implements InterSession {
     @Override
     public void perform(@NotNull final String statementText) {
         Statement statement = createSimpleStatement();
+        statementPerformed();
         try {
             boolean gotResultSet =
                     statement.execute(statementText);
@@ -121,11 +159,29 @@ public class JdbcSession implements InterSession {
         inTransaction = true;
     }
 
+    /**
+     * Marks that the session may have uncommitted changes.
+     */
+    void statementPerformed() {
+        if (!autoCommit) dirty = true;
+    }
+
+    private void roundTripAvoided() {
+        avoidedRoundTrips++;
+        facade.roundTripAvoided();
+    }
+
     @Override
     public void commit() {
+        if (!dirty) {
+            inTransaction = false;
+            roundTripAvoided();
+            return;
+        }
         try {
             getConnection().commit();
             inTransaction = false;
+            dirty = false;
         }
         catch (SQLException e) {
             throw new DBConnectionException("The connection is broken: " + e.getMessage(), e, null);
@@ -136,7 +192,10 @@ public class JdbcSession implements InterSession {
     public void rollback() {
         final Connection conn = this.connection;
         if (conn != null) {
-            try {
+            if (!dirty) {
+                roundTripAvoided();
+            }
+            else try {
                 conn.rollback();
             }
             catch (SQLException e) {
@@ -144,6 +203,7 @@ public class JdbcSession implements InterSession {
             }
         }
         inTransaction = false;
+        dirty = false;
     }
 
     @Override
@@ -155,6 +215,21 @@ public class JdbcSession implements InterSession {
         return autoCommit;
     }
 
+    /**
+     * Whether a statement was performed since the last commit or rollback,
+     * so the session may have uncommitted changes.
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * How many commits and rollbacks were skipped because there was nothing to commit or roll back.
+     */
+    public long getAvoidedRoundTrips() {
+        return avoidedRoundTrips;
+    }
+
     @Override
     public @NotNull JdbcSeance openSeance() {
         if (!inTransaction && !autoCommit) setAutocommitMode(true);
@@ -169,6 +244,7 @@ public class JdbcSession implements InterSession {
     public void close() {
         if (closed) return;
         closeAllSeances();
+        if (statementCache != null) statementCache.clear();
         if (inTransaction) rollback();
 
         final Connection conn = this.connection;
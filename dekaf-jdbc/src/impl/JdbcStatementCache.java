@@ -0,0 +1,159 @@
+package org.jetbrains.dekaf.jdbc.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.dekaf.inter.common.StatementCategory;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+
+
+/**
+ * LRU cache of idle prepared statements of one session.
+ *
+ * A seance borrows a statement from the cache (removing it from there)
+ * and returns it back when closes, so one statement is never used by two seances at once.
+ */
+public final class JdbcStatementCache {
+
+    //// INTERNAL STRUCTURES \\\\
+
+    static final class Key {
+        @NotNull final String            text;
+        @NotNull final StatementCategory category;
+        final          boolean           callable;
+
+        Key(final @NotNull String text, final @NotNull StatementCategory category, final boolean callable) {
+            this.text = text;
+            this.category = category;
+            this.callable = callable;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key that = (Key) o;
+            return this.callable == that.callable &&
+                   this.category == that.category &&
+                   this.text.equals(that.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(text, category, callable);
+        }
+    }
+
+
+    //// STATE \\\\
+
+    private final int capacity;
+
+    @NotNull
+    private final LinkedHashMap<Key, PreparedStatement> statements;
+
+    private long hits      = 0L;
+    private long misses    = 0L;
+    private long evictions = 0L;
+
+
+    JdbcStatementCache(final int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Wrong statement cache capacity: " + capacity);
+        this.capacity = capacity;
+        this.statements = new LinkedHashMap<>(Math.min(capacity, 64) * 2, 0.75f, true);
+    }
+
+
+    //// BORROWING \\\\
+
+    /**
+     * Takes an idle statement from the cache.
+     * @return the statement, or null when the cache has no idle statement with such key.
+     */
+    @Nullable
+    synchronized PreparedStatement borrow(final @NotNull Key key) {
+        PreparedStatement stmt = statements.remove(key);
+        if (stmt != null) hits++;
+        else misses++;
+        return stmt;
+    }
+
+    /**
+     * Returns the statement back to the cache, or closes it when it cannot be reused.
+     */
+    void release(final @NotNull Key key, final @NotNull PreparedStatement stmt) {
+        try {
+            stmt.clearParameters();
+        }
+        catch (SQLException e) {
+            JdbcUtil.close(stmt);
+            return;
+        }
+
+        PreparedStatement displaced;
+        ArrayList<PreparedStatement> evicted = null;
+        synchronized (this) {
+            displaced = statements.put(key, stmt);
+            if (statements.size() > capacity) {
+                evicted = new ArrayList<>(statements.size() - capacity);
+                Iterator<PreparedStatement> it = statements.values().iterator();
+                while (statements.size() > capacity && it.hasNext()) {
+                    evicted.add(it.next());
+                    it.remove();
+                    evictions++;
+                }
+            }
+        }
+
+        if (displaced != null && displaced != stmt) JdbcUtil.close(displaced);
+        if (evicted != null) for (PreparedStatement e : evicted) JdbcUtil.close(e);
+    }
+
+    /**
+     * Closes all idle statements.
+     */
+    void clear() {
+        PreparedStatement[] statementsToClose;
+        synchronized (this) {
+            statementsToClose = statements.values().toArray(new PreparedStatement[0]);
+            statements.clear();
+        }
+        for (PreparedStatement stmt : statementsToClose) JdbcUtil.close(stmt);
+    }
+
+
+    //// DIAGNOSTICS \\\\
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int getSize() {
+        return statements.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "JdbcStatementCache{size=" + statements.size() + "/" + capacity +
+               ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + '}';
+    }
+
+}
@@ -0,0 +1,314 @@
+package org.jetbrains.dekaf.jdbc.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.dekaf.inter.exceptions.UnexpectedReflectionException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+
+/**
+ * Makes struct readers that create a struct and fill its fields through method handles,
+ * getting primitive values from the result set without boxing.
+ * <p>
+ * Readers are cached per struct class and column layout.
+ * </p>
+ *
+ * @see JdbcRowFetchers.StructFetcher
+ */
+final class JdbcStructReaders {
+
+
+  //// INTERFACE \\\\
+
+  static abstract class StructReader<S> {
+
+    abstract S read(@NotNull final ResultSet rset) throws SQLException;
+
+  }
+
+
+  /**
+   * Provides a reader for the given struct and column layout.
+   * @return the reader, or null when method handles cannot be used for this struct
+   *         (so the caller should use reflection).
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  static <S> StructReader<S> readerFor(@NotNull final Class<S> structClass,
+                                       @NotNull final Constructor<S> constructor,
+                                       @Nullable final Field @NotNull [] fields,
+                                       final int @NotNull [] columnIndices,
+                                       @Nullable final JdbcValueGetter<?> @NotNull [] getters) {
+    ConcurrentHashMap<Layout, StructReader<?>> readers = CACHE.get(structClass);
+    Layout layout = new Layout(fields, columnIndices, getters);
+    StructReader<?> reader = readers.get(layout);
+    if (reader == null) {
+      reader = makeReader(constructor, fields, columnIndices, getters);
+      StructReader<?> existent = readers.putIfAbsent(layout, reader);
+      if (existent != null) reader = existent;
+    }
+    return reader != NO_READER ? (StructReader<S>) reader : null;
+  }
+
+
+  //// INTERNAL STRUCTURES \\\\
+
+  private static final class Layout {
+    @Nullable private final Field @NotNull [] fields;
+    private final int @NotNull [] columnIndices;
+    @Nullable private final JdbcValueGetter<?> @NotNull [] getters;
+
+    Layout(@Nullable final Field @NotNull [] fields,
+           final int @NotNull [] columnIndices,
+           @Nullable final JdbcValueGetter<?> @NotNull [] getters) {
+      this.fields = fields.clone();
+      this.columnIndices = columnIndices.clone();
+      this.getters = getters.clone();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Layout that = (Layout) o;
+      return Arrays.equals(this.columnIndices, that.columnIndices) &&
+             Arrays.equals(this.fields, that.fields) &&
+             Arrays.equals(this.getters, that.getters);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(columnIndices) * 31 + Arrays.hashCode(fields);
+    }
+  }
+
+
+  private static final ClassValue<ConcurrentHashMap<Layout, StructReader<?>>> CACHE =
+      new ClassValue<ConcurrentHashMap<Layout, StructReader<?>>>() {
+        @Override
+        protected ConcurrentHashMap<Layout, StructReader<?>> computeValue(final Class<?> type) {
+          return new ConcurrentHashMap<>(4);
+        }
+      };
+
+  /**
+   * Marks layouts for which method handles cannot be made.
+   */
+  private static final StructReader<?> NO_READER = new StructReader<Object>() {
+    @Override
+    Object read(@NotNull final ResultSet rset) {
+      throw new IllegalStateException();
+    }
+  };
+
+
+  //// GENERATION \\\\
+
+  @NotNull
+  private static StructReader<?> makeReader(@NotNull final Constructor<?> constructor,
+                                            @Nullable final Field @NotNull [] fields,
+                                            final int @NotNull [] columnIndices,
+                                            @Nullable final JdbcValueGetter<?> @NotNull [] getters) {
+    final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    try {
+      MethodHandle ctor = lookup.unreflectConstructor(constructor)
+                                .asType(MethodType.methodType(Object.class));
+      ArrayList<ColumnBinder> binders = new ArrayList<>(fields.length);
+      for (int i = 0, n = columnIndices.length; i < n; i++) {
+        int columnIndex = columnIndices[i];
+        Field f = fields[i];
+        JdbcValueGetter<?> g = getters[i];
+        if (columnIndex <= 0 || f == null || g == null) continue;
+        binders.add(makeBinder(lookup, f, columnIndex, g));
+      }
+      return new HandlesReader<>(constructor.getDeclaringClass(), ctor, binders.toArray(new ColumnBinder[0]));
+    }
+    catch (IllegalAccessException | RuntimeException e) {
+      return NO_READER;
+    }
+  }
+
+  @NotNull
+  private static ColumnBinder makeBinder(@NotNull final MethodHandles.Lookup lookup,
+                                         @NotNull final Field field,
+                                         final int columnIndex,
+                                         @NotNull final JdbcValueGetter<?> getter)
+      throws IllegalAccessException
+  {
+    final MethodHandle setter = lookup.unreflectSetter(field);
+    final Class<?> type = field.getType();
+    if (type == int.class && getter == JdbcValueGetters.IntGetter.INSTANCE)
+      return new IntBinder(columnIndex, adapt(setter, int.class));
+    if (type == long.class && getter == JdbcValueGetters.LongGetter.INSTANCE)
+      return new LongBinder(columnIndex, adapt(setter, long.class));
+    if (type == short.class && getter == JdbcValueGetters.ShortGetter.INSTANCE)
+      return new ShortBinder(columnIndex, adapt(setter, short.class));
+    if (type == byte.class && getter == JdbcValueGetters.ByteGetter.INSTANCE)
+      return new ByteBinder(columnIndex, adapt(setter, byte.class));
+    if (type == double.class && getter == JdbcValueGetters.DoubleGetter.INSTANCE)
+      return new DoubleBinder(columnIndex, adapt(setter, double.class));
+    if (type == float.class && getter == JdbcValueGetters.FloatGetter.INSTANCE)
+      return new FloatBinder(columnIndex, adapt(setter, float.class));
+    if (type == boolean.class && getter == JdbcValueGetters.BoolBoolGetter.INSTANCE)
+      return new BooleanBinder(columnIndex, adapt(setter, boolean.class));
+    return new ObjectBinder(columnIndex, adapt(setter, Object.class), getter);
+  }
+
+  @NotNull
+  private static MethodHandle adapt(@NotNull final MethodHandle setter, @NotNull final Class<?> valueClass) {
+    return setter.asType(MethodType.methodType(void.class, Object.class, valueClass));
+  }
+
+
+  //// READER \\\\
+
+  private static final class HandlesReader<S> extends StructReader<S> {
+
+    @NotNull private final Class<S> structClass;
+    @NotNull private final MethodHandle constructor;
+    @NotNull private final ColumnBinder @NotNull [] binders;
+
+    HandlesReader(@NotNull final Class<S> structClass,
+                  @NotNull final MethodHandle constructor,
+                  @NotNull final ColumnBinder @NotNull [] binders) {
+      this.structClass = structClass;
+      this.constructor = constructor;
+      this.binders = binders;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    S read(@NotNull final ResultSet rset) throws SQLException {
+      try {
+        final Object struct = (Object) constructor.invokeExact();
+        for (ColumnBinder binder : binders) binder.bind(struct, rset);
+        return (S) struct;
+      }
+      catch (SQLException | RuntimeException | Error e) {
+        throw e;
+      }
+      catch (Throwable e) {
+        throw new UnexpectedReflectionException("Failed to create/populate class " + structClass,
+                                                e instanceof Exception ? (Exception) e : new RuntimeException(e));
+      }
+    }
+  }
+
+
+  //// BINDERS \\\\
+
+  private static abstract class ColumnBinder {
+
+    protected final int column;
+
+    /**
+     * Setter of type (Object,V)void.
+     */
+    @NotNull
+    protected final MethodHandle setter;
+
+    ColumnBinder(final int column, @NotNull final MethodHandle setter) {
+      this.column = column;
+      this.setter = setter;
+    }
+
+    abstract void bind(@NotNull final Object struct, @NotNull final ResultSet rset) throws Throwable;
+  }
+
+  private static final class IntBinder extends ColumnBinder {
+    IntBinder(final int column, @NotNull final MethodHandle setter) { super(column, setter); }
+
+    @Override
+    void bind(@NotNull final Object struct, @NotNull final ResultSet rset) throws Throwable {
+      final int value = rset.getInt(column);
+      if (!rset.wasNull()) setter.invokeExact(struct, value);
+    }
+  }
+
+  private static final class LongBinder extends ColumnBinder {
+    LongBinder(final int column, @NotNull final MethodHandle setter) { super(column, setter); }
+
+    @Override
+    void bind(@NotNull final Object struct, @NotNull final ResultSet rset) throws Throwable {
+      final long value = rset.getLong(column);
+      if (!rset.wasNull()) setter.invokeExact(struct, value);
+    }
+  }
+
+  private static final class ShortBinder extends ColumnBinder {
+    ShortBinder(final int column, @NotNull final MethodHandle setter) { super(column, setter); }
+
+    @Override
+    void bind(@NotNull final Object struct, @NotNull final ResultSet rset) throws Throwable {
+      final short value = rset.getShort(column);
+      if (!rset.wasNull()) setter.invokeExact(struct, value);
+    }
+  }
+
+  private static final class ByteBinder extends ColumnBinder {
+    ByteBinder(final int column, @NotNull final MethodHandle setter) { super(column, setter); }
+
+    @Override
+    void bind(@NotNull final Object struct, @NotNull final ResultSet rset) throws Throwable {
+      final byte value = rset.getByte(column);
+      if (!rset.wasNull()) setter.invokeExact(struct, value);
+    }
+  }
+
+  private static final class DoubleBinder extends ColumnBinder {
+    DoubleBinder(final int column, @NotNull final MethodHandle setter) { super(column, setter); }
+
+    @Override
+    void bind(@NotNull final Object struct, @NotNull final ResultSet rset) throws Throwable {
+      final double value = rset.getDouble(column);
+      if (!rset.wasNull()) setter.invokeExact(struct, value);
+    }
+  }
+
+  private static final class FloatBinder extends ColumnBinder {
+    FloatBinder(final int column, @NotNull final MethodHandle setter) { super(column, setter); }
+
+    @Override
+    void bind(@NotNull final Object struct, @NotNull final ResultSet rset) throws Throwable {
+      final float value = rset.getFloat(column);
+      if (!rset.wasNull()) setter.invokeExact(struct, value);
+    }
+  }
+
+  private static final class BooleanBinder extends ColumnBinder {
+    BooleanBinder(final int column, @NotNull final MethodHandle setter) { super(column, setter); }
+
+    @Override
+    void bind(@NotNull final Object struct, @NotNull final ResultSet rset) throws Throwable {
+      final boolean value = rset.getBoolean(column);
+      if (!rset.wasNull()) setter.invokeExact(struct, value);
+    }
+  }
+
+  private static final class ObjectBinder extends ColumnBinder {
+    @NotNull private final JdbcValueGetter<?> getter;
+
+    ObjectBinder(final int column, @NotNull final MethodHandle setter, @NotNull final JdbcValueGetter<?> getter) {
+      super(column, setter);
+      this.getter = getter;
+    }
+
+    @Override
+    void bind(@NotNull final Object struct, @NotNull final ResultSet rset) throws Throwable {
+      final Object value = getter.getValue(rset, column);
+      if (value != null) setter.invokeExact(struct, value);
+    }
+  }
+
+}
@@ -6,8 +6,12 @@ import org.jetbrains.dekaf.inter.exceptions.DBFetchingException;
 import org.jetbrains.dekaf.inter.exceptions.DBPreparingException;
 import org.jetbrains.dekaf.jdbc.utils.Numbers;
 
+import java.io.InputStream;
+import java.io.Reader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.sql.*;
 import java.util.HashMap;
 import java.util.Map;
@@ -29,123 +33,166 @@ public final class JdbcValueGetters {
 
   //// INTERNAL STRUCTURES \\\\
 
-  protected static final class SpecificKey {
-    final int jdbcType;
-    final @NotNull Class<?> desiredClass;
+  /**
+   * The lowest and the highest JDBC type codes that can have specific getters.
+   * All widely used types ({@link Types#LONGNVARCHAR} .. {@link Types#BOOLEAN}) are in this range.
+   */
+  private static final int MIN_SPECIFIC_TYPE = Types.LONGNVARCHAR;
+  private static final int MAX_SPECIFIC_TYPE = Types.BOOLEAN;
 
-    SpecificKey(final int jdbcType, final @NotNull Class<?> desiredClass) {
-      this.jdbcType = jdbcType;
-      this.desiredClass = desiredClass;
-    }
+  /**
+   * Maximal number of registered classes.
+   */
+  private static final int MAX_CLASSES = 64;
 
+  /**
+   * Registry of classes that have getters; each class gets a small id.
+   */
+  private static final ClassValue<Integer> CLASS_IDS = new ClassValue<Integer>() {
     @Override
-    public boolean equals(final Object o) {
-      if (this == o) return true;
-      if (o == null || getClass() != o.getClass()) return false;
-
-      SpecificKey that = (SpecificKey) o;
-
-      return this.jdbcType == that.jdbcType && this.desiredClass == that.desiredClass;
+    protected Integer computeValue(final Class<?> clazz) {
+      Integer id = REGISTERED_CLASS_IDS.get(clazz);
+      return id != null ? id : -1;
     }
+  };
 
+  /**
+   * Getters for array classes that have no registered getters.
+   */
+  private static final ClassValue<JdbcValueGetter<?>> ARRAY_GETTERS = new ClassValue<JdbcValueGetter<?>>() {
     @Override
-    public int hashCode() {
-      return Math.abs(jdbcType)*17 + desiredClass.hashCode();
+    protected JdbcValueGetter<?> computeValue(final Class<?> clazz) {
+      return new ArrayGetter<>(clazz);
     }
-  }
+  };
 
 
   //// INSTANCE PLENTY \\\\
 
   @NotNull
-  private static final Map<@NotNull Class<?>, @NotNull JdbcValueGetter<?>> NORMAL_GETTERS;
+  private static final Map<@NotNull Class<?>, @NotNull Integer> REGISTERED_CLASS_IDS = new HashMap<>(48);
 
-  @NotNull
-  private static final Map<@NotNull SpecificKey, @NotNull JdbcValueGetter<?>> SPECIFIC_GETTERS;
+  /**
+   * Getters by class id.
+   */
+  @Nullable
+  private static final JdbcValueGetter<?> @NotNull [] NORMAL_GETTERS = new JdbcValueGetter<?>[MAX_CLASSES];
+
+  /**
+   * Specific getters: the first index is the JDBC type minus {@link #MIN_SPECIFIC_TYPE},
+   * the second one is the class id; rows of types without specific getters are null.
+   */
+  @Nullable
+  private static final JdbcValueGetter<?> @Nullable [] @NotNull [] SPECIFIC_GETTERS =
+      new JdbcValueGetter<?>[MAX_SPECIFIC_TYPE - MIN_SPECIFIC_TYPE + 1][];
 
 
   static {
-    NORMAL_GETTERS = new HashMap<>(32);
-    NORMAL_GETTERS.put(boolean.class, IntBoolGetter.INSTANCE);
-    NORMAL_GETTERS.put(Boolean.class, IntBoolGetter.INSTANCE);
-    NORMAL_GETTERS.put(byte.class, ByteGetter.INSTANCE);
-    NORMAL_GETTERS.put(Byte.class, ByteGetter.INSTANCE);
-    NORMAL_GETTERS.put(short.class, ShortGetter.INSTANCE);
-    NORMAL_GETTERS.put(Short.class, ShortGetter.INSTANCE);
-    NORMAL_GETTERS.put(int.class, IntGetter.INSTANCE);
-    NORMAL_GETTERS.put(Integer.class, IntGetter.INSTANCE);
-    NORMAL_GETTERS.put(long.class, LongGetter.INSTANCE);
-    NORMAL_GETTERS.put(Long.class, LongGetter.INSTANCE);
-    NORMAL_GETTERS.put(float.class, FloatGetter.INSTANCE);
-    NORMAL_GETTERS.put(Float.class, FloatGetter.INSTANCE);
-    NORMAL_GETTERS.put(double.class, DoubleGetter.INSTANCE);
-    NORMAL_GETTERS.put(Double.class, DoubleGetter.INSTANCE);
-    NORMAL_GETTERS.put(BigInteger.class, BigIntegerGetter.INSTANCE);
-    NORMAL_GETTERS.put(BigDecimal.class, BigDecimalGetter.INSTANCE);
-    NORMAL_GETTERS.put(Number.class, GenericNumberGetter.INSTANCE);
-    NORMAL_GETTERS.put(String.class, StringGetter.INSTANCE);
-    NORMAL_GETTERS.put(char.class, CharGetter.INSTANCE);
-    NORMAL_GETTERS.put(Character.class, CharGetter.INSTANCE);
-    NORMAL_GETTERS.put(java.util.Date.class, JavaDateGetter.INSTANCE);
-    NORMAL_GETTERS.put(java.sql.Date.class, DateGetter.INSTANCE);
-    NORMAL_GETTERS.put(Timestamp.class, TimestampGetter.INSTANCE);
-    NORMAL_GETTERS.put(java.sql.Time.class, TimeGetter.INSTANCE);
-    NORMAL_GETTERS.put(Object.class, ObjectGetter.INSTANCE);
-    NORMAL_GETTERS.put(byte[].class, ArrayOfByteGetter.INSTANCE);
-    NORMAL_GETTERS.put(short[].class, ArrayOfShortGetter.INSTANCE);
-    NORMAL_GETTERS.put(int[].class, ArrayOfIntGetter.INSTANCE);
-    NORMAL_GETTERS.put(long[].class, ArrayOfLongGetter.INSTANCE);
-    NORMAL_GETTERS.put(Number[].class, ArrayOfNumberGetter.INSTANCE);
-    NORMAL_GETTERS.put(String[].class, ArrayOfStringGetter.INSTANCE);
-
-    SPECIFIC_GETTERS = new HashMap<>(48);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BOOLEAN, boolean.class), BoolBoolGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BOOLEAN, Boolean.class), BoolBoolGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BOOLEAN, Object.class), BoolBoolGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BOOLEAN, byte.class), BoolByteGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BOOLEAN, Byte.class), BoolByteGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BOOLEAN, short.class), BoolShortGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BOOLEAN, Short.class), BoolShortGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BOOLEAN, int.class), BoolIntGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BOOLEAN, Integer.class), BoolIntGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BOOLEAN, Number.class), BoolByteGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BIT, boolean.class), BoolBoolGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BIT, Boolean.class), BoolBoolGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BIT, byte.class), BoolByteGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BIT, Byte.class), BoolByteGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BIT, short.class), BoolShortGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BIT, Short.class), BoolShortGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BIT, int.class), BoolIntGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BIT, Integer.class), BoolIntGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BIT, Number.class), BoolByteGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BIT, Object.class), BoolByteGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.TINYINT, boolean.class), IntBoolGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.TINYINT, Boolean.class), IntBoolGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.TINYINT, Number.class), ByteGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.TINYINT, Object.class), ByteGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.SMALLINT, boolean.class), IntBoolGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.SMALLINT, Boolean.class), IntBoolGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.SMALLINT, Number.class), ShortGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.SMALLINT, Object.class), ShortGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.INTEGER, boolean.class), IntBoolGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.INTEGER, Boolean.class), IntBoolGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.INTEGER, Number.class), IntGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BIGINT, Number.class), LongGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BIGINT, Object.class), LongGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.REAL, Number.class), FloatGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.REAL, Object.class), FloatGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.FLOAT, Number.class), DoubleGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.FLOAT, Object.class), DoubleGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.DOUBLE, Number.class), DoubleGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.DOUBLE, Object.class), DoubleGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.DECIMAL, Number.class), BigDecimalGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.DECIMAL, Object.class), BigDecimalGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BINARY, byte[].class), BinaryGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.BINARY, Object.class), BinaryGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.VARBINARY, byte[].class), BinaryGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.VARBINARY, Object.class), BinaryGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.LONGVARBINARY, byte[].class), BinaryGetter.INSTANCE);
-    SPECIFIC_GETTERS.put(new SpecificKey(Types.LONGVARBINARY, Object.class), BinaryGetter.INSTANCE);
+    normal(boolean.class, IntBoolGetter.INSTANCE);
+    normal(Boolean.class, IntBoolGetter.INSTANCE);
+    normal(byte.class, ByteGetter.INSTANCE);
+    normal(Byte.class, ByteGetter.INSTANCE);
+    normal(short.class, ShortGetter.INSTANCE);
+    normal(Short.class, ShortGetter.INSTANCE);
+    normal(int.class, IntGetter.INSTANCE);
+    normal(Integer.class, IntGetter.INSTANCE);
+    normal(long.class, LongGetter.INSTANCE);
+    normal(Long.class, LongGetter.INSTANCE);
+    normal(float.class, FloatGetter.INSTANCE);
+    normal(Float.class, FloatGetter.INSTANCE);
+    normal(double.class, DoubleGetter.INSTANCE);
+    normal(Double.class, DoubleGetter.INSTANCE);
+    normal(BigInteger.class, BigIntegerGetter.INSTANCE);
+    normal(BigDecimal.class, BigDecimalGetter.INSTANCE);
+    normal(Number.class, GenericNumberGetter.INSTANCE);
+    normal(String.class, StringGetter.INSTANCE);
+    normal(char.class, CharGetter.INSTANCE);
+    normal(Character.class, CharGetter.INSTANCE);
+    normal(java.util.Date.class, JavaDateGetter.INSTANCE);
+    normal(java.sql.Date.class, DateGetter.INSTANCE);
+    normal(Timestamp.class, TimestampGetter.INSTANCE);
+    normal(java.sql.Time.class, TimeGetter.INSTANCE);
+    normal(Object.class, ObjectGetter.INSTANCE);
+    normal(byte[].class, ArrayOfByteGetter.INSTANCE);
+    normal(short[].class, ArrayOfShortGetter.INSTANCE);
+    normal(int[].class, ArrayOfIntGetter.INSTANCE);
+    normal(long[].class, ArrayOfLongGetter.INSTANCE);
+    normal(Number[].class, ArrayOfNumberGetter.INSTANCE);
+    normal(String[].class, ArrayOfStringGetter.INSTANCE);
+    normal(InputStream.class, BinaryStreamGetter.INSTANCE);
+    normal(ReadableByteChannel.class, BinaryChannelGetter.INSTANCE);
+    normal(Reader.class, CharacterStreamGetter.INSTANCE);
+
+    specific(Types.BOOLEAN, boolean.class, BoolBoolGetter.INSTANCE);
+    specific(Types.BOOLEAN, Boolean.class, BoolBoolGetter.INSTANCE);
+    specific(Types.BOOLEAN, Object.class, BoolBoolGetter.INSTANCE);
+    specific(Types.BOOLEAN, byte.class, BoolByteGetter.INSTANCE);
+    specific(Types.BOOLEAN, Byte.class, BoolByteGetter.INSTANCE);
+    specific(Types.BOOLEAN, short.class, BoolShortGetter.INSTANCE);
+    specific(Types.BOOLEAN, Short.class, BoolShortGetter.INSTANCE);
+    specific(Types.BOOLEAN, int.class, BoolIntGetter.INSTANCE);
+    specific(Types.BOOLEAN, Integer.class, BoolIntGetter.INSTANCE);
+    specific(Types.BOOLEAN, Number.class, BoolByteGetter.INSTANCE);
+    specific(Types.BIT, boolean.class, BoolBoolGetter.INSTANCE);
+    specific(Types.BIT, Boolean.class, BoolBoolGetter.INSTANCE);
+    specific(Types.BIT, byte.class, BoolByteGetter.INSTANCE);
+    specific(Types.BIT, Byte.class, BoolByteGetter.INSTANCE);
+    specific(Types.BIT, short.class, BoolShortGetter.INSTANCE);
+    specific(Types.BIT, Short.class, BoolShortGetter.INSTANCE);
+    specific(Types.BIT, int.class, BoolIntGetter.INSTANCE);
+    specific(Types.BIT, Integer.class, BoolIntGetter.INSTANCE);
+    specific(Types.BIT, Number.class, BoolByteGetter.INSTANCE);
+    specific(Types.BIT, Object.class, BoolByteGetter.INSTANCE);
+    specific(Types.TINYINT, boolean.class, IntBoolGetter.INSTANCE);
+    specific(Types.TINYINT, Boolean.class, IntBoolGetter.INSTANCE);
+    specific(Types.TINYINT, Number.class, ByteGetter.INSTANCE);
+    specific(Types.TINYINT, Object.class, ByteGetter.INSTANCE);
+    specific(Types.SMALLINT, boolean.class, IntBoolGetter.INSTANCE);
+    specific(Types.SMALLINT, Boolean.class, IntBoolGetter.INSTANCE);
+    specific(Types.SMALLINT, Number.class, ShortGetter.INSTANCE);
+    specific(Types.SMALLINT, Object.class, ShortGetter.INSTANCE);
+    specific(Types.INTEGER, boolean.class, IntBoolGetter.INSTANCE);
+    specific(Types.INTEGER, Boolean.class, IntBoolGetter.INSTANCE);
+    specific(Types.INTEGER, Number.class, IntGetter.INSTANCE);
+    specific(Types.BIGINT, Number.class, LongGetter.INSTANCE);
+    specific(Types.BIGINT, Object.class, LongGetter.INSTANCE);
+    specific(Types.REAL, Number.class, FloatGetter.INSTANCE);
+    specific(Types.REAL, Object.class, FloatGetter.INSTANCE);
+    specific(Types.FLOAT, Number.class, DoubleGetter.INSTANCE);
+    specific(Types.FLOAT, Object.class, DoubleGetter.INSTANCE);
+    specific(Types.DOUBLE, Number.class, DoubleGetter.INSTANCE);
+    specific(Types.DOUBLE, Object.class, DoubleGetter.INSTANCE);
+    specific(Types.DECIMAL, Number.class, BigDecimalGetter.INSTANCE);
+    specific(Types.DECIMAL, Object.class, BigDecimalGetter.INSTANCE);
+    specific(Types.BINARY, byte[].class, BinaryGetter.INSTANCE);
+    specific(Types.BINARY, Object.class, BinaryGetter.INSTANCE);
+    specific(Types.VARBINARY, byte[].class, BinaryGetter.INSTANCE);
+    specific(Types.VARBINARY, Object.class, BinaryGetter.INSTANCE);
+    specific(Types.LONGVARBINARY, byte[].class, BinaryGetter.INSTANCE);
+    specific(Types.LONGVARBINARY, Object.class, BinaryGetter.INSTANCE);
+  }
+
+  private static int registerClass(final @NotNull Class<?> clazz) {
+    Integer id = REGISTERED_CLASS_IDS.get(clazz);
+    if (id != null) return id;
+    int newId = REGISTERED_CLASS_IDS.size();
+    if (newId >= MAX_CLASSES) throw new IllegalStateException("Too many classes with value getters");
+    REGISTERED_CLASS_IDS.put(clazz, newId);
+    return newId;
+  }
+
+  private static void normal(final @NotNull Class<?> clazz, final @NotNull JdbcValueGetter<?> getter) {
+    int id = registerClass(clazz);
+    NORMAL_GETTERS[id] = getter;
+  }
+
+  private static void specific(final int jdbcType, final @NotNull Class<?> clazz, final @NotNull JdbcValueGetter<?> getter) {
+    assert MIN_SPECIFIC_TYPE <= jdbcType && jdbcType <= MAX_SPECIFIC_TYPE;
+    int id = registerClass(clazz);
+    int t = jdbcType - MIN_SPECIFIC_TYPE;
+    JdbcValueGetter<?>[] row = SPECIFIC_GETTERS[t];
+    if (row == null) row = SPECIFIC_GETTERS[t] = new JdbcValueGetter<?>[MAX_CLASSES];
+    row[id] = getter;
   }
 
 
@@ -169,15 +216,30 @@ public final class JdbcValueGetters {
   @SuppressWarnings("unchecked")
   static <W> JdbcValueGetter<W> find(final int jdbcType, @NotNull final Class<? extends W> clazz) {
     JdbcValueGetter<?> getter = null;
-    if (jdbcType != Types.OTHER) getter = SPECIFIC_GETTERS.get(new SpecificKey(jdbcType, clazz));
-    if (getter == null) getter = NORMAL_GETTERS.get(clazz);
+    final int id = CLASS_IDS.get(clazz);
+    if (id >= 0) {
+      if (MIN_SPECIFIC_TYPE <= jdbcType && jdbcType <= MAX_SPECIFIC_TYPE) {
+        JdbcValueGetter<?>[] row = SPECIFIC_GETTERS[jdbcType - MIN_SPECIFIC_TYPE];
+        if (row != null) getter = row[id];
+      }
+      if (getter == null) getter = NORMAL_GETTERS[id];
+    }
     if (getter == null && clazz.isArray()) getter = lookForArrayGetter(clazz);
     return (JdbcValueGetter<W>) getter;
   }
 
   @Nullable
+  @SuppressWarnings("unchecked")
   protected static <W> JdbcValueGetter<W> lookForArrayGetter(@NotNull final Class<W> clazz) {
-    return new ArrayGetter<W>(clazz);
+    return (JdbcValueGetter<W>) ARRAY_GETTERS.get(clazz);
+  }
+
+  /**
+   * Checks whether the values of the given class are streams that read the cell lazily,
+   * so they are valid only while the result set stays on the row.
+   */
+  static boolean isStreamingClass(@NotNull final Class<?> clazz) {
+    return clazz == InputStream.class || clazz == ReadableByteChannel.class || clazz == Reader.class;
   }
 
   @NotNull
@@ -397,6 +459,42 @@ public final class JdbcValueGetters {
   }
 
 
+  static final class BinaryStreamGetter extends JdbcValueGetter<InputStream> {
+    @Nullable
+    @Override
+    InputStream getValue(@NotNull final ResultSet rset, final int index) throws SQLException {
+      final InputStream stream = rset.getBinaryStream(index);
+      return rset.wasNull() ? null : stream;
+    }
+
+    static final BinaryStreamGetter INSTANCE = new BinaryStreamGetter();
+  }
+
+
+  static final class BinaryChannelGetter extends JdbcValueGetter<ReadableByteChannel> {
+    @Nullable
+    @Override
+    ReadableByteChannel getValue(@NotNull final ResultSet rset, final int index) throws SQLException {
+      final InputStream stream = rset.getBinaryStream(index);
+      return rset.wasNull() || stream == null ? null : Channels.newChannel(stream);
+    }
+
+    static final BinaryChannelGetter INSTANCE = new BinaryChannelGetter();
+  }
+
+
+  static final class CharacterStreamGetter extends JdbcValueGetter<Reader> {
+    @Nullable
+    @Override
+    Reader getValue(@NotNull final ResultSet rset, final int index) throws SQLException {
+      final Reader reader = rset.getCharacterStream(index);
+      return rset.wasNull() ? null : reader;
+    }
+
+    static final CharacterStreamGetter INSTANCE = new CharacterStreamGetter();
+  }
+
+
   static final class StringGetter extends JdbcValueGetter<String> {
     @Override
     @Nullable
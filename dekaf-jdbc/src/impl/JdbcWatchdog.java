@@ -0,0 +1,44 @@
+package org.jetbrains.dekaf.jdbc.impl;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Cancels statements that run longer than their timeouts.
+ * <p/>
+ * {@link java.sql.Statement#setQueryTimeout} has a granularity of seconds and is not
+ * honoured by all drivers, so the watchdog cancels the statement itself when the time is out.
+ */
+final class JdbcWatchdog {
+
+  @NotNull
+  private static final ScheduledExecutorService scheduler =
+      Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "dekaf-jdbc-watchdog");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+
+  /**
+   * Schedules the seance cancellation.
+   * @param seance  the seance to cancel.
+   * @param token   token of the watched execution, see {@link JdbcSeance#timeIsOut(long)}.
+   * @param timeout the timeout in milliseconds.
+   * @return the scheduled task; cancel it when the statement completes in time.
+   */
+  @NotNull
+  static ScheduledFuture<?> watch(final @NotNull JdbcSeance seance, final long token, final long timeout) {
+    return scheduler.schedule(() -> seance.timeIsOut(token), timeout, TimeUnit.MILLISECONDS);
+  }
+
+
+  private JdbcWatchdog() {}
+
+}
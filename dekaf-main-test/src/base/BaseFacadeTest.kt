@@ -4,10 +4,18 @@ import lb.yaka.expectations.equalsTo
 import lb.yaka.expectations.iz
 import lb.yaka.expectations.zero
 import lb.yaka.gears.expect
+import org.jetbrains.dekaf.inter.settings.Setting
+import org.jetbrains.dekaf.inter.settings.Settings
+import org.jetbrains.dekaf.main.DbMaster
 import org.jetbrains.dekaf.main.db.inSession
+import org.jetbrains.dekaf.main.queries.Query
+import org.jetbrains.dekaf.main.queries.layRowArrayOf
+import org.jetbrains.dekaf.main.queries.layTableListOf
+import org.jetbrains.dekaf.mainTest.util.H2memSettings
 import org.jetbrains.dekaf.test.utils.performMass
 import org.junit.jupiter.api.Order
 import org.junit.jupiter.api.Test
+import java.util.concurrent.TimeUnit
 
 
 class BaseFacadeTest : UnitTestWithH2 {
@@ -27,6 +35,45 @@ class BaseFacadeTest : UnitTestWithH2 {
     }
 
 
+    @Test @Order(2)
+    fun basic_session_openAsync() {
+        val session = dbf.openSessionAsync().get(10, TimeUnit.SECONDS)
+        session.ping()
+
+        expect that dbf.countActiveSessions() equalsTo 1
+
+        session.close()
+
+        expect that dbf.countActiveSessions() iz zero
+    }
+
+
+    @Test @Order(3)
+    fun basic_session_openAsync_cancelledWhileGated() {
+        val settings = Settings(H2memSettings.getEntry(0), H2memSettings.getEntry(1),
+                                Setting("pool", Settings.of("classes", Settings.of("main", Settings.of("max-size", "1")))))
+        val facade = DbMaster.open(settings)
+        facade.connect()
+        try {
+            val holder = facade.openSession()
+            val future = facade.openSessionAsync()
+            Thread.sleep(100L)
+            future.cancel(false)
+            holder.close()
+
+            // the session opened for the cancelled future must be closed, and its permit returned
+            val session = facade.openSession(5000L, null)
+            session.close()
+            val deadline = System.currentTimeMillis() + 5000L
+            while (facade.countActiveSessions() > 0 && System.currentTimeMillis() < deadline) Thread.sleep(10L)
+            expect that facade.countActiveSessions() iz zero
+        }
+        finally {
+            facade.disconnect()
+        }
+    }
+
+
     @Test @Order(31)
     fun mass_session_open_ping_close() {
         expect that dbf.countActiveSessions() iz zero
@@ -40,4 +87,57 @@ class BaseFacadeTest : UnitTestWithH2 {
         expect that dbf.countActiveSessions() iz zero
     }
 
+
+    @Test @Order(41)
+    fun connect_warmUp() {
+        val settings = Settings(H2memSettings.getEntry(0), H2memSettings.getEntry(1),
+                                Setting("pool", Settings.of("min-size", "3")))
+        val facade = DbMaster.open(settings)
+        facade.prepareOnConnect(Query("select 1", layTableListOf(layRowArrayOf<Number>(1))))
+        facade.connect()
+        try {
+            val report = facade.warmUpReport!!
+            expect that report.opened equalsTo 3
+            expect that report.complete equalsTo true
+            expect that facade.countActiveSessions() iz zero
+        }
+        finally {
+            facade.disconnect()
+        }
+    }
+
+
+    @Test @Order(42)
+    fun connect_healthCheck() {
+        val settings = Settings(H2memSettings.getEntry(0), H2memSettings.getEntry(1),
+                                Setting("health", Settings.of("period", "50")))
+        val facade = DbMaster.open(settings)
+        expect that facade.isConnected(true) equalsTo false
+        facade.connect()
+        try {
+            expect that facade.isConnected(true) equalsTo true
+            Thread.sleep(200L)
+            expect that facade.isConnected(true) equalsTo true
+            expect that facade.countActiveSessions() iz zero
+        }
+        finally {
+            facade.disconnect()
+        }
+        expect that facade.isConnected(true) equalsTo false
+    }
+
+    @Test @Order(43)
+    fun connect_pingOnDemand() {
+        val facade = DbMaster.open(H2memSettings)
+        facade.connect()
+        try {
+            expect that facade.isConnected(true) equalsTo true
+            expect that facade.countActiveSessions() iz zero
+        }
+        finally {
+            facade.disconnect()
+        }
+        expect that facade.isConnected(true) equalsTo false
+    }
+
 }
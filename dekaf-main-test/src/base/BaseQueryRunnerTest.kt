@@ -0,0 +1,145 @@
+package org.jetbrains.dekaf.mainTest.base
+
+import lb.yaka.expectations.equalsTo
+import lb.yaka.expectations.hasSize
+import lb.yaka.gears.expect
+import org.jetbrains.dekaf.inter.exceptions.DBQueryCancelledException
+import org.jetbrains.dekaf.inter.settings.Setting
+import org.jetbrains.dekaf.inter.settings.Settings
+import org.jetbrains.dekaf.main.DbMaster
+import org.jetbrains.dekaf.main.db.inSession
+import org.jetbrains.dekaf.main.queries.layRowArrayOf
+import org.jetbrains.dekaf.main.queries.layTableListOf
+import org.jetbrains.dekaf.mainTest.util.H2memSettings
+import org.junit.jupiter.api.Order
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+
+class BaseQueryRunnerTest : UnitTestWithH2 {
+
+    private val queryText = "select X from table(X int = (1,2,3,4,5,6,7,8,9)) where X <= ?"
+
+    private val layout = layTableListOf(layRowArrayOf<Number>(1))
+
+
+    @Test @Order(1)
+    fun run_severalTimes() {
+        dbf.inSession { session ->
+            session.query(queryText, layout).use { runner ->
+                val list1 = runner.run(3)
+                val list2 = runner.run(5)
+
+                expect that list1 hasSize 3
+                expect that list2 hasSize 5
+                expect that list2[4][0] equalsTo 5
+            }
+        }
+    }
+
+    @Test @Order(2)
+    fun runMany_basic() {
+        val sizes = dbf.inSession { session ->
+            session.query(queryText, layout).use { runner ->
+                val params = sequenceOf<Array<out Any?>>(arrayOf(1), arrayOf(2), arrayOf(9))
+                runner.runMany(params).map { it.size }.toList()
+            }
+        }
+
+        expect that sizes hasSize 3
+        expect that sizes[0] equalsTo 1
+        expect that sizes[1] equalsTo 2
+        expect that sizes[2] equalsTo 9
+    }
+
+    @Test @Order(3)
+    fun run_afterClose() {
+        dbf.inSession { session ->
+            val runner = session.query(queryText, layout)
+            runner.run(1)
+            runner.close()
+
+            assertThrows<IllegalStateException> {
+                runner.run(1)
+            }
+        }
+    }
+
+
+    private val slowQueryText = "select sum(X) from system_range(1, 100000000000)"
+
+    @Test @Order(11)
+    fun run_timeout() {
+        dbf.inSession { session ->
+            session.query(slowQueryText, layout).use { runner ->
+                assertThrows<DBQueryCancelledException> {
+                    runner.withTimeout(100L).run()
+                }
+            }
+        }
+    }
+
+    @Test @Order(12)
+    fun run_cancelFromAnotherThread() {
+        dbf.inSession { session ->
+            session.query(slowQueryText, layout).use { runner ->
+                val canceller = Executors.newSingleThreadScheduledExecutor()
+                try {
+                    canceller.schedule(runner::cancel, 100L, TimeUnit.MILLISECONDS)
+                    assertThrows<DBQueryCancelledException> {
+                        runner.withTimeout(30_000L).run()
+                    }
+                }
+                finally {
+                    canceller.shutdown()
+                }
+            }
+        }
+    }
+
+    @Test @Order(13)
+    fun run_sessionDeadline() {
+        val session = dbf.openSession(timeout = 100L)
+        try {
+            session.query(slowQueryText, layout).use { runner ->
+                assertThrows<DBQueryCancelledException> {
+                    runner.run()
+                }
+            }
+            assertThrows<DBQueryCancelledException> {
+                session.query(queryText, layout).run(1)
+            }
+        }
+        finally {
+            session.close()
+        }
+    }
+
+    @Test @Order(14)
+    fun run_passedDeadline_notSampled() {
+        val settings = Settings(H2memSettings.getEntry(0), H2memSettings.getEntry(1),
+                                Setting("pool", Settings.of("limiter", Settings.of("latency-threshold", "10000",
+                                                                                   "initial-limit", "10"))))
+        val facade = DbMaster.open(settings)
+        facade.connect()
+        try {
+            val session = facade.openSession(timeout = 1L)
+            try {
+                Thread.sleep(20L)
+                assertThrows<DBQueryCancelledException> {
+                    session.query(queryText, layout).run(1)
+                }
+            }
+            finally {
+                session.close()
+            }
+            expect that facade.metricsSnapshot().limiter!!.limit equalsTo 10
+        }
+        finally {
+            facade.disconnect()
+        }
+    }
+
+}
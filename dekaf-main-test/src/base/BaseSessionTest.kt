@@ -1,5 +1,8 @@
 package org.jetbrains.dekaf.mainTest.base
 
+import lb.yaka.expectations.equalsTo
+import lb.yaka.expectations.hasSize
+import lb.yaka.gears.expect
 import org.jetbrains.dekaf.main.db.inSession
 import org.jetbrains.dekaf.main.db.inTransaction
 import org.junit.jupiter.api.Order
@@ -29,4 +32,20 @@ class BaseSessionTest : UnitTestWithH2 {
         }
     }
 
+    @Test @Order(4)
+    fun basic_performBatch_inTransaction() {
+        val counts = dbf.inTransaction { transaction ->
+            transaction.perform("create table if not exists Batch_Table (X int)")
+            transaction.performBatch("insert into Batch_Table (X) values (?)",
+                                     listOf(listOf(1), listOf(2), listOf(3)),
+                                     flushEvery = 2)
+        }
+        dbf.inSession { session ->
+            session.perform("drop table Batch_Table")
+        }
+
+        expect that counts hasSize 3
+        expect that counts[2] equalsTo 1
+    }
+
 }
@@ -0,0 +1,86 @@
+package org.jetbrains.dekaf.mainTest.pool
+
+import lb.yaka.expectations.*
+import lb.yaka.gears.expect
+import org.jetbrains.dekaf.main.pool.AdaptiveLimiter
+import org.jetbrains.dekaf.main.pool.LimitExceededException
+import org.jetbrains.dekaf.test.utils.UnitTest
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+
+
+class AdaptiveLimiterTest : UnitTest {
+
+    @Test
+    fun rejectsBeyondLimit() {
+        val limiter = AdaptiveLimiter(initialLimit = 2, latencyThreshold = 1_000_000L)
+        limiter.acquire()
+        limiter.acquire()
+
+        assertThrows<LimitExceededException> {
+            limiter.acquire()
+        }
+        expect that limiter.rejectedCount equalsTo 1L
+
+        limiter.release()
+        limiter.acquire()
+        expect that limiter.inFlight equalsTo 2
+    }
+
+    @Test
+    fun decreasesOnSlowQueries() {
+        val limiter = AdaptiveLimiter(initialLimit = 10, minLimit = 2, latencyThreshold = 1_000_000L, backoffRatio = 0.5)
+
+        limiter.onSample(5_000_000L, false)
+        expect that limiter.limit equalsTo 5
+
+        Thread.sleep(2L)
+        limiter.onSample(10L, true)
+        expect that limiter.limit equalsTo 2
+
+        Thread.sleep(2L)
+        limiter.onSample(10L, true)
+        expect that limiter.limit equalsTo 2
+    }
+
+    @Test
+    fun decreasesOncePerWindow() {
+        val limiter = AdaptiveLimiter(initialLimit = 16, latencyThreshold = 1_000_000L, backoffRatio = 0.5)
+
+        // all these queries started before the first decrease
+        repeat(5) { limiter.onSample(50_000_000L, false) }
+        expect that limiter.limit equalsTo 8
+
+        Thread.sleep(2L)
+        limiter.onSample(10L, true)
+        expect that limiter.limit equalsTo 4
+    }
+
+    @Test
+    fun increasesOnFastQueriesUnderLoad() {
+        val limiter = AdaptiveLimiter(initialLimit = 4, latencyThreshold = 1_000_000L)
+
+        limiter.onSample(10L, false)
+        expect that limiter.limit equalsTo 4
+
+        limiter.acquire()
+        limiter.acquire()
+        limiter.onSample(10L, false)
+        expect that limiter.limit equalsTo 5
+    }
+
+    @Test
+    fun queuesShortly() {
+        val limiter = AdaptiveLimiter(initialLimit = 1, latencyThreshold = 1_000_000L, queueTime = 2_000L)
+        limiter.acquire()
+
+        val t = Thread { Thread.sleep(50L); limiter.release() }
+        t.start()
+        limiter.acquire()
+        t.join()
+
+        expect that limiter.inFlight equalsTo 1
+        expect that limiter.rejectedCount iz zero
+    }
+
+}
@@ -0,0 +1,306 @@
+package org.jetbrains.dekaf.mainTest.pool
+
+import lb.yaka.expectations.*
+import lb.yaka.gears.expect
+import org.jetbrains.dekaf.main.pool.ConcurrentServicePool
+import org.jetbrains.dekaf.main.pool.IdleVerdict
+import org.jetbrains.dekaf.main.pool.ServicePool
+import org.jetbrains.dekaf.test.utils.UnitTest
+import org.jetbrains.dekaf.test.utils.delay
+import org.jetbrains.dekaf.test.utils.join
+import org.jetbrains.dekaf.test.utils.startMass
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.lang.Thread.sleep
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+
+class ConcurrentServicePoolTest : UnitTest {
+
+    companion object {
+        private val counter = AtomicInteger(0)
+    }
+
+    private class TestService {
+        val nr = counter.incrementAndGet()
+        var closed: Boolean = false
+        var broken: Boolean = false
+        fun close(broken: Boolean) { closed = true; this.broken = broken }
+        override fun toString() = "TestService № $nr" + (if (closed) " closed" else "") + (if (broken) " broken" else "")
+    }
+
+    private class TestPool: ConcurrentServicePool<TestService>() {
+        override fun openService(): TestService = TestService()
+        override fun closeService(service: TestService, wasBroken: Boolean) = service.close(broken = wasBroken)
+    }
+
+
+    @BeforeEach
+    fun resetCounter() {
+        counter.set(0)
+    }
+
+
+    private fun TestPool.borrowAndRelease() {
+        val s = this.borrow()
+        sleep(7L)
+        this.release(s)
+        sleep(3L)
+    }
+
+
+    @Test
+    fun borrowAndRelease_basic() {
+        val pool = TestPool()
+
+        val s1 = pool.borrow()
+
+        expect that pool.activeCount equalsTo 1
+        expect that pool.idleCount equalsTo 0
+        expect that pool.totalCount equalsTo 1
+
+        pool.release(s1)
+
+        expect that pool.activeCount equalsTo 0
+        expect that pool.idleCount equalsTo 1
+        expect that pool.totalCount equalsTo 1
+
+        val s2 = pool.borrow()
+        pool.release(s2)
+
+        expect that s2 sameAs s1
+    }
+
+    @Test
+    fun borrow_affinity() {
+        val pool = TestPool()
+        pool.populate()
+
+        val s1 = pool.borrow()
+        val s2 = pool.borrow()
+        pool.release(s2)
+        pool.release(s1)
+
+        val s3 = pool.borrow()
+
+        expect that s3 sameAs s1
+    }
+
+
+    @Test
+    fun borrowAndRelease_mass() {
+        val pool = TestPool()
+
+        startMass(10, 30) { _, _ ->
+            pool.borrowAndRelease()
+        }.join()
+
+        expect that pool.activeCount iz zero
+        expect that pool.idleCount inRange 1..10
+    }
+
+    @Test
+    fun borrowAndRelease_massThrottling() {
+        val pool = TestPool()
+        pool.setup(maxServices = 5)
+
+        startMass(20, 30) { _, _ ->
+            pool.borrowAndRelease()
+        }.join()
+
+        expect that pool.activeCount iz zero
+        expect that pool.idleCount inRange 3..5
+    }
+
+    @Test
+    fun borrow_exhausted() {
+        val pool = TestPool()
+        pool.setup(maxServices = 1, waitingTime = 50L)
+
+        pool.borrow()
+
+        assertThrows<ServicePool.ExhaustedException> {
+            pool.borrow()
+        }
+    }
+
+
+    @Test
+    fun releaseBroken_basic() {
+        val pool = TestPool()
+
+        val s1 = pool.borrow()
+        pool.releaseBroken(s1)
+
+        expect that s1.broken equalsTo true
+        expect that pool.idleCount iz zero
+        expect that pool.totalCount iz zero
+    }
+
+    @Test
+    fun releaseBroken_replacement() {
+        val pool = TestPool()
+        pool.setup(minServices = 1, maxServices = 1, waitingTime = 10_000L)
+
+        val threads = delay(time = 70L) { _ ->
+            pool.borrowAndRelease()
+        }
+
+        val s = pool.borrow()
+        sleep(100L)
+        pool.releaseBroken(s)
+
+        threads.join(2_000L)
+
+        expect that pool.totalCount equalsTo 1
+    }
+
+    @Test
+    fun release_doesNotWaitForWaiterOpeningService() {
+        val openingTime = AtomicInteger(0)
+        val pool = object : ConcurrentServicePool<TestService>() {
+            override fun openService(): TestService {
+                sleep(openingTime.get().toLong())
+                return TestService()
+            }
+            override fun closeService(service: TestService, wasBroken: Boolean) = service.close(broken = wasBroken)
+        }
+        pool.setup(maxServices = 2, waitingTime = 10_000L)
+
+        val s1 = pool.borrow()
+        val s2 = pool.borrow()
+        val waiter = delay(time = 0L) { _ ->
+            pool.release(pool.borrow())
+        }
+        sleep(50L)
+
+        // the waiter gets the free slot and opens a new service slowly
+        openingTime.set(1_000)
+        pool.releaseBroken(s2)
+        sleep(50L)
+
+        val t0 = System.nanoTime()
+        pool.release(s1)
+        val releaseTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0).toInt()
+
+        waiter.join(5_000L)
+        expect that releaseTime inRange 0..300
+    }
+
+
+
+    @Test
+    fun populate_basic() {
+        val pool = TestPool()
+        pool.setup(minServices = 3, maxServices = 10)
+        pool.populate()
+
+        expect that pool.activeCount iz zero
+        expect that pool.idleCount equalsTo 3
+        expect that pool.totalCount equalsTo 3
+    }
+
+    @Test
+    fun closeIdleServices_basic() {
+        val pool = TestPool()
+        pool.setup(minServices = 3)
+        pool.populate()
+
+        val s = pool.borrow()
+        pool.closeIdleServices()
+
+        expect that pool.totalCount equalsTo 1
+        expect that pool.activeCount equalsTo 1
+
+        pool.release(s)
+    }
+
+
+
+    @Test
+    fun borrowAsync_fifo() {
+        val pool = TestPool()
+        pool.setup(maxServices = 1, waitingTime = 10_000L)
+
+        val s1 = pool.borrow()
+        val f2 = pool.borrowAsync()
+        val f3 = pool.borrowAsync()
+
+        expect that f2.isDone equalsTo false
+        expect that f3.isDone equalsTo false
+
+        pool.release(s1)
+
+        expect that f2.get(1, TimeUnit.SECONDS) sameAs s1
+        expect that f3.isDone equalsTo false
+
+        pool.release(f2.get())
+
+        expect that f3.get(1, TimeUnit.SECONDS) sameAs s1
+        pool.release(f3.get())
+
+        expect that pool.idleCount equalsTo 1
+    }
+
+    @Test
+    fun borrowAsync_cancelledAndExpired() {
+        val pool = TestPool()
+        pool.setup(maxServices = 1, waitingTime = 30L)
+
+        val s1 = pool.borrow()
+        val f2 = pool.borrowAsync()
+        f2.cancel(false)
+        val f3 = pool.borrowAsync()
+
+        val e = assertThrows<ExecutionException> { f3.get(1, TimeUnit.SECONDS) }
+        expect that (e.cause is ServicePool.ExhaustedException) equalsTo true
+
+        pool.release(s1)
+
+        expect that pool.idleCount equalsTo 1
+        expect that pool.borrowAsync().get(1, TimeUnit.SECONDS) sameAs s1
+    }
+
+    @Test
+    fun borrowAsync_opensInBackground() {
+        val pool = TestPool()
+
+        val s = pool.borrowAsync().get(1, TimeUnit.SECONDS)
+
+        expect that pool.activeCount equalsTo 1
+        pool.release(s)
+    }
+
+    @Test
+    fun borrowAsync_servedByKeptIdle() {
+        val pool = TestPool()
+        pool.setup(maxServices = 1, waitingTime = 10_000L)
+        pool.release(pool.borrow())
+
+        var f: CompletableFuture<TestService>? = null
+        pool.inspectIdleServices {
+            f = pool.borrowAsync()
+            IdleVerdict.Keep
+        }
+
+        expect that f!!.get(1, TimeUnit.SECONDS).nr equalsTo 1
+        expect that pool.activeCount equalsTo 1
+    }
+
+    @Test
+    fun borrowAsync_completedOutOfReleasingThread() {
+        val pool = TestPool()
+        pool.setup(maxServices = 1, waitingTime = 10_000L)
+
+        val s1 = pool.borrow()
+        val thread = pool.borrowAsync().thenApply { Thread.currentThread() }
+        pool.release(s1)
+
+        expect that (thread.get(1, TimeUnit.SECONDS) === Thread.currentThread()) equalsTo false
+    }
+
+}
@@ -0,0 +1,37 @@
+package org.jetbrains.dekaf.mainTest.pool
+
+import lb.yaka.expectations.*
+import lb.yaka.gears.expect
+import org.jetbrains.dekaf.main.pool.LatencyHistogram
+import org.jetbrains.dekaf.test.utils.UnitTest
+import org.junit.jupiter.api.Test
+
+
+class LatencyHistogramTest : UnitTest {
+
+    @Test
+    fun empty() {
+        val snapshot = LatencyHistogram().snapshot()
+
+        expect that snapshot.count iz zero
+        expect that snapshot.mean iz zero
+        expect that snapshot.percentile(0.99) iz zero
+    }
+
+    @Test
+    fun percentiles() {
+        val h = LatencyHistogram()
+        for (i in 1..99) h.record(1000L)
+        h.record(1_000_000L)
+
+        val snapshot = h.snapshot()
+
+        expect that snapshot.count equalsTo 100L
+        expect that snapshot.max equalsTo 1_000_000L
+        expect that snapshot.percentile(0.5).toInt() inRange 1000..2047
+        expect that snapshot.percentile(0.99).toInt() inRange 1000..2047
+        expect that snapshot.percentile(1.0) equalsTo 1_000_000L
+        expect that snapshot.mean equalsTo (99L * 1000L + 1_000_000L) / 100L
+    }
+
+}
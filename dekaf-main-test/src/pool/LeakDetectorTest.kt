@@ -0,0 +1,80 @@
+package org.jetbrains.dekaf.mainTest.pool
+
+import lb.yaka.expectations.*
+import lb.yaka.gears.expect
+import org.jetbrains.dekaf.main.pool.LeakDetector
+import org.jetbrains.dekaf.main.pool.ServicePool
+import org.jetbrains.dekaf.test.utils.UnitTest
+import org.junit.jupiter.api.Test
+import java.lang.Thread.sleep
+
+
+class LeakDetectorTest : UnitTest {
+
+    private class TestService {
+        var closed: Boolean = false
+        var broken: Boolean = false
+        fun close(broken: Boolean) { closed = true; this.broken = broken }
+    }
+
+    private class TestPool: ServicePool<TestService>() {
+        override fun openService(): TestService = TestService()
+        override fun closeService(service: TestService, wasBroken: Boolean) = service.close(broken = wasBroken)
+    }
+
+
+    @Test
+    fun returnedInTime_noLeaks() {
+        val detector = LeakDetector<TestService>(threshold = 1_000L)
+        val s = TestService()
+        detector.borrowed(s)
+        detector.scan()
+        expect that detector.returned(s) equalsTo true
+
+        expect that detector.leakCount equalsTo 0L
+        expect that detector.heldCount iz zero
+    }
+
+    @Test
+    fun heldTooLong_reportedOnceWithStack() {
+        val detector = LeakDetector<TestService>(threshold = 10L, sampling = 1)
+        val s = TestService()
+        detector.borrowed(s)
+        sleep(20L)
+        detector.scan()
+        detector.scan()
+
+        expect that detector.leakCount equalsTo 1L
+        expect that detector.reclaimedCount equalsTo 0L
+        val report = detector.snapshot().recentLeaks.single()
+        expect that report.holder equalsTo Thread.currentThread().name
+        expect that report.reclaimed equalsTo false
+        expect that (report.borrowSite?.contains("heldTooLong_reportedOnceWithStack") ?: false) equalsTo true
+    }
+
+    @Test
+    fun notSampled_noStack() {
+        val detector = LeakDetector<TestService>(threshold = 10L, sampling = 0)
+        detector.borrowed(TestService())
+        sleep(20L)
+        detector.scan()
+
+        expect that detector.snapshot().recentLeaks.single().borrowSite equalsTo null
+    }
+
+    @Test
+    fun heldTooLong_reclaimed() {
+        val pool = TestPool()
+        val detector = LeakDetector<TestService>(threshold = 10L, reclaimer = pool::releaseBroken)
+        val s = pool.borrow()
+        detector.borrowed(s)
+        sleep(20L)
+        detector.scan()
+
+        expect that detector.reclaimedCount equalsTo 1L
+        expect that s.broken equalsTo true
+        expect that pool.totalCount iz zero
+        expect that detector.returned(s) equalsTo false
+    }
+
+}
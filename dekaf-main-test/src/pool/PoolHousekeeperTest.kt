@@ -0,0 +1,118 @@
+package org.jetbrains.dekaf.mainTest.pool
+
+import lb.yaka.expectations.*
+import lb.yaka.gears.expect
+import org.jetbrains.dekaf.main.pool.PoolHousekeeper
+import org.jetbrains.dekaf.main.pool.ServicePool
+import org.jetbrains.dekaf.test.utils.UnitTest
+import org.junit.jupiter.api.Test
+import java.lang.Thread.sleep
+
+
+class PoolHousekeeperTest : UnitTest {
+
+    private class TestService {
+        var alive: Boolean = true
+        var pinged: Int = 0
+        var closed: Boolean = false
+        var broken: Boolean = false
+        fun close(broken: Boolean) { closed = true; this.broken = broken }
+    }
+
+    private class TestPool: ServicePool<TestService>() {
+        override fun openService(): TestService = TestService()
+        override fun closeService(service: TestService, wasBroken: Boolean) = service.close(broken = wasBroken)
+    }
+
+    private fun ping(s: TestService): Boolean {
+        s.pinged++
+        return s.alive
+    }
+
+
+    @Test
+    fun idleTimeout_keepsMinimum() {
+        val pool = TestPool()
+        pool.setup(minServices = 2)
+        val s1 = pool.borrow()
+        val s2 = pool.borrow()
+        val s3 = pool.borrow()
+        pool.release(s1)
+        pool.release(s2)
+        pool.release(s3)
+
+        val hk = PoolHousekeeper(pool, this::ping)
+        hk.setup(idleTimeout = 10L)
+        sleep(20L)
+        hk.housekeep()
+
+        expect that pool.totalCount equalsTo 2
+        expect that pool.idleCount equalsTo 2
+    }
+
+    @Test
+    fun maxLifetime_replaces() {
+        val pool = TestPool()
+        pool.setup(minServices = 1)
+        pool.populate()
+        val s1 = pool.borrow()
+        pool.release(s1)
+
+        val hk = PoolHousekeeper(pool, this::ping)
+        hk.setup(maxLifetime = 10L)
+        sleep(20L)
+        hk.housekeep()
+
+        expect that s1.closed equalsTo true
+        expect that pool.totalCount equalsTo 1
+
+        val s2 = pool.borrow()
+        expect that (s2 === s1) equalsTo false
+    }
+
+    @Test
+    fun keepAlive_pingsAndClosesDead() {
+        val pool = TestPool()
+        val s1 = pool.borrow()
+        val s2 = pool.borrow()
+        pool.release(s1)
+        pool.release(s2)
+        s2.alive = false
+
+        val hk = PoolHousekeeper(pool, this::ping)
+        hk.setup(keepAliveTime = 10L)
+        sleep(20L)
+        hk.housekeep()
+
+        expect that s1.pinged equalsTo 1
+        expect that s1.closed equalsTo false
+        expect that s2.closed equalsTo true
+        expect that s2.broken equalsTo true
+        expect that pool.totalCount equalsTo 1
+
+        hk.housekeep()
+
+        expect that s1.pinged equalsTo 1
+    }
+
+    @Test
+    fun start_refillsInBackground() {
+        val pool = TestPool()
+        pool.setup(minServices = 3)
+
+        val hk = PoolHousekeeper(pool, this::ping)
+        hk.start()
+        try {
+            for (i in 1..100) {
+                if (pool.totalCount >= 3) break
+                sleep(10L)
+            }
+        }
+        finally {
+            hk.stop()
+        }
+
+        expect that pool.idleCount equalsTo 3
+    }
+
+}
@@ -0,0 +1,81 @@
+package org.jetbrains.dekaf.mainTest.pool
+
+import lb.yaka.expectations.*
+import lb.yaka.gears.expect
+import org.jetbrains.dekaf.main.pool.BorrowerClass
+import org.jetbrains.dekaf.main.pool.PriorityGate
+import org.jetbrains.dekaf.main.pool.ServicePool
+import org.jetbrains.dekaf.test.utils.UnitTest
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+
+
+class PriorityGateTest : UnitTest {
+
+    private val interactive = BorrowerClass("interactive", priority = 10, minServices = 2)
+    private val batch = BorrowerClass("batch", priority = 1, maxServices = 3)
+
+
+    @Test
+    fun cap() {
+        val gate = PriorityGate(listOf(interactive, batch), 10)
+        repeat(3) { gate.acquire("batch", 1000L) }
+
+        assertThrows<ServicePool.ExhaustedException> {
+            gate.acquire("batch", 10L)
+        }
+        expect that gate.snapshot().first { it.name == "batch" }.exhaustedCount equalsTo 1L
+    }
+
+    @Test
+    fun guaranteedMinimum() {
+        val gate = PriorityGate(listOf(interactive, batch.copy(maxServices = 10)), 5)
+        repeat(3) { gate.acquire("batch", 1000L) }
+
+        assertThrows<ServicePool.ExhaustedException> {
+            gate.acquire("batch", 10L)
+        }
+
+        gate.acquire("interactive", 10L)
+        gate.acquire("interactive", 10L)
+    }
+
+    @Test
+    fun noHeadOfLineBlocking() {
+        val reports = BorrowerClass("reports", priority = 0)
+        val gate = PriorityGate(listOf(interactive.copy(minServices = 0), batch, reports), 10)
+        repeat(3) { gate.acquire("batch", 1000L) }
+
+        val batchWaiter = CompletableFuture.supplyAsync { gate.acquire("batch", 5000L) }
+        Thread.sleep(50L)
+
+        // the waiting batch borrower is stuck at its cap, but it should not block other classes
+        val p = gate.acquire("reports", 10L)
+        expect that p.className equalsTo "reports"
+        expect that batchWaiter.isDone equalsTo false
+    }
+
+    @Test
+    fun priorityOnRelease() {
+        val gate = PriorityGate(listOf(interactive.copy(minServices = 0), batch), 1)
+        val p = gate.acquire("batch", 1000L)
+
+        val batchWaiter = CompletableFuture.supplyAsync { gate.acquire("batch", 5000L) }
+        Thread.sleep(50L)
+        val interactiveWaiter = CompletableFuture.supplyAsync { gate.acquire("interactive", 5000L) }
+        Thread.sleep(50L)
+
+        p.release()
+
+        val p2 = interactiveWaiter.get(1, TimeUnit.SECONDS)
+        expect that p2.className equalsTo "interactive"
+        expect that batchWaiter.isDone equalsTo false
+
+        p2.release()
+
+        expect that batchWaiter.get(1, TimeUnit.SECONDS).className equalsTo "batch"
+    }
+
+}
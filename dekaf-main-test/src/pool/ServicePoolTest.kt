@@ -2,6 +2,8 @@ package org.jetbrains.dekaf.mainTest.pool
 
 import lb.yaka.expectations.*
 import lb.yaka.gears.expect
+import org.jetbrains.dekaf.main.pool.IdleVerdict
+import org.jetbrains.dekaf.main.pool.PoolMetrics
 import org.jetbrains.dekaf.main.pool.ServicePool
 import org.jetbrains.dekaf.test.utils.UnitTest
 import org.jetbrains.dekaf.test.utils.delay
@@ -9,7 +11,11 @@ import org.jetbrains.dekaf.test.utils.join
 import org.jetbrains.dekaf.test.utils.startMass
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
 import java.lang.Thread.sleep
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicInteger
 
 
@@ -204,4 +210,113 @@ class ServicePoolTest : UnitTest {
         expect that pool.idleCount inRange 5..6
    }
 
-}
\ No newline at end of file
+
+
+    @Test
+    fun metrics_basic() {
+        val pool = TestPool()
+        pool.setup(maxServices = 1, waitingTime = 10L)
+        val metrics = PoolMetrics()
+        pool.metrics = metrics
+
+        val s1 = pool.borrow()
+        assertThrows<ServicePool.ExhaustedException> { pool.borrow() }
+        pool.releaseBroken(s1)
+        val s2 = pool.borrow()
+        pool.release(s2)
+
+        val snapshot = metrics.snapshot(pool)
+        expect that snapshot.borrowWait.count equalsTo 2L
+        expect that snapshot.holdTime.count equalsTo 2L
+        expect that snapshot.openTime.count equalsTo 2L
+        expect that snapshot.closeTime.count equalsTo 1L
+        expect that snapshot.exhaustedCount equalsTo 1L
+        expect that snapshot.brokenCount equalsTo 1L
+        expect that snapshot.idleCount equalsTo 1
+    }
+
+
+
+    @Test
+    fun borrowAsync_fifo() {
+        val pool = TestPool()
+        pool.setup(maxServices = 1, waitingTime = 10_000L)
+
+        val s1 = pool.borrow()
+        val f2 = pool.borrowAsync()
+        val f3 = pool.borrowAsync()
+
+        expect that f2.isDone equalsTo false
+        expect that f3.isDone equalsTo false
+
+        pool.release(s1)
+
+        expect that f2.get(1, TimeUnit.SECONDS) sameAs s1
+        expect that f3.isDone equalsTo false
+
+        pool.release(f2.get())
+
+        expect that f3.get(1, TimeUnit.SECONDS) sameAs s1
+        pool.release(f3.get())
+
+        expect that pool.idleCount equalsTo 1
+    }
+
+    @Test
+    fun borrowAsync_cancelledAndExpired() {
+        val pool = TestPool()
+        pool.setup(maxServices = 1, waitingTime = 30L)
+
+        val s1 = pool.borrow()
+        val f2 = pool.borrowAsync()
+        f2.cancel(false)
+        val f3 = pool.borrowAsync()
+
+        val e = assertThrows<ExecutionException> { f3.get(1, TimeUnit.SECONDS) }
+        expect that (e.cause is ServicePool.ExhaustedException) equalsTo true
+
+        pool.release(s1)
+
+        expect that pool.idleCount equalsTo 1
+        expect that pool.borrowAsync().get(1, TimeUnit.SECONDS) sameAs s1
+    }
+
+    @Test
+    fun borrowAsync_opensInBackground() {
+        val pool = TestPool()
+
+        val s = pool.borrowAsync().get(1, TimeUnit.SECONDS)
+
+        expect that pool.activeCount equalsTo 1
+        pool.release(s)
+    }
+
+    @Test
+    fun borrowAsync_servedByKeptIdle() {
+        val pool = TestPool()
+        pool.setup(maxServices = 1, waitingTime = 10_000L)
+        pool.release(pool.borrow())
+
+        var f: CompletableFuture<TestService>? = null
+        pool.inspectIdleServices {
+            f = pool.borrowAsync()
+            IdleVerdict.Keep
+        }
+
+        expect that f!!.get(1, TimeUnit.SECONDS).nr equalsTo 1
+        expect that pool.activeCount equalsTo 1
+    }
+
+    @Test
+    fun borrowAsync_completedOutOfReleasingThread() {
+        val pool = TestPool()
+        pool.setup(maxServices = 1, waitingTime = 10_000L)
+
+        val s1 = pool.borrow()
+        val thread = pool.borrowAsync().thenApply { Thread.currentThread() }
+        pool.release(s1)
+
+        expect that (thread.get(1, TimeUnit.SECONDS) === Thread.currentThread()) equalsTo false
+    }
+
+}
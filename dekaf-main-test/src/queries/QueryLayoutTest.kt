@@ -13,6 +13,7 @@ import org.jetbrains.dekaf.mainTest.base.UnitTestWithH2
 import org.jetbrains.dekaf.mainTest.util.*
 import org.junit.jupiter.api.Order
 import org.junit.jupiter.api.Test
+import java.io.Reader
 import java.util.*
 import java.util.stream.Collectors
 import java.util.stream.Stream
@@ -100,6 +101,58 @@ class QueryLayoutTest : UnitTestWithH2 {
         checkList4x4(list)
     }
 
+    @Test @Order(6)
+    fun queryIteratorOfArrayOfMandatoryNumber_prefetching() {
+        val query: Query<Iterator<Array<out Number>>> =
+                Query(query4x4, layTableIteratorOf(layRowArrayOf<Number>(4, `0`), prefetchDepth = 2, portionSize = 1))
+        val list = ArrayList<Array<out Number>>()
+        dbf.inSession { session ->
+            val iterator = session.query(query).run()
+            for (element in iterator) list.add(element)
+        }
+
+        checkList4x4(list)
+    }
+
+    @Test @Order(7)
+    fun queryStreamOfArrayOfMandatoryNumber_prefetching_closedEarly() {
+        val query: Query<Stream<Array<out Number>>> =
+                Query(query4x4, layTableStreamOf(layRowArrayOf<Number>(4, `0`), prefetchDepth = 1, portionSize = 1))
+        val first = dbf.inSession { session ->
+            session.query(query).run().use { stream -> stream.findFirst().get() }
+        }
+
+        expect that first[0] equalsTo 1
+    }
+
+    @Test @Order(8)
+    fun queryIteratorOfArrayOfMandatoryNumber_prefetching_droppedAndRunAgain() {
+        val query: Query<Iterator<Array<out Number>>> =
+                Query(query4x4, layTableIteratorOf(layRowArrayOf<Number>(4, `0`), prefetchDepth = 1, portionSize = 1))
+        val list = ArrayList<Array<out Number>>()
+        dbf.inSession { session ->
+            val runner = session.query(query)
+            val dropped = runner.run()
+            expect that dropped.next()[0] equalsTo 1
+            // running again stops the prefetching of the dropped iterator
+            for (element in runner.run()) list.add(element)
+        }
+
+        checkList4x4(list)
+    }
+
+    @Test @Order(9)
+    fun queryIteratorOfArrayOfMandatoryNumber_prefetching_closedEarly() {
+        val query: Query<Iterator<Array<out Number>>> =
+                Query(query4x4, layTableIteratorOf(layRowArrayOf<Number>(4, `0`), prefetchDepth = 1, portionSize = 1))
+        dbf.inSession { session ->
+            val iterator = session.query(query).run()
+            expect that iterator.next()[0] equalsTo 1
+            (iterator as AutoCloseable).close()
+            expect that iterator.hasNext() equalsTo false
+        }
+    }
+
 
     private fun checkList4x4(list: List<Array<out Number>>) {
         expect that list hasSize 4
@@ -169,4 +222,112 @@ class QueryLayoutTest : UnitTestWithH2 {
         expect that list[3].l equalsTo 15L
     }
 
+    data class Item (val id: Int, val itemName: String?, val price: Double, val weight: Long?)
+
+    private val queryItems = """|select *
+                                  |from values (1, 'pen', 2.5, 10),
+                                  |            (2, null, 5.0, null)
+                                  |as T (ID, ITEM_NAME, PRICE, WEIGHT)
+                               """.trimMargin()
+
+    @Test @Order(14)
+    fun queryDataClassByName() {
+        val query = Query("select price, weight, id, item_name from ($queryItems)", layTableListOf(layRowOf<Item>()))
+        val list = dbf.inSession { session ->
+            session.query(query).run()
+        }
+
+        expect that list hasSize 2
+        expect that list[0] equalsTo Item(1, "pen", 2.5, 10L)
+        expect that list[1] equalsTo Item(2, null, 5.0, null)
+    }
+
+    @Test @Order(15)
+    fun queryDataClassByPosition() {
+        val query = Query(queryItems, layTableArrayOf(layRowOf<Item>(byName = false)))
+        val array = dbf.inSession { session ->
+            session.query(query).run()
+        }
+
+        expect that array hasSize 2
+        expect that array[0] equalsTo Item(1, "pen", 2.5, 10L)
+    }
+
+
+    data class TextItem (val id: Int, val content: Reader?) {
+        val madeBy: Thread = Thread.currentThread()
+    }
+
+    @Test @Order(16)
+    fun queryIteratorOfStreamingRows_notPrefetched() {
+        val text = "select X as ID, cast(repeat('ab', X * 100) as clob) as CONTENT from system_range(1, 10)"
+        val query = Query(text, layTableIteratorOf(layRowOf<TextItem>(), prefetchDepth = 2, portionSize = 4))
+        val lengths = ArrayList<Int>()
+        dbf.inSession { session ->
+            for (item in session.query(query).run()) {
+                // the reader is valid only until the next row is fetched
+                expect that item.madeBy equalsTo Thread.currentThread()
+                lengths.add(item.content!!.readText().length)
+            }
+        }
+
+        expect that lengths equalsTo (1..10).map { it * 200 }
+    }
+
+
+    @Test @Order(21)
+    fun queryColumnar() {
+        val query = Query(query4x4, layColumnarTable())
+        val batches = dbf.inSession { session ->
+            session.query(query).run()
+        }
+
+        expect that batches hasSize 1
+
+        val batch = batches[0]
+        expect that batch.rowCount equalsTo 4
+        expect that batch.columnCount equalsTo 4
+
+        val column = batch.getInts(2)
+        expect that column[0] equalsTo 3
+        expect that column[3] equalsTo 15
+    }
+
+
+    @Test @Order(22)
+    fun queryMultiResult_single() {
+        val query = Query(query4x4, layMultiResultOf(layTableListOf(layRowArrayOf<Number>(4, `0`))))
+        val results = dbf.inSession { session ->
+            session.query(query).run()
+        }
+
+        expect that results hasSize 1
+        @Suppress("unchecked_cast")
+        checkList4x4(results[0] as List<Array<out Number>>)
+    }
+
+    @Test @Order(23)
+    fun queryMultiResult_outCursor() {
+        val query = Query("{? = call DEKAF_TEST_NUMBERS(?)}",
+                          layMultiResultOf(layOutCursor(1, layTableListOf(layRowArrayOf<Number>(1, `0`)))))
+        val results = dbf.inSession { session ->
+            session.perform("create alias if not exists DEKAF_TEST_NUMBERS for \"${QueryLayoutTest::class.java.name}.numbers\"")
+            session.query(query).run(5)
+        }
+
+        expect that results hasSize 1
+        val rows = results[0] as List<*>
+        // H2 returns only the first row of a cursor through an output parameter
+        expect that (rows[0] as Array<*>)[0] equalsTo 5
+    }
+
+
+    companion object {
+
+        @JvmStatic
+        fun numbers(connection: java.sql.Connection, from: Int): java.sql.ResultSet =
+                connection.createStatement().executeQuery("select $from union all select ${from + 1}")
+
+    }
+
 }
@@ -1,10 +1,31 @@
 package org.jetbrains.dekaf.main.base
 
+import org.jetbrains.dekaf.inter.common.StatementCategory
 import org.jetbrains.dekaf.inter.intf.InterFacade
 import org.jetbrains.dekaf.inter.intf.InterSession
 import org.jetbrains.dekaf.inter.settings.Settings
 import org.jetbrains.dekaf.main.db.DbFacade
+import org.jetbrains.dekaf.main.db.DbSession
+import org.jetbrains.dekaf.main.pool.AdaptiveLimiter
+import org.jetbrains.dekaf.main.pool.AsyncWaiters
+import org.jetbrains.dekaf.main.pool.BorrowerClass
+import org.jetbrains.dekaf.main.pool.ConcurrentServicePool
+import org.jetbrains.dekaf.main.pool.LeakDetector
+import org.jetbrains.dekaf.main.pool.PoolHousekeeper
+import org.jetbrains.dekaf.main.pool.PoolMetrics
+import org.jetbrains.dekaf.main.pool.PoolMetricsBean
+import org.jetbrains.dekaf.main.pool.PoolMetricsSnapshot
+import org.jetbrains.dekaf.main.pool.PriorityGate
+import org.jetbrains.dekaf.main.pool.ServiceLender
 import org.jetbrains.dekaf.main.pool.ServicePool
+import org.jetbrains.dekaf.main.pool.WarmUpReport
+import org.jetbrains.dekaf.main.pool.warmUp
+import org.jetbrains.dekaf.main.queries.Query
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicReference
 
 
 class BaseFacade : DbFacade {
@@ -15,7 +36,43 @@ class BaseFacade : DbFacade {
 
     private var connected: Boolean = false
 
-    private val pool = Pool()
+    private var pool: ServiceLender<InterSession> = Pool()
+
+    private var housekeeper: PoolHousekeeper<InterSession>? = null
+
+    private var gate: PriorityGate? = null
+
+    private var limiter: AdaptiveLimiter? = null
+    private var defaultBorrowerClass: String = ""
+    private var waitingTime: Long = 10_000L
+
+    private val poolMetrics = PoolMetrics()
+
+    private var poolMetricsBean: PoolMetricsBean? = null
+    private var jmxName: String? = null
+
+    private var leakDetector: LeakDetector<BaseSession>? = null
+
+    private var healthCheck: HealthCheck? = null
+
+    /**
+     * The session used by the health check only, opened on the first probe.
+     */
+    private val probeSession = AtomicReference<InterSession?>()
+
+    /**
+     * Whether the probes may keep the probe session; cleared before the probe session is closed on disconnect.
+     */
+    @Volatile
+    private var probing: Boolean = false
+
+    private var warmUpParallelism: Int = 4
+    private var warmUpTimeout: Long = 30_000L
+
+    private val warmUpQueries = CopyOnWriteArrayList<Query<*>>()
+
+    override var warmUpReport: WarmUpReport? = null
+        private set
 
 
 
@@ -24,6 +81,11 @@ class BaseFacade : DbFacade {
         override fun closeService(service: InterSession, wasBroken: Boolean) = closeInterSession(service, wasBroken)
     }
 
+    private inner class ConcurrentPool : ConcurrentServicePool<InterSession>() {
+        override fun openService(): InterSession = openInterSession()
+        override fun closeService(service: InterSession, wasBroken: Boolean) = closeInterSession(service, wasBroken)
+    }
+
 
 
 
@@ -32,30 +94,233 @@ class BaseFacade : DbFacade {
 
         this.interFacade = interFacade
         this.settings = settings
+        val ps = settings.getNest("pool") ?: Settings.empty
+        this.pool = makePool(ps)
+        this.pool.metrics = poolMetrics
+        this.jmxName = ps.getString("jmx-name")
+        this.waitingTime = ps.getString("waiting-time")?.toLongOrNull() ?: 10_000L
+        this.gate = makeGate(ps)
+        this.limiter = makeLimiter(ps.getNest("limiter"))
+        this.housekeeper = makeHousekeeper(ps)
+        this.leakDetector = makeLeakDetector(ps.getNest("leak"))
+        this.warmUpParallelism = ps.getString("warm-up-parallelism")?.toIntOrNull() ?: 4
+        this.warmUpTimeout = ps.getString("warm-up-timeout")?.toLongOrNull() ?: 30_000L
+        this.healthCheck = makeHealthCheck(settings.getNest("health"))
+    }
+
+    private fun makePool(ps: Settings): ServiceLender<InterSession> {
+        val minSize = ps.getString("min-size")?.toIntOrNull()
+        val maxSize = ps.getString("max-size")?.toIntOrNull()
+        val waitingTime = ps.getString("waiting-time")?.toLongOrNull()
+        return when (val kind = ps.getString("kind") ?: "simple") {
+            "simple" -> Pool().apply {
+                val rotating = ps.getString("rotating")?.toBoolean()
+                setup(minServices = minSize ?: 0, maxServices = maxSize ?: 100,
+                      rotating = rotating ?: false, waitingTime = waitingTime ?: 10_000L)
+            }
+            "concurrent" -> ConcurrentPool().apply {
+                setup(minServices = minSize ?: 0, maxServices = maxSize ?: 100,
+                      waitingTime = waitingTime ?: 10_000L)
+            }
+            else -> throw IllegalArgumentException("Unknown pool kind: $kind")
+        }
+    }
+
+    private fun makeGate(ps: Settings): PriorityGate? {
+        val cs = ps.getNest("classes") ?: return null
+        val classes = cs.map { entry ->
+            val c = entry.nest() ?: Settings.empty
+            BorrowerClass(name = entry.name,
+                          priority = c.getString("priority")?.toIntOrNull() ?: 0,
+                          minServices = c.getString("min-size")?.toIntOrNull() ?: 0,
+                          maxServices = c.getString("max-size")?.toIntOrNull() ?: Int.MAX_VALUE)
+        }
+        if (classes.isEmpty()) return null
+        val defaultClass = ps.getString("default-class") ?: classes.first().name
+        val gate = PriorityGate(classes, ps.getString("max-size")?.toIntOrNull() ?: 100)
+        if (!gate.hasClass(defaultClass)) throw IllegalArgumentException("Unknown default borrower class: $defaultClass")
+        defaultBorrowerClass = defaultClass
+        return gate
+    }
+
+    private fun makeLimiter(ls: Settings?): AdaptiveLimiter? {
+        if (ls == null) return null
+        val threshold = ls.getString("latency-threshold")?.toLongOrNull() ?: return null
+        return AdaptiveLimiter(initialLimit = ls.getString("initial-limit")?.toIntOrNull() ?: 20,
+                               minLimit = ls.getString("min-limit")?.toIntOrNull() ?: 1,
+                               maxLimit = ls.getString("max-limit")?.toIntOrNull() ?: 200,
+                               latencyThreshold = TimeUnit.MILLISECONDS.toNanos(threshold),
+                               backoffRatio = ls.getString("backoff-ratio")?.toDoubleOrNull() ?: 0.9,
+                               queueTime = ls.getString("queue-time")?.toLongOrNull() ?: 0L)
+    }
+
+    private fun makeHousekeeper(ps: Settings): PoolHousekeeper<InterSession>? {
+        val idleTimeout = ps.getString("idle-timeout")?.toLongOrNull() ?: 0L
+        val maxLifetime = ps.getString("max-lifetime")?.toLongOrNull() ?: 0L
+        val keepAliveTime = ps.getString("keep-alive-time")?.toLongOrNull() ?: 0L
+        val period = ps.getString("housekeeping-period")?.toLongOrNull() ?: 30_000L
+        if (idleTimeout <= 0L && maxLifetime <= 0L && keepAliveTime <= 0L && pool.minCount <= 0) return null
+        val hk = PoolHousekeeper(pool) { session -> session.ping(); true }
+        hk.setup(idleTimeout = idleTimeout, maxLifetime = maxLifetime, keepAliveTime = keepAliveTime, period = period)
+        return hk
+    }
+
+
+    private fun makeLeakDetector(ls: Settings?): LeakDetector<BaseSession>? {
+        if (ls == null) return null
+        val threshold = ls.getString("threshold")?.toLongOrNull() ?: return null
+        val reclaim = ls.getString("reclaim")?.toBoolean() ?: false
+        return LeakDetector(threshold = threshold,
+                            sampling = ls.getString("sampling")?.toIntOrNull() ?: 16,
+                            period = ls.getString("period")?.toLongOrNull() ?: 1_000L,
+                            reclaimer = if (reclaim) BaseSession::reclaim else null)
+    }
+
+    private fun makeHealthCheck(hs: Settings?): HealthCheck? {
+        if (hs == null) return null
+        val period = hs.getString("period")?.toLongOrNull() ?: 1_000L
+        return HealthCheck(this::probe,
+                           ttl = hs.getString("ttl")?.toLongOrNull() ?: period * 3,
+                           timeout = hs.getString("timeout")?.toLongOrNull() ?: 5_000L,
+                           period = period)
     }
 
 
     override fun connect() {
         connected = true
+        if (warmUpParallelism > 0) warmUpReport = pool.warmUp(warmUpParallelism, warmUpTimeout, this::prepareWarmUpQueries)
+        housekeeper?.start()
+        leakDetector?.start()
+        probing = true
+        healthCheck?.start()
+        val jmxName = jmxName
+        if (jmxName != null && poolMetricsBean == null) {
+            poolMetricsBean = PoolMetricsBean(poolMetrics, pool, limiter, leakDetector).apply { register(jmxName) }
+        }
+    }
+
+    override fun prepareOnConnect(vararg queries: Query<*>) {
+        warmUpQueries.addAll(queries)
+    }
+
+    private fun prepareWarmUpQueries(interSession: InterSession) {
+        for (query in warmUpQueries) {
+            interSession.openSeance().use { seance ->
+                seance.prepare(query.text, StatementCategory.stmtQuery, null)
+            }
+        }
     }
 
     override fun disconnect() {
+        poolMetricsBean?.unregister()
+        poolMetricsBean = null
+        housekeeper?.stop()
+        leakDetector?.stop()
+        healthCheck?.stop()
+        probing = false
+        probeSession.getAndSet(null)?.let { closeInterSession(it, true) }
         connected = false
+        pool.closeIdleServices()
+    }
+
+
+    override fun openSession(): BaseSession =
+            limited { borrowSession(if (gate != null) defaultBorrowerClass else null) }
+
+    override fun openSession(priority: String): BaseSession =
+            limited { borrowSession(priority) }
+
+    override fun openSession(timeout: Long, priority: String?): BaseSession {
+        require(timeout > 0) { "Wrong session timeout: $timeout" }
+        val deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout)
+        val session = limited { borrowSession(priority ?: if (gate != null) defaultBorrowerClass else null) }
+        session.deadline = deadline
+        return session
+    }
+
+    private inline fun limited(block: () -> BaseSession): BaseSession {
+        val limiter = limiter ?: return block()
+        limiter.acquire()
+        try {
+            val session = block()
+            session.limiter = limiter
+            return session
+        }
+        catch (e: Throwable) {
+            limiter.release()
+            throw e
+        }
+    }
+
+    private fun borrowSession(priority: String?): BaseSession {
+        val gate = gate
+        if (gate == null || priority == null) {
+            val interSession = pool.borrow()
+            return newSession(interSession)
+        }
+        val permit = gate.acquire(priority, waitingTime)
+        try {
+            val interSession = pool.borrow()
+            val session = newSession(interSession)
+            session.permit = permit
+            return session
+        }
+        catch (e: Throwable) {
+            permit.release()
+            throw e
+        }
     }
 
+    override fun openSessionAsync(): CompletableFuture<DbSession> {
+        // permits of borrower classes and limiter slots are got by blocking, so do it in background
+        if (gate != null || limiter != null) {
+            val result = CompletableFuture<DbSession>()
+            AsyncWaiters.opener.execute {
+                // the caller could cancel it or give up waiting before we started
+                if (result.isDone) return@execute
+                try {
+                    val session = openSession()
+                    if (!result.complete(session)) session.close()
+                }
+                catch (e: Throwable) {
+                    result.completeExceptionally(e)
+                }
+            }
+            return result
+        }
+        val borrowing = pool.borrowAsync()
+        val result = CompletableFuture<DbSession>()
+        // the caller's continuations must not run in the thread that released the connection
+        borrowing.whenCompleteAsync({ interSession, e ->
+            if (e != null) result.completeExceptionally(e)
+            else {
+                val session = newSession(interSession)
+                if (!result.complete(session)) session.close()
+            }
+        }, AsyncWaiters.opener)
+        result.whenComplete { _, e ->
+            if (e is CancellationException) borrowing.cancel(false)
+        }
+        return result
+    }
 
-    override fun openSession(): BaseSession {
-        val interSession = pool.borrow()
+    private fun newSession(interSession: InterSession): BaseSession {
         val session = BaseSession(this, interSession)
+        leakDetector?.borrowed(session)
         return session
     }
 
+    internal fun sessionReturned(session: BaseSession) {
+        leakDetector?.returned(session)
+    }
+
     internal fun releaseInterSessionBack(interSession: InterSession) {
         pool.release(interSession)
     }
 
     internal fun releaseInterSessionBroken(interSession: InterSession) {
         pool.releaseBroken(interSession)
+        housekeeper?.requestRefill()
     }
 
 
@@ -63,6 +328,9 @@ class BaseFacade : DbFacade {
         if (!connected) return false
         if (!ping) return true
 
+        val healthCheck = healthCheck
+        if (healthCheck != null) return healthCheck.isHealthy
+
         openInterSession().use { interSession ->
             try {
                 interSession.ping()
@@ -74,6 +342,27 @@ class BaseFacade : DbFacade {
         }
     }
 
+    /**
+     * Pings the database via the probe session; the broken session is closed,
+     * so the next probe opens a new one.
+     */
+    private fun probe() {
+        val session = probeSession.get() ?: openInterSession().also { probeSession.set(it) }
+        if (!probing) {
+            // the facade is disconnected while the session was being opened
+            if (probeSession.compareAndSet(session, null)) closeInterSession(session, true)
+            throw IllegalStateException("The facade is disconnected")
+        }
+        try {
+            session.ping()
+        }
+        catch (e: Exception) {
+            probeSession.compareAndSet(session, null)
+            closeInterSession(session, true)
+            throw e
+        }
+    }
+
 
     private fun openInterSession(): InterSession {
         val f = interFacade ?: throw IllegalStateException("Facade is not set up")
@@ -81,11 +370,16 @@ class BaseFacade : DbFacade {
     }
 
     private fun closeInterSession(session: InterSession, wasBroken: Boolean) {
-        session.rollback()
+        if (!wasBroken) session.rollback()
         session.close()
     }
 
     override fun countActiveSessions(): Int {
         return pool.activeCount
     }
+
+    override fun metricsSnapshot(): PoolMetricsSnapshot =
+            poolMetrics.snapshot(pool).copy(classes = gate?.snapshot() ?: emptyList(),
+                                            limiter = limiter?.snapshot(),
+                                            leaks = leakDetector?.snapshot())
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package org.jetbrains.dekaf.main.base
 
+import org.jetbrains.dekaf.inter.common.StatementCategory
 import org.jetbrains.dekaf.inter.intf.InterSession
 import org.jetbrains.dekaf.main.db.DbInsideTransaction
 import org.jetbrains.dekaf.main.db.DbQueryRunner
@@ -21,13 +22,31 @@ sealed class BasePerformer : DbInsideTransaction {
 
 
     override fun perform(statementText: String) {
-        interSession.perform(statementText)
+        if (baseSession.deadline == 0L) {
+            interSession.perform(statementText)
+            return
+        }
+        interSession.openSeance().use { seance ->
+            seance.prepare(statementText, StatementCategory.stmtSimple, null)
+            seance.setTimeout(baseSession.boundTimeout(0L, statementText))
+            seance.execute(null)
+        }
+    }
+
+    override fun performBatch(statementText: String, rows: Iterable<Iterable<Any?>>, flushEvery: Int): IntArray {
+        interSession.openSeance().use { seance ->
+            seance.prepare(statementText, StatementCategory.stmtUpdate, null)
+            seance.setTimeout(baseSession.boundTimeout(0L, statementText))
+            return seance.executeBatch(rows, flushEvery)
+        }
     }
 
 
     override fun <T> query(queryText: String, layout: QueryLayout<T>): BaseQueryRunner<T> {
         val seance = interSession.openSeance()
-        return BaseQueryRunner(baseSession, seance, queryText, layout)
+        val runner = BaseQueryRunner(baseSession, seance, queryText, layout)
+        baseSession.runnerJustOpened(runner)
+        return runner
     }
     
     override fun <T> query(query: Query<T>): DbQueryRunner<T> {
@@ -1,6 +1,7 @@
 package org.jetbrains.dekaf.main.base
 
 import org.jetbrains.dekaf.inter.common.StatementCategory
+import org.jetbrains.dekaf.inter.exceptions.DBQueryCancelledException
 import org.jetbrains.dekaf.inter.intf.InterSeance
 import org.jetbrains.dekaf.main.db.DbQueryRunner
 import org.jetbrains.dekaf.main.queries.QueryLayout
@@ -15,6 +16,16 @@ class BaseQueryRunner<T> : DbQueryRunner<T> {
     private val queryText: String
     private val layout: QueryLayout<T>
 
+    private var closed: Boolean = false
+
+    private var timeout: Long = 0L
+
+    /**
+     * Whether [cancel] was called during the current run or before it; cleared when the run completes.
+     */
+    @Volatile
+    private var cancelRequested: Boolean = false
+
 
 
     constructor(session: BaseSession, seance: InterSeance, queryText: String, layout: QueryLayout<T>) {
@@ -26,18 +37,52 @@ class BaseQueryRunner<T> : DbQueryRunner<T> {
 
     
     override fun run(vararg paramValues: Any?): T {
+        if (closed) throw IllegalStateException("The query runner is closed")
         val params: List<Any?>? = if (paramValues.isNotEmpty()) Arrays.asList(*paramValues) else null
-        seance.prepare(queryText, StatementCategory.stmtQuery, null)
-        seance.execute(params)
-        val collector: ResultCollector<T> = layout.makeResultCollector()
-        collector.prepare(seance, 0)
-        val result: T = collector.retrieve()
-        collector.close()
-        return result
+        try {
+            if (!seance.isPrepared) seance.prepare(queryText, StatementCategory.stmtQuery, layout.paramDefs(params?.size ?: 0))
+            // a passed session deadline says nothing about the database load, so it's not sampled
+            seance.setTimeout(session.boundTimeout(timeout, queryText))
+            val t0 = System.nanoTime()
+            try {
+                seance.execute(params)
+            }
+            catch (e: DBQueryCancelledException) {
+                // only the timeouts mean overload, the user cancellation doesn't
+                if (!cancelRequested) session.queryPerformed(System.nanoTime() - t0, true)
+                throw e
+            }
+            session.queryPerformed(System.nanoTime() - t0, false)
+            val collector: ResultCollector<T> = layout.makeResultCollector()
+            collector.prepare(seance, 0)
+            val result: T = collector.retrieve()
+            collector.close()
+            return result
+        }
+        finally {
+            cancelRequested = false
+        }
+    }
+
+    override fun runMany(params: Sequence<Array<out Any?>>): Sequence<T> =
+            params.map { paramValues -> run(*paramValues) }
+
+    override fun withTimeout(timeout: Long): BaseQueryRunner<T> {
+        require(timeout >= 0L) { "Wrong timeout: $timeout" }
+        this.timeout = timeout
+        return this
+    }
+
+    override fun cancel() {
+        cancelRequested = true
+        seance.cancel()
     }
 
     override fun close() {
-        //TODO("not implemented yet")
+        if (closed) return
+        closed = true
+        seance.close()
+        session.runnerJustClosed(this)
     }
 
-}
\ No newline at end of file
+}
@@ -1,12 +1,16 @@
 package org.jetbrains.dekaf.main.base
 
+import org.jetbrains.dekaf.inter.exceptions.DBQueryCancelledException
 import org.jetbrains.dekaf.inter.intf.InterSession
 import org.jetbrains.dekaf.main.db.DbQueryRunner
 import org.jetbrains.dekaf.main.db.DbSession
 import org.jetbrains.dekaf.main.db.DbTransaction
+import org.jetbrains.dekaf.main.pool.AdaptiveLimiter
+import org.jetbrains.dekaf.main.pool.PriorityGate
 import org.jetbrains.dekaf.main.queries.Query
 import org.jetbrains.dekaf.main.queries.QueryLayout
 import org.jetbrains.dekaf.main.util.choose
+import java.util.concurrent.TimeUnit
 
 
 class BaseSession (private val facade: BaseFacade) : DbSession {
@@ -16,9 +20,26 @@ class BaseSession (private val facade: BaseFacade) : DbSession {
     private var activeTransactionPerformer: InTransactionPerformer? = null
     private var beyondTransactionPerformer: BeyondTransactionPerformer? = null
 
+    private val runners = ArrayList<BaseQueryRunner<*>>()
+
     private var broken: Boolean = false
     private var closed: Boolean = false
 
+    /**
+     * The permit of the borrower class this session was opened for.
+     */
+    internal var permit: PriorityGate.Permit? = null
+
+    /**
+     * The limiter this session holds a slot of.
+     */
+    internal var limiter: AdaptiveLimiter? = null
+
+    /**
+     * When the session should complete its work, by [System.nanoTime], or 0 when there's no deadline.
+     */
+    internal var deadline: Long = 0L
+
 
     constructor(facade: BaseFacade, interSession: InterSession) : this(facade) {
         this.interSession = interSession
@@ -31,6 +52,11 @@ class BaseSession (private val facade: BaseFacade) : DbSession {
             p.perform(statementText)
         }
 
+    override fun performBatch(statementText: String, rows: Iterable<Iterable<Any?>>, flushEvery: Int): IntArray =
+        inside { p ->
+            p.performBatch(statementText, rows, flushEvery)
+        }
+
     override fun <T> query(queryText: String, layout: QueryLayout<T>): DbQueryRunner<T> =
         inside { p -> 
             p.query(queryText, layout)
@@ -71,6 +97,30 @@ class BaseSession (private val facade: BaseFacade) : DbSession {
     }
 
 
+    @Synchronized
+    internal fun runnerJustOpened(runner: BaseQueryRunner<*>) {
+        runners.add(runner)
+    }
+
+    @Synchronized
+    internal fun runnerJustClosed(runner: BaseQueryRunner<*>) {
+        runners.remove(runner)
+    }
+
+    private fun closeAllRunners() {
+        val runnersToClose = detachRunners()
+        for (i in runnersToClose.indices.reversed()) {
+            try {
+                runnersToClose[i].close()
+            }
+            catch (e: Exception) {
+                // the session is being closed anyway: the other runners must be closed
+                // and the inter-session must be returned, so one failed runner doesn't stop it
+            }
+        }
+    }
+
+
     private fun ensureBeyondTransaction(): BeyondTransactionPerformer {
         var bt: BeyondTransactionPerformer? = beyondTransactionPerformer
         if (bt == null) {
@@ -94,16 +144,68 @@ class BaseSession (private val facade: BaseFacade) : DbSession {
 
 
     override fun markBroken() {
-        broken = true
+        facade.sessionReturned(this)
+        reclaim()
+    }
+
+    /**
+     * Takes the inter-session back from the leaked session; the session becomes broken.
+     * Called by the leak detector from its own thread.
+     */
+    internal fun reclaim() {
+        synchronized(this) {
+            broken = true
+            runners.clear()
+        }
         val s = detachInterSession()
         if (s != null) facade.releaseInterSessionBroken(s)
+        releasePermit()
     }
 
     override fun close() {
+        closeAllRunners()
+        facade.sessionReturned(this)
         val s = detachInterSession()
         if (s != null) facade.releaseInterSessionBack(s)
+        releasePermit()
+    }
+
+    @Synchronized
+    private fun releasePermit() {
+        val p = permit
+        permit = null
+        p?.release()
+        val l = limiter
+        limiter = null
+        l?.release()
+    }
+
+    /**
+     * The execution timeout for the next statement, in milliseconds.
+     * @param timeout the timeout of the statement itself, or 0 when it's not limited.
+     * @return the timeout bounded by the session deadline, or 0 for no limit.
+     * @throws DBQueryCancelledException when the deadline has already passed.
+     */
+    internal fun boundTimeout(timeout: Long, statementText: String): Long {
+        val d = deadline
+        if (d == 0L) return timeout
+        val remaining = TimeUnit.NANOSECONDS.toMillis(d - System.nanoTime())
+        if (remaining <= 0L) throw DBQueryCancelledException("The session deadline has passed", statementText)
+        return if (timeout > 0L) minOf(timeout, remaining) else remaining
+    }
+
+    internal fun queryPerformed(latency: Long, timedOut: Boolean) {
+        limiter?.onSample(latency, timedOut)
+    }
+
+    @Synchronized
+    private fun detachRunners(): Array<BaseQueryRunner<*>> {
+        val array = runners.toTypedArray()
+        runners.clear()
+        return array
     }
 
+    @Synchronized
     private fun detachInterSession(): InterSession? {
         val s = interSession
         interSession = null
@@ -0,0 +1,125 @@
+package org.jetbrains.dekaf.main.base
+
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicInteger
+
+
+/**
+ * Probes the database in background and caches the result,
+ * so checking the health is just reading the cached state.
+ *
+ * @param probe   checks the database; throws when it's not accessible.
+ * @param ttl     how long (in milliseconds) the probe result is valid;
+ *                when it's older, the database is considered as not accessible.
+ * @param timeout how long (in milliseconds) to wait for a probe.
+ * @param period  how often (in milliseconds) to probe.
+ */
+internal class HealthCheck (private val probe: () -> Unit,
+                            private val ttl: Long,
+                            private val timeout: Long,
+                            private val period: Long) {
+
+    /// STATE \\\
+
+    @Volatile
+    private var healthy: Boolean = false
+
+    /**
+     * When the last probe finished, by [System.nanoTime], or 0 when no probes yet.
+     */
+    @Volatile
+    private var probedAt: Long = 0L
+
+    @Volatile
+    private var executor: ScheduledExecutorService? = null
+
+    /**
+     * The probe being performed; a hung probe is not repeated until it finishes.
+     */
+    @Volatile
+    private var inFlight: Future<*>? = null
+
+
+    /// CONTROL \\\
+
+    /**
+     * Probes the database once (waiting for the result) and starts probing in background.
+     */
+    @Synchronized
+    fun start() {
+        if (executor != null) return
+        val ex = Executors.newScheduledThreadPool(2) { r ->
+            val thread = Thread(r, "dekaf-health-check-" + threadCounter.incrementAndGet())
+            thread.isDaemon = true
+            thread
+        }
+        executor = ex
+        probeNow()
+        ex.scheduleWithFixedDelay(this::probeNow, period, period, TimeUnit.MILLISECONDS)
+    }
+
+    @Synchronized
+    fun stop() {
+        val ex = executor ?: return
+        executor = null
+        ex.shutdownNow()
+        inFlight = null
+        healthy = false
+        probedAt = 0L
+    }
+
+
+    /// PROBING \\\
+
+    /**
+     * Performs a probe with the timeout and remembers its result.
+     * When the previous probe is still running, the database is considered as not accessible.
+     */
+    fun probeNow(): Boolean {
+        val ex = executor ?: return false
+        val previous = inFlight
+        val ok = if (previous != null && !previous.isDone) false
+        else try {
+            val future = ex.submit(probe)
+            inFlight = future
+            future.get(timeout, TimeUnit.MILLISECONDS)
+            true
+        }
+        catch (e: TimeoutException) {
+            false
+        }
+        catch (e: ExecutionException) {
+            false
+        }
+        catch (e: Exception) {
+            // the executor is stopped or the thread is interrupted
+            false
+        }
+        healthy = ok
+        probedAt = System.nanoTime()
+        return ok
+    }
+
+    /**
+     * The cached result of the last probe, if it's not expired.
+     */
+    val isHealthy: Boolean
+        get() {
+            val t = probedAt
+            if (t == 0L) return false
+            return healthy && System.nanoTime() - t <= TimeUnit.MILLISECONDS.toNanos(ttl)
+        }
+
+
+    private companion object {
+
+        private val threadCounter = AtomicInteger()
+
+    }
+
+}
@@ -1,18 +1,69 @@
 package org.jetbrains.dekaf.main.db
 
+import org.jetbrains.dekaf.main.pool.PoolMetricsSnapshot
+import org.jetbrains.dekaf.main.pool.WarmUpReport
+import org.jetbrains.dekaf.main.queries.Query
+import java.util.concurrent.CompletableFuture
+
 
 interface DbFacade {
 
+    /**
+     * Connects to the database: opens the minimal count of sessions concurrently
+     * and prepares the registered queries on each of them.
+     * @see prepareOnConnect
+     * @see warmUpReport
+     */
     fun connect()
 
+    /**
+     * Registers queries to prepare on each session opened by [connect],
+     * so their prepared statements are cached when the statement cache is on.
+     */
+    fun prepareOnConnect(vararg queries: Query<*>)
+
+    /**
+     * What the last [connect] has managed to open and prepare, or null when not connected yet.
+     */
+    val warmUpReport: WarmUpReport?
+
     fun disconnect()
 
     fun openSession(): DbSession
 
+    /**
+     * Opens a session for the given borrower class (see the ``pool.classes`` settings).
+     * When no borrower classes are configured, the priority is ignored.
+     */
+    fun openSession(priority: String): DbSession
+
+    /**
+     * Opens a session that should complete its work in the given time, counting from this call:
+     * the time of waiting for a free session is counted too, and queries of the session
+     * are cancelled when the time is out.
+     * @param timeout  the time in milliseconds.
+     * @param priority the borrower class, or null for the default one.
+     */
+    fun openSession(timeout: Long, priority: String? = null): DbSession
+
+    /**
+     * Opens a session without blocking the caller.
+     *
+     * When all sessions are busy, the request is queued, and released sessions
+     * are given to the queued requests in order. The future fails when no session
+     * is got in the pool waiting time; cancel it to leave the queue.
+     */
+    fun openSessionAsync(): CompletableFuture<DbSession>
+
     fun isConnected(ping: Boolean = false): Boolean
 
     fun countActiveSessions(): Int
 
+    /**
+     * Current metrics of the session pool: counts of sessions and events, and latency histograms.
+     */
+    fun metricsSnapshot(): PoolMetricsSnapshot
+
 }
 
 
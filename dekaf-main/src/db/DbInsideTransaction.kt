@@ -11,6 +11,13 @@ interface DbInsideTransaction {
      */
     fun perform(statementText: String)
 
+    /**
+     * Performs a statement once per the given row of parameters,
+     * sending the rows to the server in batches of [flushEvery] rows.
+     * @return numbers of affected rows, one per the given row.
+     */
+    fun performBatch(statementText: String, rows: Iterable<Iterable<Any?>>, flushEvery: Int = 1000): IntArray
+
 
     fun<T> query(queryText: String, layout: QueryLayout<T>): DbQueryRunner<T>
 
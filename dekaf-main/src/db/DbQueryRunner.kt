@@ -3,6 +3,37 @@ package org.jetbrains.dekaf.main.db
 
 interface DbQueryRunner<T>: AutoCloseable {
 
+    /**
+     * Executes the query with the given parameters and retrieves the result.
+     * The query is prepared once, at the first run, and is reused by the following runs.
+     */
     fun run(vararg paramValues: Any?): T
 
+    /**
+     * Executes the query once per the given set of parameters.
+     * The sequence is lazy: the next execution happens when the next result is requested.
+     */
+    fun runMany(params: Sequence<Array<out Any?>>): Sequence<T>
+
+    /**
+     * Limits the time of each following execution: when it's out, the query is cancelled
+     * and the execution fails with [org.jetbrains.dekaf.inter.exceptions.DBQueryCancelledException].
+     * The session deadline (if any) limits it too.
+     * The timeout covers the execution only: fetching the rows of the result is not limited by it.
+     * @param timeout the timeout in milliseconds, or 0 for no limit.
+     * @return this runner.
+     */
+    fun withTimeout(timeout: Long): DbQueryRunner<T>
+
+    /**
+     * Cancels the query being executed; can be called from another thread.
+     * When the query is not being executed yet, its next run is cancelled.
+     */
+    fun cancel()
+
+    /**
+     * Releases the prepared query.
+     */
+    override fun close()
+
 }
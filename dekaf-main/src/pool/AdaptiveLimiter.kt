@@ -0,0 +1,143 @@
+package org.jetbrains.dekaf.main.pool
+
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.LongAdder
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+
+/**
+ * Limits how many sessions can be used at the same time,
+ * adjusting the limit by the observed query latency (AIMD):
+ * when a query is slower than the threshold or times out, the limit is multiplied by the backoff ratio;
+ * when a query is fast and at least half of the limit is in use, the limit is increased by one.
+ *
+ * The limit is decreased at most once per window: the overloaded queries that started
+ * before the last decrease were admitted by the old limit, so they don't decrease it again.
+ *
+ * @param initialLimit     the limit to start with.
+ * @param minLimit         the limit is never less than this.
+ * @param maxLimit         the limit is never greater than this.
+ * @param latencyThreshold query latency (in nanoseconds) that is considered as overload.
+ * @param backoffRatio     how to decrease the limit on overload, from 0.5 to 1.0.
+ * @param queueTime        how long (in milliseconds) to wait for a free slot before rejecting.
+ */
+class AdaptiveLimiter (initialLimit: Int = 20,
+                       private val minLimit: Int = 1,
+                       private val maxLimit: Int = 200,
+                       private val latencyThreshold: Long,
+                       private val backoffRatio: Double = 0.9,
+                       private val queueTime: Long = 0L) {
+
+    /// STATE \\\
+
+    /**
+     * Changed under the [lock] only.
+     */
+    @Volatile
+    private var limitValue: Double = initialLimit.toDouble().coerceIn(minLimit.toDouble(), maxLimit.toDouble())
+
+    /**
+     * When the limit was decreased last time, by [System.nanoTime].
+     */
+    private var decreasedAt: Long = System.nanoTime() - Long.MAX_VALUE / 2
+
+    private val inFlightCount = AtomicInteger(0)
+
+    private val rejectedAdder = LongAdder()
+
+    private val lock = ReentrantLock()
+    private val released = lock.newCondition()
+
+
+    /// ADMISSION \\\
+
+    /**
+     * Takes a slot, waiting for it no longer than the queue time.
+     * @throws LimitExceededException when the limit is reached.
+     */
+    @Throws(LimitExceededException::class)
+    fun acquire() {
+        if (tryAcquire()) return
+        if (queueTime > 0L) {
+            var nanos = TimeUnit.MILLISECONDS.toNanos(queueTime)
+            lock.withLock {
+                while (nanos > 0L) {
+                    if (tryAcquire()) return
+                    nanos = released.awaitNanos(nanos)
+                }
+            }
+            if (tryAcquire()) return
+        }
+        rejectedAdder.increment()
+        throw LimitExceededException(limit)
+    }
+
+    private fun tryAcquire(): Boolean {
+        while (true) {
+            val n = inFlightCount.get()
+            if (n >= limit) return false
+            if (inFlightCount.compareAndSet(n, n + 1)) return true
+        }
+    }
+
+    /**
+     * Returns the slot taken by [acquire].
+     */
+    fun release() {
+        inFlightCount.decrementAndGet()
+        if (queueTime > 0L) lock.withLock { released.signal() }
+    }
+
+
+    /// ADAPTATION \\\
+
+    /**
+     * Takes into account the latency of a just performed query.
+     * @param latency  the query time in nanoseconds.
+     * @param timedOut whether the query was cancelled by its timeout.
+     */
+    fun onSample(latency: Long, timedOut: Boolean) {
+        val now = System.nanoTime()
+        lock.withLock {
+            val current = limitValue
+            val newLimit =
+                    if (timedOut || latency > latencyThreshold) {
+                        if (now - latency - decreasedAt < 0L) return
+                        decreasedAt = now
+                        current * backoffRatio
+                    }
+                    else if (inFlightCount.get() * 2 >= current) current + 1.0
+                    else return
+            limitValue = newLimit.coerceIn(minLimit.toDouble(), maxLimit.toDouble())
+            if (newLimit > current && queueTime > 0L) released.signalAll()
+        }
+    }
+
+
+    /// DIAGNOSTICS \\\
+
+    val limit: Int
+        get() = limitValue.toInt()
+
+    val inFlight: Int
+        get() = inFlightCount.get()
+
+    val rejectedCount: Long
+        get() = rejectedAdder.sum()
+
+    fun snapshot() = LimiterSnapshot(limit, inFlight, rejectedCount)
+
+}
+
+
+/**
+ * State of an adaptive limiter at some moment.
+ */
+data class LimiterSnapshot (val limit: Int,
+                            val inFlight: Int,
+                            val rejectedCount: Long)
+
+
+class LimitExceededException (limit: Int) : ServicePool.Exception("Concurrency limit $limit is reached")
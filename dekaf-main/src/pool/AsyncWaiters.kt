@@ -0,0 +1,99 @@
+package org.jetbrains.dekaf.main.pool
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+
+
+/**
+ * FIFO queue of asynchronous borrowers of a service pool.
+ *
+ * Each waiter is a future that is completed with a service by [serve],
+ * or fails with [ServicePool.ExhaustedException] when its deadline comes,
+ * or is cancelled by the borrower.
+ *
+ * @param giveBack returns a served service to the pool when its waiter was cancelled meanwhile.
+ */
+internal class AsyncWaiters<S: Any>(private val giveBack: (S) -> Unit) {
+
+    private class Waiter<S> (val future: CompletableFuture<S>, val since: Long) {
+        /**
+         * Set by the one who decided how the future completes.
+         */
+        val claimed = AtomicBoolean(false)
+    }
+
+    private val queue = ConcurrentLinkedQueue<Waiter<S>>()
+
+
+    val isNotEmpty: Boolean
+        get() = !queue.isEmpty()
+
+    /**
+     * Adds a new waiter to the end of the queue.
+     * @param since   when the borrowing started, by [System.nanoTime].
+     * @param timeout the deadline in milliseconds since now.
+     * @param onExhausted called with the waited time when the deadline comes.
+     */
+    fun enqueue(since: Long, timeout: Long, onExhausted: (Long) -> Unit): CompletableFuture<S> {
+        val future = CompletableFuture<S>()
+        val waiter = Waiter(future, since)
+        queue.add(waiter)
+        CompletableFuture.delayedExecutor(timeout, TimeUnit.MILLISECONDS).execute {
+            if (waiter.claimed.compareAndSet(false, true) && future.completeExceptionally(ServicePool.ExhaustedException()))
+                onExhausted(System.nanoTime() - since)
+        }
+        future.whenComplete { _, e -> if (e != null) queue.remove(waiter) }
+        return future
+    }
+
+    /**
+     * Gives the service to the oldest waiting future.
+     * The future is completed on the [opener], so the borrower's continuations
+     * don't run in the thread that released the service.
+     * @return how long the served waiter waited, in nanoseconds, or -1 when nobody waits.
+     */
+    fun serve(service: S): Long {
+        while (true) {
+            val w = queue.poll() ?: return -1L
+            if (w.future.isDone || !w.claimed.compareAndSet(false, true)) continue
+            opener.execute {
+                // the borrower could cancel the future meanwhile
+                if (!w.future.complete(service)) giveBack(service)
+            }
+            return System.nanoTime() - w.since
+        }
+    }
+
+    /**
+     * Fails the oldest waiting future.
+     */
+    fun fail(e: Throwable) {
+        while (true) {
+            val w = queue.poll() ?: return
+            if (w.claimed.compareAndSet(false, true) && w.future.completeExceptionally(e)) return
+        }
+    }
+
+
+    companion object {
+
+        private val threadCounter = AtomicInteger()
+
+        /**
+         * Opens services for asynchronous borrowers, so they never wait for a connection in their own threads.
+         */
+        val opener: Executor =
+                Executors.newCachedThreadPool { task ->
+                    val thread = Thread(task, "dekaf-pool-opener-" + threadCounter.incrementAndGet())
+                    thread.isDaemon = true
+                    thread
+                }
+
+    }
+
+}
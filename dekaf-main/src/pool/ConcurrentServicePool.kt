@@ -0,0 +1,399 @@
+package org.jetbrains.dekaf.main.pool
+
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+
+/**
+ * Service pool for highly concurrent borrowing.
+ *
+ * A thread gets back the service it released last time, if this service is idle;
+ * otherwise it takes any idle service from the shared list.
+ * Services are taken by changing their state atomically, without locks.
+ * Threads that wait for a service are parked on a wake-up queue;
+ * releasing a service just offers a wake-up to this queue without waiting,
+ * and the woken thread takes the idle service itself.
+ */
+abstract class ConcurrentServicePool<S: Any> : ServiceLender<S> {
+
+    /// INITIALIZATION \\\
+
+    fun setup(minServices: Int = this.minServices,
+              maxServices: Int = this.maxServices,
+              waitingTime: Long = this.waitingTime) {
+        this.minServices = minServices
+        this.maxServices = maxServices
+        this.waitingTime = waitingTime
+    }
+
+
+    /// METHODS TO OVERRIDE/IMPLEMENT \\\
+
+    protected abstract fun openService(): S
+
+    protected abstract fun closeService(service: S, wasBroken: Boolean)
+
+
+    /// INNER CLASSES \\\
+
+    private companion object {
+
+        const val IDLE    = 0
+        const val ACTIVE  = 1
+        const val REMOVED = -1
+
+        /**
+         * Offered to waiters when a broken service is removed, so a waiter can open a new one.
+         */
+        val FreeSlot = Any()
+
+        /**
+         * Capacity of the wake-up queue; when it's full, enough waiters are being woken up already.
+         */
+        const val WAKEUPS_CAPACITY = 1024
+
+        @JvmStatic
+        private fun now(): Long = System.currentTimeMillis()
+
+    }
+
+    private inner class Handle (override val service: S, initialState: Int) : IdleService<S> {
+
+        private val state = AtomicInteger(initialState)
+
+        @Volatile
+        var last: Long = now()
+            private set
+
+        override val createdTime: Long = last
+
+        override val releasedTime: Long
+            get() = last
+
+        @Volatile
+        override var checkedTime: Long = last
+
+        /**
+         * When the service was borrowed last time, by [System.nanoTime].
+         */
+        @Volatile
+        var borrowedNanos: Long = System.nanoTime()
+            private set
+
+        val idle: Boolean
+            get() = state.get() == IDLE
+
+        internal fun tryActivate(): Boolean {
+            if (!state.compareAndSet(IDLE, ACTIVE)) return false
+            last = now()
+            borrowedNanos = System.nanoTime()
+            return true
+        }
+
+        /**
+         * Takes the idle service out of circulation without touching its time.
+         */
+        internal fun tryReserve(): Boolean =
+                state.compareAndSet(IDLE, ACTIVE)
+
+        internal fun unreserve() {
+            state.set(IDLE)
+        }
+
+        /**
+         * Marks the active service as just borrowed again.
+         */
+        internal fun renew() {
+            last = now()
+            borrowedNanos = System.nanoTime()
+        }
+
+        internal fun passivate() {
+            last = now()
+            state.set(IDLE)
+        }
+
+        internal fun tryRemoveIdle(): Boolean =
+                state.compareAndSet(IDLE, REMOVED)
+
+        internal fun remove() {
+            state.set(REMOVED)
+        }
+
+    }
+
+
+    /// INTERNAL STATE \\\
+
+    @Volatile private var minServices: Int = 0
+    @Volatile private var maxServices: Int = 100
+
+    @Volatile private var waitingTime: Long = 10_000 // ms
+
+    private val services: MutableMap<S, Handle> = ConcurrentHashMap()
+    private val handles = CopyOnWriteArrayList<Handle>()
+
+    /**
+     * Count of services, including the ones being opened.
+     */
+    private val reservedServices = AtomicInteger(0)
+
+    /**
+     * The service released by the current thread last time.
+     */
+    private val affinity = ThreadLocal<Handle?>()
+
+    /**
+     * Wake-ups for waiting threads: released services or [FreeSlot]s.
+     * A wake-up can be stale (the service is already taken), then the waiter just looks for an idle service again.
+     */
+    private val wakeups = ArrayBlockingQueue<Any>(WAKEUPS_CAPACITY)
+    private val waiters = AtomicInteger(0)
+
+    override var metrics: PoolMetricsRecorder = PoolMetricsRecorder.None
+
+    private val asyncWaiters = AsyncWaiters<S> { release(it) }
+
+    @Volatile
+    private var shuttingDown: Boolean = false
+
+
+    /// IMPLEMENTATION \\\
+
+    override fun populate() {
+        while (services.size < minServices) {
+            val h = tryOpenNewService(IDLE) ?: break
+            handOff(h)
+        }
+    }
+
+
+    override fun openIdleService(initializer: ((S) -> Unit)?): Boolean {
+        val h = tryOpenNewService(ACTIVE) ?: return false
+        if (initializer != null) {
+            try {
+                initializer(h.service)
+            }
+            catch (e: Throwable) {
+                removeTheService(h)
+                closeMeasured(h.service, true)
+                throw e
+            }
+        }
+        h.passivate()
+        handOff(h)
+        return true
+    }
+
+
+    @Throws(ServicePool.ExhaustedException::class, ServicePool.ShuttingDownException::class)
+    override fun borrow(): S {
+        if (shuttingDown) throw ServicePool.ShuttingDownException()
+        val t0 = System.nanoTime()
+
+        val last = affinity.get()
+        val h = if (last != null && last.tryActivate()) last
+                else takeIdle() ?: tryOpenNewService(ACTIVE) ?: awaitService(t0)
+        metrics.borrowed(h.borrowedNanos - t0)
+        return h.service
+    }
+
+    private fun takeIdle(): Handle? {
+        for (h in handles) if (h.tryActivate()) return h
+        return null
+    }
+
+    private fun awaitService(t0: Long): Handle {
+        val deadline = t0 + TimeUnit.MILLISECONDS.toNanos(waitingTime)
+        waiters.incrementAndGet()
+        try {
+            while (true) {
+                if (shuttingDown) throw ServicePool.ShuttingDownException()
+                val h = takeIdle() ?: tryOpenNewService(ACTIVE)
+                if (h != null) return h
+                val remaining = deadline - System.nanoTime()
+                if (remaining <= 0L) break
+                val item = wakeups.poll(remaining, TimeUnit.NANOSECONDS) ?: continue
+                if (item !== FreeSlot) {
+                    @Suppress("unchecked_cast")
+                    val handed = item as ConcurrentServicePool<S>.Handle
+                    if (handed.tryActivate()) return handed
+                }
+            }
+        }
+        finally {
+            waiters.decrementAndGet()
+        }
+        metrics.exhausted(System.nanoTime() - t0)
+        throw ServicePool.ExhaustedException()
+    }
+
+
+    override fun borrowAsync(): CompletableFuture<S> {
+        if (shuttingDown) return CompletableFuture.failedFuture(ServicePool.ShuttingDownException())
+        val t0 = System.nanoTime()
+        if (!asyncWaiters.isNotEmpty) {
+            val h = takeIdle()
+            if (h != null) {
+                metrics.borrowed(h.borrowedNanos - t0)
+                return CompletableFuture.completedFuture(h.service)
+            }
+        }
+        val future = asyncWaiters.enqueue(t0, waitingTime) { metrics.exhausted(it) }
+        if (reservedServices.get() < maxServices) openServiceAsync()
+        // a service could be released before the waiter was queued
+        takeIdle()?.let { handOver(it) }
+        return future
+    }
+
+    /**
+     * Gives the active service to the oldest async waiter,
+     * or makes it idle when nobody waits.
+     */
+    private fun handOver(h: Handle) {
+        h.renew()
+        val wait = asyncWaiters.serve(h.service)
+        if (wait >= 0L) {
+            metrics.borrowed(wait)
+            return
+        }
+        h.passivate()
+        handOff(h)
+    }
+
+    private fun openServiceAsync() {
+        AsyncWaiters.opener.execute {
+            try {
+                val h = tryOpenNewService(ACTIVE)
+                if (h != null) handOver(h)
+            }
+            catch (e: Throwable) {
+                asyncWaiters.fail(e)
+            }
+        }
+    }
+
+
+    override fun release(service: S) {
+        val h: Handle = services[service] ?: throw ServicePool.AlienServiceException()
+        metrics.released(System.nanoTime() - h.borrowedNanos)
+        affinity.set(h)
+        h.passivate()
+        handOff(h)
+    }
+
+    /**
+     * Gives the just idle service to the oldest async waiter, if any,
+     * or wakes a waiter up, if any, to take it; never waits itself.
+     * Every service that becomes idle goes through here.
+     */
+    private fun handOff(h: Handle) {
+        if (asyncWaiters.isNotEmpty && h.tryActivate()) {
+            handOver(h)
+            return
+        }
+        if (waiters.get() > 0) wakeups.offer(h)
+    }
+
+    override fun releaseBroken(service: S) {
+        val h: Handle = services[service] ?: throw ServicePool.AlienServiceException()
+        metrics.releasedBroken(System.nanoTime() - h.borrowedNanos)
+        removeTheService(h)
+        closeMeasured(service, true)
+        if (asyncWaiters.isNotEmpty) openServiceAsync()
+        if (waiters.get() > 0) wakeups.offer(FreeSlot)
+    }
+
+
+    override fun closeIdleServices() {
+        for (h in handles) {
+            if (!h.tryRemoveIdle()) continue
+            removeTheService(h)
+            closeMeasured(h.service, false)
+        }
+    }
+
+    override fun inspectIdleServices(inspector: (IdleService<S>) -> IdleVerdict) {
+        for (h in handles) {
+            if (!h.tryReserve()) continue
+            val verdict = try {
+                inspector(h)
+            }
+            catch (e: Throwable) {
+                h.unreserve()
+                throw e
+            }
+            when (verdict) {
+                IdleVerdict.Keep -> {
+                    h.unreserve()
+                    handOff(h)
+                }
+                IdleVerdict.Close, IdleVerdict.Broken -> {
+                    removeTheService(h)
+                    closeMeasured(h.service, verdict == IdleVerdict.Broken)
+                }
+            }
+        }
+    }
+
+    private fun removeTheService(h: Handle) {
+        h.remove()
+        if (services.remove(h.service) != null) {
+            handles.remove(h)
+            reservedServices.decrementAndGet()
+        }
+    }
+
+
+    private fun closeMeasured(service: S, wasBroken: Boolean) {
+        val t0 = System.nanoTime()
+        try {
+            closeService(service, wasBroken)
+        }
+        finally {
+            metrics.closed(System.nanoTime() - t0)
+        }
+    }
+
+
+    private fun tryOpenNewService(initialState: Int): Handle? {
+        while (true) {
+            val n = reservedServices.get()
+            if (n >= maxServices) return null
+            if (reservedServices.compareAndSet(n, n + 1)) break
+        }
+        try {
+            val t0 = System.nanoTime()
+            val service: S = openService()
+            metrics.opened(System.nanoTime() - t0)
+            val handle = Handle(service, initialState)
+            services[service] = handle
+            handles.add(handle)
+            return handle
+        }
+        catch (e: Throwable) {
+            reservedServices.decrementAndGet()
+            throw e
+        }
+    }
+
+
+    /// DIAGNOSTICS \\\
+
+    override val minCount: Int
+        get() = minServices
+
+    override val activeCount: Int
+        get() = totalCount - idleCount
+
+    override val idleCount: Int
+        get() = handles.count { it.idle }
+
+    override val totalCount: Int
+        get() = services.size
+
+}
@@ -0,0 +1,45 @@
+package org.jetbrains.dekaf.main.pool
+
+
+/**
+ * An idle service under inspection, with its timestamps (in milliseconds).
+ *
+ * @see ServiceLender.inspectIdleServices
+ */
+interface IdleService<S: Any> {
+
+    val service: S
+
+    /**
+     * When the service was opened.
+     */
+    val createdTime: Long
+
+    /**
+     * When the service was released back to the pool last time.
+     */
+    val releasedTime: Long
+
+    /**
+     * When the service was checked to be alive last time.
+     */
+    var checkedTime: Long
+
+}
+
+
+/**
+ * What to do with an inspected idle service.
+ */
+enum class IdleVerdict {
+
+    /** Return the service back to the pool. */
+    Keep,
+
+    /** Close the service. */
+    Close,
+
+    /** Close the service as broken one. */
+    Broken
+
+}
@@ -0,0 +1,82 @@
+package org.jetbrains.dekaf.main.pool
+
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.atomic.LongAccumulator
+import java.util.concurrent.atomic.LongAdder
+
+
+/**
+ * Lock-free histogram of durations in nanoseconds, with power-of-two buckets.
+ *
+ * Percentiles are approximate: they're the upper bounds of the buckets, not greater than the maximum.
+ */
+class LatencyHistogram {
+
+    private val buckets = AtomicLongArray(BUCKETS)
+    private val sum = LongAdder()
+    private val max = LongAccumulator(Math::max, 0L)
+
+
+    fun record(nanos: Long) {
+        val v = if (nanos > 0L) nanos else 0L
+        buckets.incrementAndGet(bucketOf(v))
+        sum.add(v)
+        max.accumulate(v)
+    }
+
+    /**
+     * The count is the sum of the buckets, so it's consistent with the percentiles.
+     */
+    fun snapshot(): Snapshot {
+        val b = LongArray(BUCKETS) { buckets.get(it) }
+        return Snapshot(b.sum(), sum.sum(), max.get(), b)
+    }
+
+
+    /**
+     * Immutable state of a histogram; all values are in nanoseconds.
+     */
+    class Snapshot internal constructor (val count: Long,
+                                         val sum: Long,
+                                         val max: Long,
+                                         private val buckets: LongArray) {
+
+        val mean: Long
+            get() = if (count > 0L) sum / count else 0L
+
+        /**
+         * Approximate percentile.
+         * @param p from 0.0 to 1.0.
+         */
+        fun percentile(p: Double): Long {
+            if (count == 0L) return 0L
+            val threshold = Math.ceil(count * p.coerceIn(0.0, 1.0)).toLong().coerceAtLeast(1L)
+            var cumulative = 0L
+            for (i in buckets.indices) {
+                cumulative += buckets[i]
+                if (cumulative >= threshold) return minOf(upperBoundOf(i), max)
+            }
+            return max
+        }
+
+        override fun toString() =
+                "count=$count mean=${mean}ns p50=${percentile(0.5)}ns p99=${percentile(0.99)}ns max=${max}ns"
+
+    }
+
+
+    private companion object {
+
+        const val BUCKETS = 64
+
+        /**
+         * Bucket 0 is for zero, bucket i is for values from 2^(i-1) to 2^i-1.
+         */
+        fun bucketOf(v: Long): Int = 64 - java.lang.Long.numberOfLeadingZeros(v)
+
+        fun upperBoundOf(bucket: Int): Long =
+                if (bucket >= 63) Long.MAX_VALUE else (1L shl bucket) - 1L
+
+    }
+
+}
@@ -0,0 +1,191 @@
+package org.jetbrains.dekaf.main.pool
+
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.LongAdder
+
+
+/**
+ * A service that was held longer than the leak threshold.
+ *
+ * @property holder     name of the thread that borrowed the service.
+ * @property heldTime   how long (in milliseconds) the service was held when the leak was detected.
+ * @property borrowSite the stack trace of the borrowing, or null when this borrowing was not sampled.
+ * @property reclaimed  whether the service was taken back forcibly.
+ */
+data class LeakReport (val holder: String,
+                       val heldTime: Long,
+                       val borrowSite: String?,
+                       val reclaimed: Boolean)
+
+
+/**
+ * Leak detector state at some moment.
+ */
+data class LeakSnapshot (val leakCount: Long,
+                         val reclaimedCount: Long,
+                         val recentLeaks: List<LeakReport>)
+
+
+/**
+ * Detects borrowed items that are not returned for too long.
+ *
+ * Every [sampling]-th borrowing remembers its stack trace, so the leaking call site can be found
+ * at a low cost. The held items are checked on a background thread; each item held longer
+ * than [threshold] is reported once, and, when [reclaimer] is specified, is taken back with it.
+ *
+ * @param threshold how long (in milliseconds) an item can be held before it's considered leaked.
+ * @param sampling  remember the stack of every n-th borrowing (1 — of every one, 0 — of none).
+ * @param period    how often (in milliseconds) to check the held items.
+ * @param reclaimer takes the leaked item back, or null when leaked items are only reported.
+ */
+class LeakDetector<T: Any> (private val threshold: Long,
+                            private val sampling: Int = 16,
+                            private val period: Long = 1_000L,
+                            private val reclaimer: ((T) -> Unit)? = null) {
+
+    /// STATE \\\
+
+    private class Borrowing (val holder: String, val since: Long, val site: Throwable?) {
+        @Volatile var reported: Boolean = false
+    }
+
+    private val held: MutableMap<T, Borrowing> = ConcurrentHashMap()
+
+    private val borrowCounter = AtomicLong()
+
+    private val leakAdder = LongAdder()
+    private val reclaimedAdder = LongAdder()
+
+    private val recent = ArrayDeque<LeakReport>()
+
+    @Volatile
+    private var executor: ScheduledExecutorService? = null
+
+
+    init {
+        require(threshold > 0) { "Wrong leak threshold: $threshold" }
+        require(period > 0) { "Wrong leak check period: $period" }
+    }
+
+
+    /// CONTROL \\\
+
+    @Synchronized
+    fun start() {
+        if (executor != null) return
+        val ex = Executors.newSingleThreadScheduledExecutor { r ->
+            val thread = Thread(r, "dekaf-leak-detector-" + threadCounter.incrementAndGet())
+            thread.isDaemon = true
+            thread
+        }
+        executor = ex
+        ex.scheduleWithFixedDelay(this::scanQuietly, period, period, TimeUnit.MILLISECONDS)
+    }
+
+    @Synchronized
+    fun stop() {
+        val ex = executor ?: return
+        executor = null
+        ex.shutdown()
+    }
+
+
+    /// TRACKING \\\
+
+    /**
+     * Remembers that the item has just been borrowed by the current thread.
+     */
+    fun borrowed(item: T) {
+        val n = borrowCounter.getAndIncrement()
+        val site = if (sampling > 0 && n % sampling == 0L) Throwable("Borrowed here") else null
+        held[item] = Borrowing(Thread.currentThread().name, System.nanoTime(), site)
+    }
+
+    /**
+     * Forgets the returned item.
+     * @return false when the item was not tracked (for example, it was reclaimed).
+     */
+    fun returned(item: T): Boolean =
+            held.remove(item) != null
+
+    val heldCount: Int
+        get() = held.size
+
+
+    /// DETECTION \\\
+
+    /**
+     * Checks the held items in the current thread.
+     */
+    fun scan() {
+        val now = System.nanoTime()
+        val limit = TimeUnit.MILLISECONDS.toNanos(threshold)
+        for ((item, b) in held.entries.toList()) {
+            val heldNanos = now - b.since
+            if (heldNanos < limit || b.reported) continue
+            b.reported = true
+            leakAdder.increment()
+            val reclaimed = reclaimer != null && held.remove(item, b)
+            if (reclaimed) {
+                try {
+                    reclaimer!!(item)
+                }
+                catch (e: Exception) {
+                    // the item is already taken out of tracking, nothing else to do
+                }
+                reclaimedAdder.increment()
+            }
+            remember(LeakReport(holder = b.holder,
+                                heldTime = TimeUnit.NANOSECONDS.toMillis(heldNanos),
+                                borrowSite = b.site?.let(this::renderStack),
+                                reclaimed = reclaimed))
+        }
+    }
+
+    private fun remember(report: LeakReport) {
+        synchronized(recent) {
+            recent.addLast(report)
+            while (recent.size > RECENT_LIMIT) recent.removeFirst()
+        }
+    }
+
+    private fun renderStack(site: Throwable): String =
+            site.stackTrace.joinToString(separator = "\n") { "at $it" }
+
+    private fun scanQuietly() {
+        try {
+            scan()
+        }
+        catch (e: Exception) {
+            // the next round will try again
+        }
+    }
+
+
+    /// DIAGNOSTICS \\\
+
+    val leakCount: Long
+        get() = leakAdder.sum()
+
+    val reclaimedCount: Long
+        get() = reclaimedAdder.sum()
+
+    fun snapshot(): LeakSnapshot =
+            LeakSnapshot(leakCount, reclaimedCount, synchronized(recent) { recent.toList() })
+
+
+    private companion object {
+
+        private const val RECENT_LIMIT = 16
+
+        private val threadCounter = AtomicInteger()
+
+    }
+
+}
@@ -0,0 +1,168 @@
+package org.jetbrains.dekaf.main.pool
+
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+
+
+/**
+ * Maintains idle services of a pool on a background thread:
+ * closes the ones idle for too long (above the minimal count) and the ones that are too old,
+ * checks the rest ones to be alive, and opens new services up to the minimal count.
+ *
+ * All times are in milliseconds; zero means the corresponding maintenance is off.
+ *
+ * @param pool     the pool to maintain.
+ * @param checker  checks whether the service is alive; returns false or throws when it's not.
+ */
+class PoolHousekeeper<S: Any> (private val pool: ServiceLender<S>,
+                               private val checker: (S) -> Boolean) {
+
+    /// INITIALIZATION \\\
+
+    fun setup(idleTimeout: Long = this.idleTimeout,
+              maxLifetime: Long = this.maxLifetime,
+              keepAliveTime: Long = this.keepAliveTime,
+              period: Long = this.period) {
+        require(period > 0) { "Wrong housekeeping period: $period" }
+        this.idleTimeout = idleTimeout
+        this.maxLifetime = maxLifetime
+        this.keepAliveTime = keepAliveTime
+        this.period = period
+    }
+
+
+    /// STATE \\\
+
+    private var idleTimeout: Long = 0
+    private var maxLifetime: Long = 0
+    private var keepAliveTime: Long = 0
+    private var period: Long = 30_000
+
+    @Volatile
+    private var executor: ScheduledExecutorService? = null
+    private var task: ScheduledFuture<*>? = null
+
+    private val refillRequested = AtomicBoolean(false)
+
+
+    /// CONTROL \\\
+
+    @Synchronized
+    fun start() {
+        if (executor != null) return
+        val ex = Executors.newSingleThreadScheduledExecutor { r ->
+            val thread = Thread(r, "dekaf-pool-housekeeper-" + threadCounter.incrementAndGet())
+            thread.isDaemon = true
+            thread
+        }
+        executor = ex
+        task = ex.scheduleWithFixedDelay(this::housekeepQuietly, period, period, TimeUnit.MILLISECONDS)
+        requestRefill()
+    }
+
+    @Synchronized
+    fun stop() {
+        val ex = executor ?: return
+        task?.cancel(false)
+        task = null
+        executor = null
+        ex.shutdown()
+    }
+
+    val isRunning: Boolean
+        get() = executor != null
+
+
+    /**
+     * Asks to open new services up to the minimal count in background.
+     * Does nothing when the housekeeper is not started.
+     */
+    fun requestRefill() {
+        val ex = executor ?: return
+        if (!refillRequested.compareAndSet(false, true)) return
+        try {
+            ex.execute {
+                refillRequested.set(false)
+                refillQuietly()
+            }
+        }
+        catch (e: RejectedExecutionException) {
+            refillRequested.set(false)
+        }
+    }
+
+
+    /// HOUSEKEEPING \\\
+
+    /**
+     * Performs one round of housekeeping in the current thread.
+     */
+    fun housekeep() {
+        val now = System.currentTimeMillis()
+        var surplus = pool.totalCount - pool.minCount
+        pool.inspectIdleServices { s ->
+            val verdict = inspect(s, now, surplus > 0)
+            if (verdict != IdleVerdict.Keep) surplus--
+            verdict
+        }
+        pool.populate()
+    }
+
+    private fun inspect(s: IdleService<S>, now: Long, canEvict: Boolean): IdleVerdict {
+        if (maxLifetime > 0 && now - s.createdTime >= lifetimeOf(s)) return IdleVerdict.Close
+        if (idleTimeout > 0 && canEvict && now - s.releasedTime >= idleTimeout) return IdleVerdict.Close
+        if (keepAliveTime > 0 && now - maxOf(s.releasedTime, s.checkedTime) >= keepAliveTime) {
+            val alive = try {
+                checker(s.service)
+            }
+            catch (e: Exception) {
+                false
+            }
+            if (!alive) return IdleVerdict.Broken
+            s.checkedTime = System.currentTimeMillis()
+        }
+        return IdleVerdict.Keep
+    }
+
+    /**
+     * The max lifetime reduced by a jitter of up to 1/40 of it, individual for each service,
+     * so services opened together are not retired all at once.
+     */
+    private fun lifetimeOf(s: IdleService<S>): Long {
+        val variance = maxLifetime / 40
+        if (variance <= 0) return maxLifetime
+        val jitter = (System.identityHashCode(s.service).toLong() and 0x7FFFFFFF) % variance
+        return maxLifetime - jitter
+    }
+
+    private fun housekeepQuietly() {
+        try {
+            housekeep()
+        }
+        catch (e: Exception) {
+            // the next round will try again
+        }
+    }
+
+    private fun refillQuietly() {
+        try {
+            pool.populate()
+        }
+        catch (e: Exception) {
+            // the next round will try again
+        }
+    }
+
+
+    private companion object {
+
+        private val threadCounter = AtomicInteger()
+
+    }
+
+}
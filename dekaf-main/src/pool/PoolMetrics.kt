@@ -0,0 +1,105 @@
+package org.jetbrains.dekaf.main.pool
+
+import java.util.concurrent.atomic.LongAdder
+
+
+/**
+ * Instrumentation SPI of service pools.
+ * All durations are in nanoseconds.
+ */
+interface PoolMetricsRecorder {
+
+    /** A service has been borrowed after waiting the given time. */
+    fun borrowed(waitNanos: Long) {}
+
+    /** A borrow has failed because no service became free in time. */
+    fun exhausted(waitNanos: Long) {}
+
+    /** A service has been released after being held the given time. */
+    fun released(holdNanos: Long) {}
+
+    /** A broken service has been released after being held the given time. */
+    fun releasedBroken(holdNanos: Long) {}
+
+    /** A new service has been opened in the given time. */
+    fun opened(nanos: Long) {}
+
+    /** A service has been closed in the given time. */
+    fun closed(nanos: Long) {}
+
+
+    companion object {
+
+        @JvmField
+        val None: PoolMetricsRecorder = object : PoolMetricsRecorder {}
+
+    }
+
+}
+
+
+/**
+ * Collects pool metrics into lock-free histograms and counters.
+ */
+class PoolMetrics : PoolMetricsRecorder {
+
+    val borrowWait = LatencyHistogram()
+    val holdTime   = LatencyHistogram()
+    val openTime   = LatencyHistogram()
+    val closeTime  = LatencyHistogram()
+
+    private val exhaustedAdder = LongAdder()
+    private val brokenAdder = LongAdder()
+
+    val exhaustedCount: Long
+        get() = exhaustedAdder.sum()
+
+    val brokenCount: Long
+        get() = brokenAdder.sum()
+
+
+    override fun borrowed(waitNanos: Long) = borrowWait.record(waitNanos)
+
+    override fun exhausted(waitNanos: Long) = exhaustedAdder.increment()
+
+    override fun released(holdNanos: Long) = holdTime.record(holdNanos)
+
+    override fun releasedBroken(holdNanos: Long) {
+        holdTime.record(holdNanos)
+        brokenAdder.increment()
+    }
+
+    override fun opened(nanos: Long) = openTime.record(nanos)
+
+    override fun closed(nanos: Long) = closeTime.record(nanos)
+
+
+    fun snapshot(pool: ServiceLender<*>): PoolMetricsSnapshot =
+            PoolMetricsSnapshot(activeCount = pool.activeCount,
+                                idleCount = pool.idleCount,
+                                totalCount = pool.totalCount,
+                                exhaustedCount = exhaustedCount,
+                                brokenCount = brokenCount,
+                                borrowWait = borrowWait.snapshot(),
+                                holdTime = holdTime.snapshot(),
+                                openTime = openTime.snapshot(),
+                                closeTime = closeTime.snapshot())
+
+}
+
+
+/**
+ * Pool metrics at some moment.
+ */
+data class PoolMetricsSnapshot (val activeCount: Int,
+                                val idleCount: Int,
+                                val totalCount: Int,
+                                val exhaustedCount: Long,
+                                val brokenCount: Long,
+                                val borrowWait: LatencyHistogram.Snapshot,
+                                val holdTime: LatencyHistogram.Snapshot,
+                                val openTime: LatencyHistogram.Snapshot,
+                                val closeTime: LatencyHistogram.Snapshot,
+                                val classes: List<BorrowerClassSnapshot> = emptyList(),
+                                val limiter: LimiterSnapshot? = null,
+                                val leaks: LeakSnapshot? = null)
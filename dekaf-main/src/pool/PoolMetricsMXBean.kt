@@ -0,0 +1,104 @@
+package org.jetbrains.dekaf.main.pool
+
+import java.lang.management.ManagementFactory
+import javax.management.ObjectName
+
+
+/**
+ * JMX view of pool metrics; durations are in milliseconds.
+ */
+interface PoolMetricsMXBean {
+
+    val activeCount: Int
+    val idleCount: Int
+    val totalCount: Int
+
+    val borrowCount: Long
+    val exhaustedCount: Long
+    val brokenCount: Long
+
+    val borrowWaitMean: Double
+    val borrowWaitP99: Double
+    val borrowWaitMax: Double
+
+    val holdTimeMean: Double
+    val holdTimeP99: Double
+
+    val openTimeMean: Double
+    val closeTimeMean: Double
+
+    /** The current concurrency limit, or -1 when there's no limiter. */
+    val concurrencyLimit: Int
+    val rejectedCount: Long
+
+    /** How many leaked services were detected; 0 when there's no leak detector. */
+    val leakCount: Long
+    val reclaimedCount: Long
+
+    /** The recently detected leaks, with borrow sites when they were sampled. */
+    val recentLeaks: List<String>
+
+}
+
+
+/**
+ * Exposes metrics of the given pool through JMX.
+ */
+class PoolMetricsBean (private val metrics: PoolMetrics,
+                       private val pool: ServiceLender<*>,
+                       private val limiter: AdaptiveLimiter? = null,
+                       private val leakDetector: LeakDetector<*>? = null) : PoolMetricsMXBean {
+
+    private var objectName: ObjectName? = null
+
+
+    fun register(name: String) {
+        if (objectName != null) return
+        val on = ObjectName("org.jetbrains.dekaf:type=Pool,name=" + ObjectName.quote(name))
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, on)
+        objectName = on
+    }
+
+    fun unregister() {
+        val on = objectName ?: return
+        objectName = null
+        val server = ManagementFactory.getPlatformMBeanServer()
+        if (server.isRegistered(on)) server.unregisterMBean(on)
+    }
+
+
+    override val activeCount: Int get() = pool.activeCount
+    override val idleCount: Int get() = pool.idleCount
+    override val totalCount: Int get() = pool.totalCount
+
+    override val borrowCount: Long get() = metrics.borrowWait.snapshot().count
+    override val exhaustedCount: Long get() = metrics.exhaustedCount
+    override val brokenCount: Long get() = metrics.brokenCount
+
+    override val borrowWaitMean: Double get() = millis(metrics.borrowWait.snapshot().mean)
+    override val borrowWaitP99: Double get() = millis(metrics.borrowWait.snapshot().percentile(0.99))
+    override val borrowWaitMax: Double get() = millis(metrics.borrowWait.snapshot().max)
+
+    override val holdTimeMean: Double get() = millis(metrics.holdTime.snapshot().mean)
+    override val holdTimeP99: Double get() = millis(metrics.holdTime.snapshot().percentile(0.99))
+
+    override val openTimeMean: Double get() = millis(metrics.openTime.snapshot().mean)
+    override val closeTimeMean: Double get() = millis(metrics.closeTime.snapshot().mean)
+
+    override val concurrencyLimit: Int get() = limiter?.limit ?: -1
+    override val rejectedCount: Long get() = limiter?.rejectedCount ?: 0L
+
+    override val leakCount: Long get() = leakDetector?.leakCount ?: 0L
+    override val reclaimedCount: Long get() = leakDetector?.reclaimedCount ?: 0L
+
+    override val recentLeaks: List<String>
+        get() = leakDetector?.snapshot()?.recentLeaks?.map { r ->
+            "held by ${r.holder} for ${r.heldTime} ms" +
+            (if (r.reclaimed) ", reclaimed" else "") +
+            (r.borrowSite?.let { "\n$it" } ?: "")
+        } ?: emptyList()
+
+
+    private fun millis(nanos: Long): Double = nanos / 1_000_000.0
+
+}
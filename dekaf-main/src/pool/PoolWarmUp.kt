@@ -0,0 +1,82 @@
+package org.jetbrains.dekaf.main.pool
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CancellationException
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.math.min
+
+
+/**
+ * Result of warming a pool up.
+ *
+ * @property requested how many services were to be opened.
+ * @property opened    how many services have been opened and initialized.
+ * @property failures  errors of opening or initializing services.
+ * @property timedOut  whether some services were not opened in time.
+ */
+class WarmUpReport (val requested: Int,
+                    val opened: Int,
+                    val failures: List<Throwable>,
+                    val timedOut: Boolean) {
+
+    val complete: Boolean
+        get() = opened >= requested && failures.isEmpty() && !timedOut
+
+    override fun toString() =
+            "Warm-up: $opened of $requested services opened" +
+            (if (failures.isNotEmpty()) ", ${failures.size} failed" else "") +
+            (if (timedOut) ", timed out" else "")
+
+}
+
+
+private val warmUpThreadCounter = AtomicInteger()
+
+
+/**
+ * Opens services up to the minimal count concurrently, using at most [parallelism] threads.
+ *
+ * @param parallelism how many services to open at the same time.
+ * @param timeout     how long to wait for all services, in milliseconds;
+ *                    the services not opened in this time are abandoned.
+ * @param initializer prepares each just opened service.
+ * @return what has been done.
+ */
+fun<S: Any> ServiceLender<S>.warmUp(parallelism: Int,
+                                    timeout: Long,
+                                    initializer: ((S) -> Unit)? = null): WarmUpReport {
+    val requested = minCount - totalCount
+    if (requested <= 0) return WarmUpReport(0, 0, emptyList(), false)
+
+    val threads = min(parallelism, requested).coerceAtLeast(1)
+    val executor = Executors.newFixedThreadPool(threads) { r ->
+        val thread = Thread(r, "dekaf-pool-warm-up-" + warmUpThreadCounter.incrementAndGet())
+        thread.isDaemon = true
+        thread
+    }
+    try {
+        val tasks = List(requested) { Callable { openIdleService(initializer) } }
+        val futures = executor.invokeAll(tasks, timeout, TimeUnit.MILLISECONDS)
+        var opened = 0
+        var timedOut = false
+        val failures = ArrayList<Throwable>()
+        for (f in futures) {
+            try {
+                if (f.get()) opened++
+            }
+            catch (e: CancellationException) {
+                timedOut = true
+            }
+            catch (e: ExecutionException) {
+                failures.add(e.cause ?: e)
+            }
+        }
+        return WarmUpReport(requested, opened, failures, timedOut)
+    }
+    finally {
+        executor.shutdownNow()
+    }
+}
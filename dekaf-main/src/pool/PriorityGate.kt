@@ -0,0 +1,212 @@
+package org.jetbrains.dekaf.main.pool
+
+import java.util.*
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.Condition
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+
+/**
+ * A class of pool borrowers.
+ *
+ * @property name        the name of the class.
+ * @property priority    waiters of a class with greater priority get released services first.
+ * @property minServices how many services are kept for this class: other classes can't take them.
+ * @property maxServices how many services this class can hold at the same time.
+ */
+data class BorrowerClass (val name: String,
+                          val priority: Int = 0,
+                          val minServices: Int = 0,
+                          val maxServices: Int = Int.MAX_VALUE)
+
+
+/**
+ * Per-class metrics at some moment.
+ */
+data class BorrowerClassSnapshot (val name: String,
+                                  val activeCount: Int,
+                                  val waitingCount: Int,
+                                  val exhaustedCount: Long,
+                                  val borrowWait: LatencyHistogram.Snapshot,
+                                  val holdTime: LatencyHistogram.Snapshot)
+
+
+/**
+ * Admits borrowers of different classes to a pool of limited size.
+ *
+ * A borrower gets a permit before borrowing a service, and returns it after releasing the service.
+ * A permit is given when the class has not reached its maximum and the services guaranteed
+ * to other classes remain free. When a permit is returned, it's given to the waiter
+ * of the highest priority that can be admitted (FIFO within the same priority).
+ *
+ * @param classes       the borrower classes.
+ * @param totalServices the maximal count of services in the pool.
+ */
+class PriorityGate (classes: Collection<BorrowerClass>,
+                    private val totalServices: Int) {
+
+    /// STATE \\\
+
+    internal class ClassState (val cls: BorrowerClass) {
+        var active: Int = 0
+        var waiting: Int = 0
+        val metrics = PoolMetrics()
+    }
+
+    private class Waiter (val state: ClassState, val priority: Int, val seq: Long, val signal: Condition) {
+        var granted: Boolean = false
+    }
+
+    private val states: Map<String, ClassState> =
+            classes.associate { it.name to ClassState(it) }
+
+    private val lock = ReentrantLock()
+
+    private val waiters = PriorityQueue<Waiter>(compareByDescending<Waiter> { it.priority }.thenBy { it.seq })
+    private var seq: Long = 0L
+
+    private var activeTotal: Int = 0
+
+
+    init {
+        require(states.isNotEmpty()) { "No borrower classes" }
+        require(classes.sumBy { it.minServices } <= totalServices) {
+            "Guaranteed services of borrower classes exceed the pool size $totalServices"
+        }
+    }
+
+
+    /// PERMITS \\\
+
+    inner class Permit internal constructor (private val state: ClassState) {
+
+        private val since = System.nanoTime()
+        private var released = false
+
+        val className: String
+            get() = state.cls.name
+
+        /**
+         * Returns the permit; the second call does nothing.
+         */
+        fun release() {
+            lock.withLock {
+                if (released) return
+                released = true
+                state.active--
+                activeTotal--
+                state.metrics.released(System.nanoTime() - since)
+                dispatch()
+            }
+        }
+    }
+
+
+    fun hasClass(className: String): Boolean = className in states
+
+    /**
+     * Waits for a permit for the given class.
+     * @param timeout how long to wait, in milliseconds.
+     * @throws ServicePool.ExhaustedException when no permit is given in time.
+     * @throws IllegalArgumentException when no such class.
+     */
+    @Throws(ServicePool.ExhaustedException::class)
+    fun acquire(className: String, timeout: Long): Permit {
+        val state = states[className] ?: throw IllegalArgumentException("Unknown borrower class: $className")
+        val t0 = System.nanoTime()
+        lock.withLock {
+            if (!hasWaitersBefore(state.cls.priority) && canAdmit(state)) return admit(state, t0)
+
+            val waiter = Waiter(state, state.cls.priority, seq++, lock.newCondition())
+            waiters.add(waiter)
+            state.waiting++
+            // the waiters before can be stuck at the maximums of their classes
+            dispatch()
+            try {
+                var nanos = TimeUnit.MILLISECONDS.toNanos(timeout)
+                while (!waiter.granted) {
+                    if (nanos <= 0L) {
+                        waiters.remove(waiter)
+                        dispatch()
+                        state.metrics.exhausted(System.nanoTime() - t0)
+                        throw ServicePool.ExhaustedException()
+                    }
+                    nanos = waiter.signal.awaitNanos(nanos)
+                }
+            }
+            catch (e: InterruptedException) {
+                if (waiter.granted) {
+                    // the permit is already counted, return it back
+                    state.active--
+                    activeTotal--
+                    dispatch()
+                }
+                else {
+                    waiters.remove(waiter)
+                    dispatch()
+                }
+                throw e
+            }
+            finally {
+                state.waiting--
+            }
+            state.metrics.borrowed(System.nanoTime() - t0)
+            return Permit(state)
+        }
+    }
+
+    private fun hasWaitersBefore(priority: Int): Boolean {
+        val first = waiters.peek() ?: return false
+        return first.priority >= priority
+    }
+
+    private fun canAdmit(state: ClassState): Boolean {
+        if (state.active >= state.cls.maxServices) return false
+        var reserved = 0
+        for (other in states.values) {
+            if (other !== state) reserved += maxOf(other.cls.minServices - other.active, 0)
+        }
+        return activeTotal + reserved < totalServices
+    }
+
+    private fun admit(state: ClassState, t0: Long): Permit {
+        state.active++
+        activeTotal++
+        state.metrics.borrowed(System.nanoTime() - t0)
+        return Permit(state)
+    }
+
+    /**
+     * Grants permits to the waiters that can be admitted now, in the priority order.
+     */
+    private fun dispatch() {
+        if (waiters.isEmpty()) return
+        val ordered = waiters.sortedWith(waiters.comparator())
+        for (w in ordered) {
+            val state = w.state
+            if (!canAdmit(state)) continue
+            waiters.remove(w)
+            state.active++
+            activeTotal++
+            w.granted = true
+            w.signal.signal()
+        }
+    }
+
+
+    /// DIAGNOSTICS \\\
+
+    fun snapshot(): List<BorrowerClassSnapshot> =
+            lock.withLock {
+                states.values.map { s ->
+                    BorrowerClassSnapshot(name = s.cls.name,
+                                          activeCount = s.active,
+                                          waitingCount = s.waiting,
+                                          exhaustedCount = s.metrics.exhaustedCount,
+                                          borrowWait = s.metrics.borrowWait.snapshot(),
+                                          holdTime = s.metrics.holdTime.snapshot())
+                }
+            }
+
+}
@@ -0,0 +1,82 @@
+package org.jetbrains.dekaf.main.pool
+
+import java.util.concurrent.CompletableFuture
+
+
+/**
+ * The borrow/release contract of service pools.
+ *
+ * @see ServicePool
+ * @see ConcurrentServicePool
+ */
+interface ServiceLender<S: Any> {
+
+    /**
+     * Opens services until the minimal count of them is reached.
+     */
+    fun populate()
+
+    /**
+     * Opens a new service, initializes it and puts it to the pool as an idle one.
+     * Several threads can open services concurrently.
+     * @param initializer prepares the just opened service; if it fails, the service is closed.
+     * @return false when the pool already has the maximal count of services.
+     */
+    fun openIdleService(initializer: ((S) -> Unit)? = null): Boolean
+
+    /**
+     * Borrows an idle service, or opens a new one, or waits for a released one.
+     */
+    @Throws(ServicePool.ExhaustedException::class, ServicePool.ShuttingDownException::class)
+    fun borrow(): S
+
+    /**
+     * Borrows a service without blocking the caller.
+     *
+     * When there is no idle service, the borrower is queued; released services go to
+     * the queued borrowers in FIFO order. The future fails with [ServicePool.ExhaustedException]
+     * when no service is got in the waiting time; it can be cancelled.
+     * New services are opened in background.
+     */
+    fun borrowAsync(): CompletableFuture<S>
+
+    /**
+     * Returns the borrowed service back to the pool.
+     */
+    fun release(service: S)
+
+    /**
+     * Returns the borrowed service that is broken; the pool closes it.
+     */
+    fun releaseBroken(service: S)
+
+    /**
+     * Closes all idle services.
+     */
+    fun closeIdleServices()
+
+    /**
+     * Takes idle services out of circulation one by one and passes them to the [inspector];
+     * then returns each service back to the pool or closes it, as the inspector decides.
+     */
+    fun inspectIdleServices(inspector: (IdleService<S>) -> IdleVerdict)
+
+
+    /**
+     * Where to report borrowing, releasing, opening and closing of services.
+     */
+    var metrics: PoolMetricsRecorder
+
+
+    /**
+     * The minimal count of services, specified in the setup.
+     */
+    val minCount: Int
+
+    val activeCount: Int
+
+    val idleCount: Int
+
+    val totalCount: Int
+
+}
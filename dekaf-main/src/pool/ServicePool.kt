@@ -1,6 +1,7 @@
 package org.jetbrains.dekaf.main.pool
 
 import java.util.concurrent.BlockingDeque
+import java.util.concurrent.CompletableFuture
 import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.LinkedBlockingDeque
 import java.util.concurrent.TimeUnit
@@ -8,7 +9,7 @@ import java.util.concurrent.atomic.AtomicInteger
 import kotlin.math.min
 
 
-abstract class ServicePool<S: Any> {
+abstract class ServicePool<S: Any> : ServiceLender<S> {
 
     /// INITIALIZATION \\\
 
@@ -40,18 +41,36 @@ abstract class ServicePool<S: Any> {
 
     }
 
-    private inner class Handle (val service: S) {
+    private inner class Handle (override val service: S) : IdleService<S> {
 
+        @Volatile
         var active: Boolean = false
             private set
 
+        @Volatile
         var last: Long = now()
             private set
 
+        override val createdTime: Long = last
+
+        override val releasedTime: Long
+            get() = last
+
+        @Volatile
+        override var checkedTime: Long = last
+
+        /**
+         * When the service was borrowed last time, by [System.nanoTime].
+         */
+        @Volatile
+        var borrowedNanos: Long = 0L
+            private set
+
         internal fun activate(): S {
             active = true
             activeServices.incrementAndGet()
             updateTime()
+            borrowedNanos = System.nanoTime()
             return service
         }
 
@@ -85,21 +104,29 @@ abstract class ServicePool<S: Any> {
     @Volatile
     private var shuttingDown: Boolean = false
 
-    private val serviceAcquireLock = Object()
+    /**
+     * Count of services, including the ones being opened.
+     */
+    private val reservedServices = AtomicInteger(0)
+
+    override var metrics: PoolMetricsRecorder = PoolMetricsRecorder.None
+
+    private val asyncWaiters = AsyncWaiters<S> { release(it) }
 
 
     /// IMPLEMENTATION \\\
 
-    fun populate() {
+    override fun populate() {
         while (services.size < minServices) {
             val h: Handle = askForNewService() ?: break
-            deque.putLast(h)
+            handOver(h, toTail = true)
         }
     }
 
 
     @Throws(ExhaustedException::class, ShuttingDownException::class)
-    fun borrow(): S {
+    override fun borrow(): S {
+        val t0 = System.nanoTime()
         val t1 = now()
         val tLimit = t1 + waitingTime
         var h: Handle?
@@ -108,51 +135,164 @@ abstract class ServicePool<S: Any> {
             val sn = services.size
             if ((deque.isEmpty() || sn < minServices) && sn < maxServices) {
                 h = askForNewService()
-                if (h != null) return h.activate()
+                if (h != null) return activated(h, t0)
             }
             h = deque.pollFirst(blockingTime, TimeUnit.MILLISECONDS)
-            if (h != null) return h.activate()
+            if (h != null) return activated(h, t0)
         } while (now() < tLimit)
+        metrics.exhausted(System.nanoTime() - t0)
         throw ExhaustedException()
     }
 
+    private fun activated(h: Handle, t0: Long): S {
+        val service = h.activate()
+        metrics.borrowed(h.borrowedNanos - t0)
+        return service
+    }
+
+
+    override fun borrowAsync(): CompletableFuture<S> {
+        if (shuttingDown) return CompletableFuture.failedFuture(ShuttingDownException())
+        val t0 = System.nanoTime()
+        if (!asyncWaiters.isNotEmpty) {
+            val h = deque.pollFirst()
+            if (h != null) return CompletableFuture.completedFuture(activated(h, t0))
+        }
+        val future = asyncWaiters.enqueue(t0, waitingTime) { metrics.exhausted(it) }
+        if (reservedServices.get() < maxServices) openServiceAsync()
+        // a service could be released before the waiter was queued
+        deque.pollFirst()?.let { handOver(it) }
+        return future
+    }
+
+    /**
+     * Gives the idle service (that is out of the deque) to the oldest async waiter,
+     * or puts it into the deque when nobody waits.
+     * Every service that becomes idle goes through here.
+     */
+    private fun handOver(h: Handle, toTail: Boolean = rotating) {
+        if (asyncWaiters.isNotEmpty) {
+            h.activate()
+            val wait = asyncWaiters.serve(h.service)
+            if (wait >= 0L) {
+                metrics.borrowed(wait)
+                return
+            }
+            h.passivate()
+        }
+        if (toTail) deque.addLast(h)
+        else deque.addFirst(h)
+        // an async waiter could be queued meanwhile, after it looked into the deque
+        if (asyncWaiters.isNotEmpty) deque.pollFirst()?.let { handOver(it) }
+    }
+
+    private fun openServiceAsync() {
+        AsyncWaiters.opener.execute {
+            try {
+                val h = askForNewService()
+                if (h != null) handOver(h)
+            }
+            catch (e: Throwable) {
+                asyncWaiters.fail(e)
+            }
+        }
+    }
+
 
-    fun release(service: S) {
+    override fun release(service: S) {
         val h: Handle = services[service] ?: throw AlienServiceException()
+        metrics.released(System.nanoTime() - h.borrowedNanos)
         h.passivate()
-        if (rotating) deque.addLast(h)
-        else deque.addFirst(h)
+        handOver(h)
     }
 
-    fun releaseBroken(service: S) {
+    override fun releaseBroken(service: S) {
         val h: Handle = services.remove(service) ?: throw AlienServiceException()
+        reservedServices.decrementAndGet()
+        metrics.releasedBroken(System.nanoTime() - h.borrowedNanos)
         h.passivate()
-        closeService(h.service, true)
+        closeMeasured(h.service, true)
+        if (asyncWaiters.isNotEmpty) openServiceAsync()
     }
 
 
-    fun closeIdleServices() {
+    override fun closeIdleServices() {
         while (deque.isNotEmpty()) {
             val h: Handle = deque.pollLast() ?: break
             closeTheService(h)
         }
     }
 
-    private fun closeTheService(h: Handle) {
+    override fun inspectIdleServices(inspector: (IdleService<S>) -> IdleVerdict) {
+        for (h in deque.toList()) {
+            if (!deque.remove(h)) continue
+            val verdict = try {
+                inspector(h)
+            }
+            catch (e: Throwable) {
+                deque.addLast(h)
+                throw e
+            }
+            when (verdict) {
+                IdleVerdict.Keep   -> handOver(h, toTail = true)
+                IdleVerdict.Close  -> closeTheService(h, false)
+                IdleVerdict.Broken -> closeTheService(h, true)
+            }
+        }
+    }
+
+    private fun closeTheService(h: Handle, wasBroken: Boolean = false) {
         val s: S = h.service
-        services.remove(s)
-        closeService(s, false)
+        if (services.remove(s) != null) reservedServices.decrementAndGet()
+        closeMeasured(s, wasBroken)
+    }
+
+    private fun closeMeasured(service: S, wasBroken: Boolean) {
+        val t0 = System.nanoTime()
+        try {
+            closeService(service, wasBroken)
+        }
+        finally {
+            metrics.closed(System.nanoTime() - t0)
+        }
     }
 
 
-    private fun askForNewService(): Handle? =
-            synchronized(serviceAcquireLock) {
-                if (services.size < maxServices) acquireNewService()
-                else null
+    override fun openIdleService(initializer: ((S) -> Unit)?): Boolean {
+        val h: Handle = askForNewService() ?: return false
+        if (initializer != null) {
+            try {
+                initializer(h.service)
+            }
+            catch (e: Throwable) {
+                closeTheService(h, true)
+                throw e
             }
+        }
+        handOver(h, toTail = true)
+        return true
+    }
+
+
+    private fun askForNewService(): Handle? {
+        while (true) {
+            val n = reservedServices.get()
+            if (n >= maxServices) return null
+            if (reservedServices.compareAndSet(n, n + 1)) break
+        }
+        try {
+            return acquireNewService()
+        }
+        catch (e: Throwable) {
+            reservedServices.decrementAndGet()
+            throw e
+        }
+    }
 
     private fun acquireNewService(): Handle {
+        val t0 = System.nanoTime()
         val service: S = openService()
+        metrics.opened(System.nanoTime() - t0)
         val handle = Handle(service)
         services.put(service, handle)
         return handle
@@ -161,13 +301,16 @@ abstract class ServicePool<S: Any> {
 
     /// DIAGNOSTICS \\\
 
-    val activeCount: Int
+    override val minCount: Int
+        get() = minServices
+
+    override val activeCount: Int
         get() = totalCount - idleCount
 
-    val idleCount: Int
+    override val idleCount: Int
         get() = deque.size
 
-    val totalCount: Int
+    override val totalCount: Int
         get() = services.size
 
 
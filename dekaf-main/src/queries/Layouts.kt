@@ -1,5 +1,6 @@
 package org.jetbrains.dekaf.main.queries
 
+import org.jetbrains.dekaf.inter.common.ColumnBatch
 import java.util.stream.Stream
 
 
@@ -9,11 +10,45 @@ fun<R:Any, B> layTableListOf(rowLayout: RowLayout<R,B>): QueryLayout<List<R>> =
 fun<R:Any, B> layTableArrayOf(rowLayout: RowLayout<R,B>): QueryLayout<Array<R>> =
         QueryTableLayout(ArrayTableLayout<R,B>(), rowLayout)
 
-fun<R:Any, B> layTableStreamOf(rowLayout: RowLayout<R,B>): QueryLayout<Stream<R>> =
-        QueryTableLayout(StreamTableLayout<R,B>(), rowLayout)
-
-fun<R:Any, B> layTableIteratorOf(rowLayout: RowLayout<R,B>): QueryLayout<Iterator<R>> =
-        QueryTableLayout(IterateTableLayout<R,B>(), rowLayout)
+/**
+ * @param prefetchDepth how many portions to fetch ahead on a background thread
+ *                      while the caller processes the current one (0 — don't prefetch);
+ *                      ignored when the rows hold streams of LOB values, which are valid only until the next row.
+ * @param portionSize   portion size, or 0 for the default one.
+ */
+fun<R:Any, B> layTableStreamOf(rowLayout: RowLayout<R,B>, prefetchDepth: Int = 0, portionSize: Int = 0): QueryLayout<Stream<R>> =
+        QueryTableLayout(StreamTableLayout<R,B>(prefetchDepth, portionSize), rowLayout)
+
+/**
+ * @param prefetchDepth how many portions to fetch ahead on a background thread
+ *                      while the caller processes the current one (0 — don't prefetch);
+ *                      ignored when the rows hold streams of LOB values, which are valid only until the next row.
+ * @param portionSize   portion size, or 0 for the default one.
+ */
+fun<R:Any, B> layTableIteratorOf(rowLayout: RowLayout<R,B>, prefetchDepth: Int = 0, portionSize: Int = 0): QueryLayout<Iterator<R>> =
+        QueryTableLayout(IterateTableLayout<R,B>(prefetchDepth, portionSize), rowLayout)
+
+fun layColumnarTable(): QueryLayout<List<ColumnBatch>> =
+        QueryColumnarLayout()
+
+/**
+ * Several result sets returned by one query, in order.
+ * @param layouts layouts of the result sets; each one should retrieve all rows at once.
+ */
+fun layMultiResultOf(vararg layouts: QueryLayout<*>): QueryLayout<List<Any?>> =
+        QueryMultiLayout(layouts.map { ResultPart(it) })
+
+/**
+ * Several results returned by one call: result sets and cursors of output parameters.
+ */
+fun layMultiResultOf(vararg parts: ResultPart<*>): QueryLayout<List<Any?>> =
+        QueryMultiLayout(parts.toList())
+
+/**
+ * The cursor returned through the output parameter at the given position.
+ */
+fun<T> layOutCursor(parameter: Int, layout: QueryLayout<T>): ResultPart<T> =
+        ResultPart(layout, parameter)
 
 
 inline fun<reified R, reified C1:Any, reified C2:Any> layRow(noinline function: (C1?,C2?) -> R): RowLayout<R, Any?> =
@@ -30,6 +65,18 @@ fun<R, C1:Any, C2:Any, C3:Any> layRow(rowClass: Class<R>, class1: Class<C1>, cla
         Fun3RowLayout(rowClass, class1, class2, class3, function)
 
 
+/**
+ * Makes rows by calling the primary constructor of a Kotlin class (a data class, for example)
+ * or the canonical constructor of a Java record.
+ * @param byName bind columns to the constructor parameters by names (true) or by positions (false).
+ */
+inline fun<reified R:Any> layRowOf(byName: Boolean = true): RowLayout<R, Any?> =
+        layRowOf(R::class.java, byName)
+
+fun<R:Any> layRowOf(rowClass: Class<R>, byName: Boolean = true): RowLayout<R, Any?> =
+        ConstructorRowLayout(rowClass, byName)
+
+
 inline fun<reified E:Any> layRowArrayOf(columnCount: Int, defaultValue: E): RowLayout<Array<out E>, E> =
         layRowArrayOf(E::class.java, columnCount, defaultValue)
 
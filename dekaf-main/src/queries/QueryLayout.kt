@@ -1,11 +1,23 @@
 package org.jetbrains.dekaf.main.queries
 
+import org.jetbrains.dekaf.inter.common.ColumnBatch
+import org.jetbrains.dekaf.inter.common.ParamDef
+import org.jetbrains.dekaf.inter.common.ParamDirection
+import org.jetbrains.dekaf.inter.common.ParamType
 import org.jetbrains.dekaf.main.queries.impl.*
+import org.jetbrains.dekaf.main.util.RowConstructor
+import org.jetbrains.dekaf.main.util.findRowConstructor
 import java.util.stream.Stream
 
 
 sealed class QueryLayout<T> {
     abstract fun makeResultCollector(): ResultCollector<T>
+
+    /**
+     * Parameter definitions the query should be prepared with, or null when no definitions are needed.
+     * @param inParamCount count of the given parameter values.
+     */
+    open fun paramDefs(inParamCount: Int): Array<ParamDef>? = null
 }
 
 
@@ -16,37 +28,87 @@ class QueryTableLayout<T, R:Any, B> (private val table: TableLayout<T,R,B>,
 }
 
 
+class QueryColumnarLayout : QueryLayout<List<ColumnBatch>>() {
+    override fun makeResultCollector(): ResultCollector<List<ColumnBatch>> =
+            ColumnarResultCollector()
+}
+
+
+/**
+ * One result of a query that returns several ones.
+ * @property layout    how to retrieve the result; it should retrieve all rows at once (not a stream or an iterator).
+ * @property parameter position of the output parameter that returns the cursor,
+ *                     or 0 for the next result set returned by the query itself.
+ */
+class ResultPart<T> (val layout: QueryLayout<T>, val parameter: Int = 0) {
+    init {
+        require(parameter >= 0) { "Wrong parameter position: $parameter" }
+    }
+}
+
+/**
+ * Several results got in one round trip: result sets returned by the query (in order)
+ * and cursors returned through output parameters. The result is the list of results of the parts.
+ */
+class QueryMultiLayout (private val parts: List<ResultPart<*>>) : QueryLayout<List<Any?>>() {
+
+    override fun makeResultCollector(): ResultCollector<List<Any?>> =
+            MultiResultCollector(parts)
+
+    override fun paramDefs(inParamCount: Int): Array<ParamDef>? {
+        val outs = parts.filter { it.parameter > 0 }.map { it.parameter }.toSortedSet()
+        if (outs.isEmpty()) return null
+        val n = maxOf(inParamCount + outs.size, outs.last())
+        return Array(n) { i ->
+            if (i + 1 in outs) ParamDef(ParamDirection.paramOut, ParamType.paramRefCursor, 0, null)
+            else ParamDef(ParamDirection.paramIn, null, 0, null)
+        }
+    }
+
+}
+
+
 
 
 
 sealed class TableLayout<T, R:Any, B> {
-    abstract fun makeResultCollector(row: RowLayout<R,B>): TableResultCollector<T, R, B>
+    abstract fun makeResultCollector(row: RowLayout<R,B>): TableResultCollector<T, R>
 }
 
 class ListTableLayout<R:Any, B> : TableLayout<List<R>, R, B>() {
-    override fun makeResultCollector(row: RowLayout<R,B>): TableResultCollector<List<R>, R, B> =
-            TableListResultCollector(row.makeRowHandler())
+    override fun makeResultCollector(row: RowLayout<R,B>): TableResultCollector<List<R>, R> =
+            TableListResultCollector(row.makeRowOpener())
 }
 
 class ArrayTableLayout<R:Any, B> : TableLayout<Array<R>, R, B>() {
-    override fun makeResultCollector(row: RowLayout<R, B>): TableResultCollector<Array<R>, R, B> =
-            TableArrayResultCollector(row.makeRowHandler())
+    override fun makeResultCollector(row: RowLayout<R, B>): TableResultCollector<Array<R>, R> =
+            TableArrayResultCollector(row.makeRowOpener())
 }
 
-class StreamTableLayout<R:Any, B> : TableLayout<Stream<R>, R, B>() {
-    override fun makeResultCollector(row: RowLayout<R, B>): TableResultCollector<Stream<R>, R, B> =
-            TableStreamResultCollector(row.makeRowHandler())
+/**
+ * @property prefetchDepth how many portions to fetch ahead on a background thread (0 — don't prefetch).
+ * @property portionSize   portion size, or 0 for the default one.
+ */
+class StreamTableLayout<R:Any, B> (private val prefetchDepth: Int = 0,
+                                   private val portionSize: Int = 0) : TableLayout<Stream<R>, R, B>() {
+    override fun makeResultCollector(row: RowLayout<R, B>): TableResultCollector<Stream<R>, R> =
+            TableStreamResultCollector(row.makeRowOpener(), prefetchDepth, portionSize)
 }
 
-class IterateTableLayout<R:Any, B> : TableLayout<Iterator<R>, R, B>() {
-    override fun makeResultCollector(row: RowLayout<R, B>): TableResultCollector<Iterator<R>, R, B> =
-            TableIteratorResultCollector(row.makeRowHandler())
+/**
+ * @property prefetchDepth how many portions to fetch ahead on a background thread (0 — don't prefetch).
+ * @property portionSize   portion size, or 0 for the default one.
+ */
+class IterateTableLayout<R:Any, B> (private val prefetchDepth: Int = 0,
+                                    private val portionSize: Int = 0) : TableLayout<Iterator<R>, R, B>() {
+    override fun makeResultCollector(row: RowLayout<R, B>): TableResultCollector<Iterator<R>, R> =
+            TableIteratorResultCollector(row.makeRowOpener(), prefetchDepth, portionSize)
 }
 
 
 
 sealed class RowLayout<R, B> {
-    abstract fun makeRowHandler(): RowHandler<R, B>
+    abstract fun makeRowOpener(): RowOpener<R>
 }
 
 
@@ -56,7 +118,7 @@ class Fun2RowLayout<R, C1:Any, C2:Any> (private val rowClass: Class<R>,
                                         private val function: (C1?,C2?) -> R)
     : RowLayout<R, Any?>() {
 
-    override fun makeRowHandler(): RowHandler<R, Any?> =
+    override fun makeRowOpener(): RowHandler<R, Any?> =
             RowFun2Handler(rowClass, class1, class2, function)
 }
 
@@ -68,7 +130,7 @@ class Fun3RowLayout<R, C1:Any, C2:Any, C3:Any> (private val rowClass: Class<R>,
                                                 private val function: (C1?,C2?,C3?) -> R)
     : RowLayout<R, Any?>() {
 
-    override fun makeRowHandler(): RowHandler<R, Any?> =
+    override fun makeRowOpener(): RowHandler<R, Any?> =
             RowFun3Handler(rowClass, class1, class2, class3, function)
 }
 
@@ -77,24 +139,39 @@ class ArrayOfMRowLayout<E:Any> (private val elementClass: Class<E>,
                                 private val columnCount: Int,
                                 private val defaultValue: E) : RowLayout<Array<out E>, E>() {
 
-    override fun makeRowHandler(): RowHandler<Array<out E>, E> =
+    override fun makeRowOpener(): RowHandler<Array<out E>, E> =
             RowArrayMHandler(elementClass, columnCount, defaultValue)
 }
 
 class ArrayOfNRowLayout<E:Any> (private val elementClass: Class<E>,
                                 private val columnCount: Int) : RowLayout<Array<out E?>, E?>() {
-    override fun makeRowHandler(): RowHandler<Array<out E?>, E?> =
+    override fun makeRowOpener(): RowHandler<Array<out E?>, E?> =
             RowArrayNHandler(elementClass, columnCount)
 }
 
+class ConstructorRowLayout<R:Any> (private val rowClass: Class<R>,
+                                   private val byName: Boolean) : RowLayout<R, Any?>() {
+
+    private val rowConstructor: RowConstructor<R> by lazy { findRowConstructor(rowClass) }
+
+    override fun makeRowOpener(): RowOpener<R> {
+        val rc = rowConstructor
+        val columnNames =
+                if (byName) rc.parameterNames
+                            ?: throw IllegalStateException("Parameter names of the ${rowClass.simpleName} constructor are unknown, so its columns can be bound by position only")
+                else null
+        return RowConstructorOpener(rc.constructor, columnNames)
+    }
+}
+
 class FieldByPositionRowLayout<F:Any> (val fieldClass: Class<F>, val position: Int) : RowLayout<F, F>() {
-    override fun makeRowHandler(): RowHandler<F, F> {
+    override fun makeRowOpener(): RowOpener<F> {
         TODO("not implemented yet")
     }
 }
 
 class FieldByNameRowLayout<F:Any> (val fieldClass: Class<F>, val name: String) : RowLayout<F, F>() {
-    override fun makeRowHandler(): RowHandler<F, F> {
+    override fun makeRowOpener(): RowOpener<F> {
         TODO("not implemented yet")
     }
 }
@@ -0,0 +1,34 @@
+package org.jetbrains.dekaf.main.queries.impl
+
+import org.jetbrains.dekaf.inter.common.ColumnBatch
+import org.jetbrains.dekaf.inter.intf.InterColumnarCursor
+import org.jetbrains.dekaf.inter.intf.InterSeance
+
+
+class ColumnarResultCollector: ResultCollector<List<ColumnBatch>> {
+
+    private lateinit var cursor: InterColumnarCursor
+
+
+    override fun prepare(seance: InterSeance, positionIndex: Int) {
+        val cursor = seance.makeColumnarCursor(positionIndex)
+        cursor.prepare()
+        this.cursor = cursor
+    }
+
+    override fun retrieve(): List<ColumnBatch> {
+        val result = ArrayList<ColumnBatch>()
+        while (true) {
+            val batch = cursor.fetchPortion() ?: break
+            result.add(batch)
+        }
+        return result
+    }
+
+    override fun close() {
+        if (::cursor.isInitialized) {
+            cursor.close()
+        }
+    }
+
+}
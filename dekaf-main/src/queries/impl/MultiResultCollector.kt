@@ -0,0 +1,35 @@
+package org.jetbrains.dekaf.main.queries.impl
+
+import org.jetbrains.dekaf.inter.intf.InterSeance
+import org.jetbrains.dekaf.main.queries.ResultPart
+
+
+class MultiResultCollector (private val parts: List<ResultPart<*>>) : ResultCollector<List<Any?>> {
+
+    private var seance: InterSeance? = null
+
+
+    override fun prepare(seance: InterSeance, positionIndex: Int) {
+        this.seance = seance
+    }
+
+    override fun retrieve(): List<Any?> {
+        val seance = seance ?: throw IllegalStateException("The collector is not prepared")
+        val result = ArrayList<Any?>(parts.size)
+        var resultSets = 0
+        for (part in parts) {
+            if (part.parameter == 0 && resultSets++ > 0 && !seance.nextResult())
+                throw IllegalStateException("The query returned fewer result sets than expected: ${resultSets - 1}")
+            val collector = part.layout.makeResultCollector()
+            collector.prepare(seance, part.parameter)
+            result.add(collector.retrieve())
+            collector.close()
+        }
+        return result
+    }
+
+    override fun close() {
+        seance = null
+    }
+
+}
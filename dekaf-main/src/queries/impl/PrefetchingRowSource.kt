@@ -0,0 +1,178 @@
+package org.jetbrains.dekaf.main.queries.impl
+
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+
+/**
+ * Fetches portions from the origin source on a background thread,
+ * up to [depth] portions ahead of the consumer.
+ *
+ * The origin source is used by the background thread only, and it's closed by that thread too.
+ * Errors of fetching are re-thrown to the consumer by [fetchPortion].
+ *
+ * The source should be attached to the seance (see [org.jetbrains.dekaf.inter.intf.InterSeance.attach]),
+ * so executing the seance again or closing it stops the background fetching
+ * before the cursors are touched by another thread.
+ */
+internal class PrefetchingRowSource<R> : RowSource<R> {
+
+    private val origin: RowSource<R>
+
+    private val queue: ArrayBlockingQueue<Any>
+
+    /**
+     * Counted down when the background fetching is finished and the origin source is closed.
+     */
+    private val done = CountDownLatch(1)
+
+    @Volatile
+    private var stopped: Boolean = false
+
+    @Volatile
+    private var finished: Boolean = false
+
+    /**
+     * The background thread while it's fetching; guarded by this object.
+     */
+    private var worker: Thread? = null
+
+
+    constructor(origin: RowSource<R>, depth: Int) {
+        require(depth >= 1) { "Wrong prefetch depth: $depth" }
+        this.origin = origin
+        this.queue = ArrayBlockingQueue(depth)
+        executor.execute(this::fetchAll)
+    }
+
+
+    private fun fetchAll() {
+        synchronized(this) {
+            worker = Thread.currentThread()
+        }
+        try {
+            while (!stopped) {
+                val portion = origin.fetchPortion()
+                if (!put(portion ?: End)) break
+                if (portion == null) break
+            }
+        }
+        catch (e: Throwable) {
+            put(Failure(e))
+        }
+        finally {
+            synchronized(this) {
+                worker = null
+            }
+            // the interruption of close() must reach neither closing of the cursors nor the next task of this thread
+            Thread.interrupted()
+            try {
+                origin.close()
+            }
+            finally {
+                done.countDown()
+            }
+        }
+    }
+
+    /**
+     * Puts the item into the queue, waiting for a free place while the source is not stopped.
+     * @return whether the item has been put.
+     */
+    private fun put(item: Any): Boolean {
+        while (!stopped) {
+            if (queue.offer(item, 100L, TimeUnit.MILLISECONDS)) return true
+        }
+        return false
+    }
+
+
+    override fun fetchPortion(): List<R>? {
+        var item: Any? = null
+        while (item == null) {
+            // the source can be closed by another thread while we're waiting
+            if (finished || stopped) return null
+            item = queue.poll(100L, TimeUnit.MILLISECONDS)
+        }
+        when (item) {
+            is End -> {
+                finished = true
+                return null
+            }
+            is Failure -> {
+                finished = true
+                val e = item.exception
+                throw if (e is RuntimeException || e is Error) e
+                      else RuntimeException("Failed to fetch a portion: ${e.message}", e)
+            }
+            else -> {
+                @Suppress("unchecked_cast")
+                return item as List<R>
+            }
+        }
+    }
+
+    /**
+     * Always false: streaming sources are not prefetched.
+     */
+    override val isStreaming: Boolean
+        get() = false
+
+    /**
+     * Stops the background fetching and waits until it is finished;
+     * the background thread stops by itself after the portion it's fetching now,
+     * and when it takes longer than [CLOSE_WAITING_TIME] it's interrupted.
+     * Can be called several times and from any thread.
+     */
+    override fun close() {
+        finished = true
+        stopped = true
+        queue.clear()
+        var interrupted = false
+        while (true) {
+            try {
+                if (!done.await(CLOSE_WAITING_TIME, TimeUnit.MILLISECONDS)) {
+                    synchronized(this) {
+                        worker?.interrupt()
+                    }
+                    // the cursors must not be touched by another thread until the fetching is finished
+                    done.await()
+                }
+                break
+            }
+            catch (e: InterruptedException) {
+                interrupted = true
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt()
+    }
+
+
+    private object End
+
+    private class Failure(val exception: Throwable)
+
+
+    companion object {
+
+        /**
+         * How long (in milliseconds) [close] waits for the background fetching to stop before interrupting it.
+         */
+        const val CLOSE_WAITING_TIME = 10_000L
+
+        private val threadCounter = AtomicInteger()
+
+        private val executor: ExecutorService =
+                Executors.newCachedThreadPool { task ->
+                    val thread = Thread(task, "dekaf-prefetch-" + threadCounter.incrementAndGet())
+                    thread.isDaemon = true
+                    thread
+                }
+
+    }
+
+}
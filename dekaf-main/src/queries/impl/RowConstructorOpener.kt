@@ -0,0 +1,32 @@
+package org.jetbrains.dekaf.main.queries.impl
+
+import org.jetbrains.dekaf.inter.intf.InterSeance
+import java.lang.reflect.Constructor
+
+
+/**
+ * Makes rows by calling the row class constructor directly from the cursor,
+ * without intermediate arrays of values.
+ */
+class RowConstructorOpener<R> : RowOpener<R> {
+
+    private val constructor: Constructor<R>
+    private val columnNames: Array<String>?
+
+    override val rowClass: Class<R>
+
+
+    constructor(constructor: Constructor<R>, columnNames: Array<String>?) {
+        this.constructor = constructor
+        this.columnNames = columnNames
+        this.rowClass = constructor.declaringClass
+    }
+
+
+    override fun open(seance: InterSeance, position: Int): RowSource<R> {
+        val cursor = seance.makeRowCursor(position, constructor, columnNames)
+        cursor.prepare()
+        return CursorRowSource(cursor)
+    }
+
+}
@@ -4,12 +4,16 @@ import org.jetbrains.dekaf.inter.intf.InterMatrixCursor
 import org.jetbrains.dekaf.inter.intf.InterSeance
 
 
-interface RowHandler<R, B> {
+/**
+ * Makes rows from the arrays of values fetched by a matrix cursor.
+ */
+interface RowHandler<R, B> : RowOpener<R> {
 
     fun prepare(seance: InterSeance, position: Int): InterMatrixCursor<B>
 
     fun handleRow(values: Array<out B>): R
 
-    val rowClass: Class<R>
+    override fun open(seance: InterSeance, position: Int): RowSource<R> =
+            MatrixRowSource(this, prepare(seance, position))
 
-}
\ No newline at end of file
+}
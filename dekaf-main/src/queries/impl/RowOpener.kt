@@ -0,0 +1,15 @@
+package org.jetbrains.dekaf.main.queries.impl
+
+import org.jetbrains.dekaf.inter.intf.InterSeance
+
+
+/**
+ * Opens the source of ready rows of a table result.
+ */
+interface RowOpener<R> {
+
+    val rowClass: Class<R>
+
+    fun open(seance: InterSeance, position: Int): RowSource<R>
+
+}
@@ -0,0 +1,76 @@
+package org.jetbrains.dekaf.main.queries.impl
+
+import org.jetbrains.dekaf.inter.intf.InterMatrixCursor
+import org.jetbrains.dekaf.inter.intf.InterRowCursor
+
+
+/**
+ * Source of ready rows for table result collectors.
+ */
+interface RowSource<R> : AutoCloseable {
+
+    /**
+     * Fetches the next portion of rows.
+     * @return the portion, or null when no more rows.
+     */
+    fun fetchPortion(): List<R>?
+
+    /**
+     * Whether the rows hold streams that become invalid when the next row is fetched
+     * (see [org.jetbrains.dekaf.inter.intf.InterCursor.isStreaming]).
+     */
+    val isStreaming: Boolean
+
+    override fun close()
+
+}
+
+
+/**
+ * Makes rows from the arrays fetched by a matrix cursor.
+ */
+internal class MatrixRowSource<R, B> : RowSource<R> {
+
+    private val handler: RowHandler<R, B>
+    private val cursor: InterMatrixCursor<B>
+
+    constructor(handler: RowHandler<R, B>, cursor: InterMatrixCursor<B>) {
+        this.handler = handler
+        this.cursor = cursor
+    }
+
+    override fun fetchPortion(): List<R>? {
+        val portion: Array<Array<B>> = cursor.fetchPortion() ?: return null
+        val rows = ArrayList<R>(portion.size)
+        for (r in portion) rows.add(handler.handleRow(r))
+        return rows
+    }
+
+    override val isStreaming: Boolean
+        get() = cursor.isStreaming
+
+    override fun close() = cursor.close()
+
+}
+
+
+/**
+ * Takes rows that are made by a row cursor.
+ */
+internal class CursorRowSource<R> : RowSource<R> {
+
+    private val cursor: InterRowCursor<R>
+
+    constructor(cursor: InterRowCursor<R>) {
+        this.cursor = cursor
+    }
+
+    override fun fetchPortion(): List<R>? =
+            cursor.fetchPortion()?.asList()
+
+    override val isStreaming: Boolean
+        get() = cursor.isStreaming
+
+    override fun close() = cursor.close()
+
+}
@@ -3,14 +3,14 @@ package org.jetbrains.dekaf.main.queries.impl
 import org.jetbrains.dekaf.inter.utils.ArrayHacks
 
 
-class TableArrayResultCollector<R, B>: TableResultCollector<Array<R>, R, B> {
+class TableArrayResultCollector<R>: TableResultCollector<Array<R>, R> {
 
-    constructor(handler: RowHandler<R, B>) : super(handler)
+    constructor(opener: RowOpener<R>) : super(opener)
 
 
     override fun retrieve(): Array<R> {
         val list = retrieveIntoArrayList()
-        val emptyArray: Array<R> = ArrayHacks.createEmptyArray(handler.rowClass)
+        val emptyArray: Array<R> = ArrayHacks.createEmptyArray(opener.rowClass)
         val n = list.size
         if (n == 0) return emptyArray
         return list.toArray(emptyArray)
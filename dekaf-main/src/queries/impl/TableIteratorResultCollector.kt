@@ -1,10 +1,11 @@
 package org.jetbrains.dekaf.main.queries.impl
 
 
-class TableIteratorResultCollector<R, B>: TableResultCollector<Iterator<R>, R, B> {
+class TableIteratorResultCollector<R>: TableResultCollector<Iterator<R>, R> {
 
 
-    constructor(handler: RowHandler<R, B>) : super(handler)
+    constructor(opener: RowOpener<R>, prefetchDepth: Int = 0, portionSize: Int = 0)
+        : super(opener, prefetchDepth, portionSize)
 
 
     override fun retrieve(): Iterator<R> {
@@ -13,5 +14,11 @@ class TableIteratorResultCollector<R, B>: TableResultCollector<Iterator<R>, R, B
         return iterator
     }
 
+    /**
+     * Keeps the source open: the iterator reads it lazily,
+     * and closes it when exhausted or closed (the iterator is [AutoCloseable]).
+     */
+    override fun close() {}
+
 
 }
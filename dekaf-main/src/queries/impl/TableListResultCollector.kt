@@ -1,9 +1,9 @@
 package org.jetbrains.dekaf.main.queries.impl
 
 
-class TableListResultCollector<R, B>: TableResultCollector<List<R>, R, B> {
+class TableListResultCollector<R>: TableResultCollector<List<R>, R> {
 
-    constructor(handler: RowHandler<R, B>) : super(handler)
+    constructor(opener: RowOpener<R>) : super(opener)
 
 
     override fun retrieve(): List<R> {
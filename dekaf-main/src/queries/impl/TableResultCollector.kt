@@ -1,51 +1,66 @@
 package org.jetbrains.dekaf.main.queries.impl
 
-import org.jetbrains.dekaf.inter.intf.InterMatrixCursor
 import org.jetbrains.dekaf.inter.intf.InterSeance
 
 
-abstract class TableResultCollector<T, R, B>: ResultCollector<T> {
+abstract class TableResultCollector<T, R>: ResultCollector<T> {
 
-    protected val handler: RowHandler<R, B>
+    protected val opener: RowOpener<R>
 
-    protected lateinit var cursor: InterMatrixCursor<B>
+    /**
+     * How many portions to fetch ahead on a background thread, or 0 for no prefetching.
+     * Streaming sources are never prefetched: their values are valid only until the next row is fetched.
+     */
+    private val prefetchDepth: Int
 
+    /**
+     * Portion size to set to the seance, or 0 for the seance's default one.
+     */
+    private val portionSize: Int
 
-    constructor(handler: RowHandler<R, B>) {
-        this.handler = handler
+    protected lateinit var source: RowSource<R>
+
+
+    constructor(opener: RowOpener<R>, prefetchDepth: Int = 0, portionSize: Int = 0) {
+        this.opener = opener
+        this.prefetchDepth = prefetchDepth
+        this.portionSize = portionSize
     }
 
 
     override fun prepare(seance: InterSeance, positionIndex: Int) {
-        cursor = handler.prepare(seance, positionIndex)
+        if (portionSize > 0) seance.setPortionSize(portionSize)
+        val source = opener.open(seance, positionIndex)
+        this.source =
+                if (prefetchDepth > 0 && !source.isStreaming) PrefetchingRowSource(source, prefetchDepth).also(seance::attach)
+                else source
     }
 
     protected fun retrieveIntoArrayList(): ArrayList<R> {
         val result = ArrayList<R>()
         while (true) {
-            val portion: Array<Array<B>> = cursor.fetchPortion() ?: break
-            val n = portion.size
-            if (n == 0) continue
-            result.ensureCapacity(result.size + n)
-            for (r in portion) {
-                val row = handler.handleRow(r)
-                result.add(row)
-            }
+            val portion: List<R> = source.fetchPortion() ?: break
+            if (portion.isEmpty()) continue
+            result.addAll(portion)
         }
-        //cursor.close()
+        //source.close()
         return result
     }
 
     override fun close() {
-        if (::cursor.isInitialized) {
-            cursor.close()
+        if (::source.isInitialized) {
+            source.close()
         }
     }
 
 
-    protected inner class PortionedIterator : Iterator<R> {
+    /**
+     * Reads the source portion by portion; closing the iterator closes the source,
+     * so an iterator that is not read to the end can be released.
+     */
+    protected inner class PortionedIterator : Iterator<R>, AutoCloseable {
 
-        private var portion: Array<Array<B>>? = null
+        private var portion: List<R>? = null
         private var index: Int = 0
 
         private val lock = Object()
@@ -57,9 +72,9 @@ abstract class TableResultCollector<T, R, B>: ResultCollector<T> {
         }
 
         private fun fetchNextPortion() {
-            portion = cursor.fetchPortion()
+            portion = source.fetchPortion()
             index = 0
-            if (portion == null) cursor.close()
+            if (portion == null) source.close()
         }
 
         override fun hasNext(): Boolean {
@@ -69,7 +84,7 @@ abstract class TableResultCollector<T, R, B>: ResultCollector<T> {
             }
         }
 
-        private fun nextRow(): Array<B> {
+        override fun next(): R {
             synchronized(lock) {
                 val portion = this.portion
                               ?: throw NoSuchElementException("Not more elements in the cursor")
@@ -80,9 +95,12 @@ abstract class TableResultCollector<T, R, B>: ResultCollector<T> {
             }
         }
 
-        override fun next(): R {
-            val row = nextRow()
-            return handler.handleRow(row)
+        override fun close() {
+            synchronized(lock) {
+                if (portion == null) return
+                portion = null
+                source.close()
+            }
         }
     }
 
@@ -5,9 +5,10 @@ import java.util.stream.Stream
 import java.util.stream.StreamSupport
 
 
-class TableStreamResultCollector<R, B>: TableResultCollector<Stream<R>, R, B> {
+class TableStreamResultCollector<R>: TableResultCollector<Stream<R>, R> {
 
-    constructor(handler: RowHandler<R, B>) : super(handler)
+    constructor(opener: RowOpener<R>, prefetchDepth: Int = 0, portionSize: Int = 0)
+        : super(opener, prefetchDepth, portionSize)
 
     override fun retrieve(): Stream<R> {
         val iterator = PortionedIterator()
@@ -15,9 +16,14 @@ class TableStreamResultCollector<R, B>: TableResultCollector<Stream<R>, R, B> {
         if (!iterator.hasNext()) return Stream.empty()
 
         val spliterator = Spliterators.spliteratorUnknownSize(iterator, 0);
-        val stream = StreamSupport.stream(spliterator, false)
-        stream.onClose { cursor.close() }
-        return stream
+        return StreamSupport.stream(spliterator, false)
+                .onClose(iterator::close)
     }
+
+    /**
+     * Keeps the source open: the stream reads it lazily,
+     * and closes it when exhausted or closed (see [Stream.close]).
+     */
+    override fun close() {}
     
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+@file:JvmName("ConstructorFun")
+
+package org.jetbrains.dekaf.main.util
+
+import java.lang.reflect.Constructor
+import kotlin.reflect.full.primaryConstructor
+import kotlin.reflect.jvm.javaConstructor
+
+
+/**
+ * The constructor that makes instances of a row class, with names of its parameters.
+ * @property parameterNames names of the parameters, or null when they're unknown.
+ */
+class RowConstructor<R>(val constructor: Constructor<R>, val parameterNames: Array<String>?)
+
+
+/**
+ * Finds the constructor to make rows of the given class:
+ * the primary constructor of a Kotlin class, or the constructor with the most parameters
+ * of a Java class (for a record it is the canonical one).
+ */
+fun<R:Any> findRowConstructor(rowClass: Class<R>): RowConstructor<R> {
+    if (rowClass.isAnnotationPresent(Metadata::class.java)) {
+        val primary = rowClass.kotlin.primaryConstructor
+        val constructor = primary?.javaConstructor
+        if (primary != null && constructor != null) {
+            val names = primary.parameters.map { it.name }
+            @Suppress("unchecked_cast")
+            val parameterNames = if (names.all { it != null }) (names as List<String>).toTypedArray() else null
+            return RowConstructor(constructor, parameterNames)
+        }
+    }
+
+    @Suppress("unchecked_cast")
+    val constructor = rowClass.declaredConstructors
+                              .filter { !it.isSynthetic }
+                              .maxByOrNull { it.parameterCount } as Constructor<R>?
+                      ?: throw IllegalArgumentException("Class ${rowClass.name} has no constructors")
+    val parameters = constructor.parameters
+    val parameterNames = if (parameters.all { it.isNamePresent }) Array(parameters.size) { parameters[it].name } else null
+    return RowConstructor(constructor, parameterNames)
+}